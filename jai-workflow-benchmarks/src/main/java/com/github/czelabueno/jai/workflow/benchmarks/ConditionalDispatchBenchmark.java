@@ -0,0 +1,95 @@
+package com.github.czelabueno.jai.workflow.benchmarks;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.benchmarks.WorkflowGraphs.Counter;
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching through {@link Conditional} edges: the evaluation of a conditional alone, and a
+ * run of a chain whose edges are all conditional, to compare with the same chain linked by node edges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionalDispatchBenchmark {
+
+    private static final int CHAIN_LENGTH = 100;
+
+    @Param({"2", "8"})
+    int targets;
+
+    private Conditional<Counter> conditional;
+    private Counter counter;
+    private DefaultStateWorkflow<Counter> nodeEdges;
+    private DefaultStateWorkflow<Counter> conditionalEdges;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Node<Counter, ?>> nodes = new ArrayList<>(targets);
+        for (int i = 0; i < targets; i++) {
+            nodes.add(WorkflowGraphs.step("target" + i));
+        }
+        conditional = new Conditional<>(state -> nodes.get(Math.floorMod(state.steps, targets)), nodes);
+        counter = new Counter();
+        nodeEdges = chain(false);
+        conditionalEdges = chain(true);
+    }
+
+    @Benchmark
+    public Node<Counter, ?> evaluate() {
+        counter.steps++;
+        return conditional.evaluate(counter);
+    }
+
+    @Benchmark
+    public Counter runNodeEdges() {
+        return nodeEdges.run(new Counter());
+    }
+
+    @Benchmark
+    public Counter runConditionalEdges() {
+        return conditionalEdges.run(new Counter());
+    }
+
+    private static DefaultStateWorkflow<Counter> chain(boolean conditionalEdges) {
+        List<Node<Counter, ?>> nodes = new ArrayList<>(CHAIN_LENGTH);
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            nodes.add(WorkflowGraphs.step("node" + i));
+        }
+        DefaultStateWorkflow<Counter> workflow = DefaultStateWorkflow.<Counter>builder()
+                .addNodes(nodes)
+                .build();
+        for (int i = 0; i < CHAIN_LENGTH - 1; i++) {
+            Node<Counter, ?> next = nodes.get(i + 1);
+            if (conditionalEdges) {
+                workflow.putEdge(nodes.get(i), Conditional.eval(state -> next, next));
+            } else {
+                workflow.putEdge(nodes.get(i), next);
+            }
+        }
+        workflow.putEdge(nodes.get(CHAIN_LENGTH - 1), WorkflowStateName.END);
+        workflow.startNode(nodes.get(0));
+        return workflow;
+    }
+}
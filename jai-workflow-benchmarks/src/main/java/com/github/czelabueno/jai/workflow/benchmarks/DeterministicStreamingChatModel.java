@@ -0,0 +1,37 @@
+package com.github.czelabueno.jai.workflow.benchmarks;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * An in-process streaming chat model answering every prompt with the same tokens, synchronously on the calling
+ * thread, so the benchmarks measure the streaming path of the workflow and not a model.
+ */
+final class DeterministicStreamingChatModel implements StreamingChatLanguageModel {
+
+    private final String[] tokens;
+    private final AiMessage answer;
+
+    DeterministicStreamingChatModel(int tokenCount) {
+        this.tokens = new String[tokenCount];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokenCount; i++) {
+            tokens[i] = "token" + i + " ";
+            text.append(tokens[i]);
+        }
+        this.answer = AiMessage.from(text.toString());
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        for (String token : tokens) {
+            handler.onNext(token);
+        }
+        handler.onComplete(Response.from(answer));
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.czelabueno.jai.workflow.benchmarks;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.langchain4j.AbstractStatefulBean;
+import com.github.czelabueno.jai.workflow.langchain4j.node.StreamingNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the token throughput of a {@link StreamingNode} run by a workflow, against a deterministic in-process
+ * model. Every operation runs the workflow and consumes the whole generation stream, so the token throughput is
+ * the score multiplied by {@code tokens}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingNodeBenchmark {
+
+    @Param({"16", "256", "4096"})
+    int tokens;
+
+    private DefaultStateWorkflow<Generation> workflow;
+
+    /**
+     * The state of the benchmarked workflow.
+     */
+    public static class Generation extends AbstractStatefulBean {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StreamingNode<Generation> generate = StreamingNode.from("generate", new DeterministicStreamingChatModel(tokens));
+        workflow = DefaultStateWorkflow.<Generation>builder()
+                .addNodes(Collections.singletonList(generate))
+                .build();
+        workflow.putEdge(generate, WorkflowStateName.END);
+        workflow.startNode(generate);
+    }
+
+    @Benchmark
+    public long runStream() {
+        Generation generation = workflow.runStream(new Generation(), node -> { });
+        return generation.getGenerationStream().count().block();
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.czelabueno.jai.workflow.benchmarks;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.benchmarks.WorkflowGraphs.Counter;
+import com.github.czelabueno.jai.workflow.benchmarks.WorkflowGraphs.Shape;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of recording the transitions of a run, with every {@link TransitionRecording} strategy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitionRecordingBenchmark {
+
+    private static final int SIZE = 100;
+
+    @Param({"ALL", "NONE", "SAMPLED", "RING_BUFFER"})
+    String recording;
+
+    private DefaultStateWorkflow<Counter> workflow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workflow = WorkflowGraphs.build(Shape.LINEAR, SIZE, recording());
+    }
+
+    @Benchmark
+    public Counter run() {
+        return workflow.run(new Counter());
+    }
+
+    private TransitionRecording recording() {
+        switch (recording) {
+            case "NONE":
+                return TransitionRecording.none();
+            case "SAMPLED":
+                return TransitionRecording.sampled(100);
+            case "RING_BUFFER":
+                return TransitionRecording.ringBuffer(16);
+            default:
+                return TransitionRecording.all();
+        }
+    }
+}
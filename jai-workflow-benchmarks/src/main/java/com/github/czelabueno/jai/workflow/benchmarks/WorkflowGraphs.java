@@ -0,0 +1,127 @@
+package com.github.czelabueno.jai.workflow.benchmarks;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecording;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the workflow graphs measured by the benchmarks. Nodes only count their executions, so the benchmarks
+ * measure the overhead of the engine rather than the work of the nodes.
+ */
+public final class WorkflowGraphs {
+
+    /**
+     * The length of the body of looping graphs.
+     */
+    static final int LOOP_BODY = 10;
+
+    /**
+     * The shapes of the benchmarked graphs.
+     */
+    public enum Shape {
+        /**
+         * {@code size} nodes chained by node edges.
+         */
+        LINEAR,
+        /**
+         * {@code size} nodes where every node conditionally goes to the next node or skips it.
+         */
+        BRANCHING,
+        /**
+         * A body of {@link #LOOP_BODY} nodes run again by a conditional edge until {@code size} nodes are executed.
+         */
+        LOOPING
+    }
+
+    /**
+     * The state of the benchmarked workflows.
+     */
+    public static final class Counter {
+        int steps;
+    }
+
+    private WorkflowGraphs() {
+    }
+
+    static DefaultStateWorkflow<Counter> build(Shape shape, int size, TransitionRecording recording) {
+        switch (shape) {
+            case BRANCHING:
+                return branching(size, recording);
+            case LOOPING:
+                return looping(size, recording);
+            default:
+                return linear(size, recording);
+        }
+    }
+
+    static Node<Counter, Counter> step(String name) {
+        return Node.from(name, counter -> {
+            counter.steps++;
+            return counter;
+        });
+    }
+
+    private static DefaultStateWorkflow<Counter> linear(int size, TransitionRecording recording) {
+        List<Node<Counter, ?>> nodes = steps("node", size);
+        DefaultStateWorkflow<Counter> workflow = workflow(nodes, recording);
+        for (int i = 0; i < size - 1; i++) {
+            workflow.putEdge(nodes.get(i), nodes.get(i + 1));
+        }
+        workflow.putEdge(nodes.get(size - 1), WorkflowStateName.END);
+        workflow.startNode(nodes.get(0));
+        return workflow;
+    }
+
+    private static DefaultStateWorkflow<Counter> branching(int size, TransitionRecording recording) {
+        List<Node<Counter, ?>> nodes = steps("node", size);
+        DefaultStateWorkflow<Counter> workflow = workflow(nodes, recording);
+        for (int i = 0; i < size - 1; i++) {
+            Node<Counter, ?> next = nodes.get(i + 1);
+            Node<Counter, ?> skip = nodes.get(Math.min(i + 2, size - 1));
+            workflow.putEdge(nodes.get(i), Conditional.eval(counter -> counter.steps % 2 == 0 ? next : skip, next, skip));
+        }
+        workflow.putEdge(nodes.get(size - 1), WorkflowStateName.END);
+        workflow.startNode(nodes.get(0));
+        return workflow;
+    }
+
+    private static DefaultStateWorkflow<Counter> looping(int size, TransitionRecording recording) {
+        int length = Math.min(size, LOOP_BODY);
+        List<Node<Counter, ?>> body = steps("body", length);
+        Node<Counter, Counter> done = Node.from("done", counter -> counter);
+        List<Node<Counter, ?>> nodes = new ArrayList<>(body);
+        nodes.add(done);
+        DefaultStateWorkflow<Counter> workflow = workflow(nodes, recording);
+        for (int i = 0; i < length - 1; i++) {
+            workflow.putEdge(body.get(i), body.get(i + 1));
+        }
+        Node<Counter, ?> first = body.get(0);
+        workflow.putEdge(body.get(length - 1), Conditional.eval(counter -> counter.steps < size ? first : done, first, done));
+        workflow.putEdge(done, WorkflowStateName.END);
+        workflow.startNode(first);
+        return workflow;
+    }
+
+    private static List<Node<Counter, ?>> steps(String prefix, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be greater than zero");
+        }
+        List<Node<Counter, ?>> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            nodes.add(step(prefix + i));
+        }
+        return nodes;
+    }
+
+    private static DefaultStateWorkflow<Counter> workflow(List<Node<Counter, ?>> nodes, TransitionRecording recording) {
+        return DefaultStateWorkflow.<Counter>builder()
+                .addNodes(nodes)
+                .transitionRecording(recording)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.czelabueno.jai.workflow.benchmarks;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.benchmarks.WorkflowGraphs.Counter;
+import com.github.czelabueno.jai.workflow.benchmarks.WorkflowGraphs.Shape;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the overhead of the engine running graphs of different shapes and sizes, with {@code run} and with
+ * {@code runStream} notifying every executed node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowRunBenchmark {
+
+    @Param({"LINEAR", "BRANCHING", "LOOPING"})
+    Shape shape;
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    private DefaultStateWorkflow<Counter> workflow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workflow = WorkflowGraphs.build(shape, size, TransitionRecording.all());
+        workflow.compile(); // fails the trial on an invalid graph, instead of measuring it
+    }
+
+    @Benchmark
+    public Counter run() {
+        return workflow.run(new Counter());
+    }
+
+    @Benchmark
+    public Counter runStream(Blackhole blackhole) {
+        Consumer<Node<Counter, ?>> consumer = blackhole::consume;
+        return workflow.runStream(new Counter(), consumer);
+    }
+}
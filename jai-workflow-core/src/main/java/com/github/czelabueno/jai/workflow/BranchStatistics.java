@@ -0,0 +1,71 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.concurrent.SpeculationPolicy;
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.SpeculativeNode;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the nodes selected by every {@link Conditional} of an {@link ExecutionPlan} across the runs of a workflow,
+ * so the engine can speculate on the dominant branch of a conditional (see {@link SpeculativeNode}).
+ * <p>
+ * The counters are owned by the workflow, next to its {@link SpeculationPolicy}, so the compiled plan stays
+ * immutable. They index into the plan they were created for and start over when the graph changes and the plan is
+ * compiled again.
+ */
+final class BranchStatistics {
+
+    private final ExecutionPlan<?> plan;
+    private final AtomicLongArray[] counts;
+
+    BranchStatistics(ExecutionPlan<?> plan) {
+        this.plan = plan;
+        this.counts = new AtomicLongArray[plan.conditionalCount()];
+        for (int c = 0; c < counts.length; c++) {
+            counts[c] = new AtomicLongArray(plan.nodeCount() + 1); // the last slot counts every evaluation
+        }
+    }
+
+    /**
+     * Returns whether these statistics count the conditionals of the given plan.
+     */
+    boolean isFor(ExecutionPlan<?> plan) {
+        return this.plan == plan;
+    }
+
+    /**
+     * Counts the selection of the given node by the conditional edge.
+     *
+     * @param edge   the conditional edge
+     * @param target the index of the selected node
+     */
+    void recordBranch(int edge, int target) {
+        AtomicLongArray branchCounts = counts[plan.edgeTarget(edge)];
+        branchCounts.incrementAndGet(target);
+        branchCounts.incrementAndGet(plan.nodeCount());
+    }
+
+    /**
+     * Returns the node selected by the conditional edge in at least the given share of its evaluations.
+     *
+     * @param edge           the conditional edge
+     * @param minSamples     the minimum number of evaluations of the conditional
+     * @param minBranchRatio the minimum share of evaluations selecting the node, greater than 0.5
+     * @return the index of the dominant node, or -1 if no node dominates yet
+     */
+    int dominantBranch(int edge, int minSamples, double minBranchRatio) {
+        AtomicLongArray branchCounts = counts[plan.edgeTarget(edge)];
+        int nodeCount = plan.nodeCount();
+        long total = branchCounts.get(nodeCount);
+        if (total < minSamples) {
+            return -1;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            if (branchCounts.get(i) >= minBranchRatio * total) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
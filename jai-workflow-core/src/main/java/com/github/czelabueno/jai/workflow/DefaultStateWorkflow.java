@@ -1,10 +1,25 @@
 package com.github.czelabueno.jai.workflow;
 
+import com.github.czelabueno.jai.workflow.checkpoint.Checkpoint;
+import com.github.czelabueno.jai.workflow.checkpoint.CheckpointStore;
+import com.github.czelabueno.jai.workflow.checkpoint.StateSerializer;
+import com.github.czelabueno.jai.workflow.concurrent.AdmissionController;
+import com.github.czelabueno.jai.workflow.concurrent.SpeculationPolicy;
+import com.github.czelabueno.jai.workflow.concurrent.WorkflowExecutors;
+import com.github.czelabueno.jai.workflow.metrics.WorkflowMetrics;
 import com.github.czelabueno.jai.workflow.node.Conditional;
 import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.NodeListener;
+import com.github.czelabueno.jai.workflow.node.OnError;
+import com.github.czelabueno.jai.workflow.resilience.CircuitBreaker;
+import com.github.czelabueno.jai.workflow.resilience.RetryPolicy;
 import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.transition.JournaledRun;
+import com.github.czelabueno.jai.workflow.transition.TransitionJournal;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecorder;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecording;
 import com.github.czelabueno.jai.workflow.graph.GraphImageGenerator;
-import com.github.czelabueno.jai.workflow.graph.graphviz.GraphvizImageGenerator;
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerators;
 import com.github.czelabueno.jai.workflow.transition.TransitionState;
 import lombok.Builder;
 import lombok.NonNull;
@@ -13,44 +28,146 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 public class DefaultStateWorkflow<T> implements StateWorkflow<T> {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultStateWorkflow.class);
+    private static final int DEFAULT_MAX_ITERATIONS_PER_CYCLE = 1_000;
+    private static final int DEFAULT_MAX_ITERATIONS_PER_RUN = 10_000;
     private final Map<Node<T,?>, List<TransitionState>> adjList;
     private volatile Node<T,?> startNode;
+    private volatile ExecutionPlan<T> plan;
     private final T statefulBean;
-    private final List<Transition> transitions;
-    private GraphImageGenerator graphImageGenerator;
+    private volatile List<Transition> transitions;
+    private volatile GraphImageGenerator graphImageGenerator;
+    private final int maxIterationsPerCycle;
+    private final int maxIterationsPerRun;
+    private final Executor executor;
+    private final ExecutorService runExecutor;
+    private final AdmissionController admissionController;
+    private final Duration runTimeout;
+    private final Duration defaultNodeTimeout;
+    private final Map<Node<T, ?>, Duration> nodeTimeouts;
+    private final Map<Node<T, ?>, RetryPolicy> retryPolicies;
+    private final Map<Node<T, ?>, CircuitBreaker> circuitBreakers;
+    private final SpeculationPolicy speculationPolicy;
+    private volatile BranchStatistics branchStatistics;
+    private final CheckpointStore checkpointStore;
+    private final StateSerializer<T> stateSerializer;
+    private final boolean javaSerialization;
+    private final TransitionJournal transitionJournal;
+    private final TransitionRecording transitionRecording;
+    private final WorkflowMetrics metrics;
 
+    /**
+     * Constructs a new DefaultStateWorkflow with the specified parameters.
+     *
+     * @param statefulBean          the default state used by {@link #run()} and {@link #runStream(Consumer)}, optional
+     * @param addNodes              the nodes of the workflow
+     * @param graphImageGenerator   the generator of workflow images. If null, the generator provided on the classpath
+     *                              is looked up when the first image is generated
+     * @param maxIterationsPerCycle the maximum number of times a node can be executed in a run, 1000 by default
+     * @param maxIterationsPerRun   the maximum number of nodes executed in a run, 10000 by default
+     * @param executor              the executor running the branches of fan-out nodes concurrently. If null,
+     *                              branches run one after the other on the calling thread
+     * @param virtualThreads        whether every run and parallel branch runs on its own virtual thread. Requires
+     *                              Java 21 or later, older runtimes fall back to platform threads
+     * @param admissionController   the admission controller bounding the number of concurrent runs. If null,
+     *                              runs are not limited
+     * @param runTimeout            the maximum duration of a run. Once exceeded, the running node is interrupted and
+     *                              the run fails with a {@link WorkflowTimeoutException}. If null, runs have no deadline
+     * @param defaultNodeTimeout    the maximum duration of every node without its own timeout, optional
+     * @param nodeTimeouts          the maximum duration of specific nodes, overriding the default node timeout
+     * @param retryPolicies         the retry policies of specific nodes. Nodes without a policy are not retried
+     * @param circuitBreakers       the circuit breakers of specific nodes, shared by every run of the workflow
+     * @param speculationPolicy     the policy starting speculative nodes before their conditional is evaluated. If
+     *                              null, nodes only start once selected
+     * @param checkpointStore       the store saving the progress of the runs started with a run id, after every
+     *                              node. If null, runs are not checkpointed
+     * @param stateSerializer       the serializer of the checkpointed states, Java serialization by default. The
+     *                              default requires {@link java.io.Serializable} states, so it cannot serialize the
+     *                              stateful beans of the jai-workflow-langchain4j module and their {@code Flux}
+     * @param transitionJournal     the journal recording the transitions of every recorded run off-heap. If null,
+     *                              only the transitions of the last run are kept
+     * @param transitionRecording   the policy deciding which transitions of the runs are recorded, every
+     *                              transition of every run by default
+     * @param metrics               the metrics recording the latency, errors and in-flight executions of the runs,
+     *                              nodes and conditionals. If null, nodes and conditionals are not timed
+     */
     @Builder
-    public DefaultStateWorkflow(@NonNull T statefulBean,
+    public DefaultStateWorkflow(T statefulBean,
                                 @Singular List<Node<T,?>> addNodes,
-                                GraphImageGenerator graphImageGenerator) {
+                                GraphImageGenerator graphImageGenerator,
+                                Integer maxIterationsPerCycle,
+                                Integer maxIterationsPerRun,
+                                Executor executor,
+                                Boolean virtualThreads,
+                                AdmissionController admissionController,
+                                Duration runTimeout,
+                                Duration defaultNodeTimeout,
+                                @Singular Map<Node<T, ?>, Duration> nodeTimeouts,
+                                @Singular Map<Node<T, ?>, RetryPolicy> retryPolicies,
+                                @Singular Map<Node<T, ?>, CircuitBreaker> circuitBreakers,
+                                SpeculationPolicy speculationPolicy,
+                                CheckpointStore checkpointStore,
+                                StateSerializer<T> stateSerializer,
+                                TransitionJournal transitionJournal,
+                                TransitionRecording transitionRecording,
+                                WorkflowMetrics metrics) {
         if (addNodes.isEmpty()) {
             throw new IllegalArgumentException("At least one node must be added to the workflow");
         }
+        this.maxIterationsPerCycle = positiveOrDefault(maxIterationsPerCycle, DEFAULT_MAX_ITERATIONS_PER_CYCLE, "maxIterationsPerCycle");
+        this.maxIterationsPerRun = positiveOrDefault(maxIterationsPerRun, DEFAULT_MAX_ITERATIONS_PER_RUN, "maxIterationsPerRun");
+        this.runExecutor = Boolean.TRUE.equals(virtualThreads) ? WorkflowExecutors.virtualThreadExecutor() : null;
+        this.executor = executor != null ? executor : runExecutor;
+        this.admissionController = admissionController;
+        this.runTimeout = positiveOrNull(runTimeout, "runTimeout");
+        this.defaultNodeTimeout = positiveOrNull(defaultNodeTimeout, "defaultNodeTimeout");
+        nodeTimeouts.forEach((node, timeout) -> positiveOrNull(timeout, "Timeout of node '" + node.getName() + "'"));
+        this.nodeTimeouts = nodeTimeouts;
+        this.retryPolicies = retryPolicies;
+        this.circuitBreakers = circuitBreakers;
+        this.speculationPolicy = speculationPolicy;
+        this.checkpointStore = checkpointStore;
+        this.javaSerialization = stateSerializer == null;
+        this.stateSerializer = stateSerializer != null ? stateSerializer : StateSerializer.java();
+        if (checkpointStore != null && statefulBean != null) {
+            requireSerializable(statefulBean);
+        }
+        this.transitionJournal = transitionJournal;
+        this.transitionRecording = transitionRecording != null ? transitionRecording : TransitionRecording.all();
+        this.metrics = metrics != WorkflowMetrics.noop() ? metrics : null; // the no-op metrics skip timing entirely
 
-        this.statefulBean = statefulBean;
-        this.adjList = new ConcurrentHashMap<>();
-        this.transitions = Collections.synchronizedList(new ArrayList<>());
+        this.statefulBean = statefulBean; // optional, every run can supply its own state
+        this.adjList = new LinkedHashMap<>(); // insertion order defines node indexes of the execution plan
+        this.transitions = Collections.emptyList();
 
-        if (graphImageGenerator != null) {
-            this.graphImageGenerator = graphImageGenerator;
-        } else {
-            this.graphImageGenerator = GraphvizImageGenerator.<T>builder().build();
-        }
+        this.graphImageGenerator = graphImageGenerator;
 
         // Add nodes to adjList if they are not already present
         for (Node<T,?> node : addNodes) {
-            this.adjList.putIfAbsent(node, Collections.synchronizedList(new ArrayList<>()));
+            this.adjList.putIfAbsent(node, new ArrayList<>());
         }
     }
 
@@ -59,131 +176,414 @@ public class DefaultStateWorkflow<T> implements StateWorkflow<T> {
     }
 
     @Override
-    public void addNode(Node<T, ?> node) {
-        adjList.putIfAbsent(node, Collections.synchronizedList(new ArrayList<>()));
+    public synchronized void addNode(Node<T, ?> node) {
+        adjList.putIfAbsent(node, new ArrayList<>());
+        plan = null;
     }
 
     @Override
-    public void putEdge(Node<T, ?> from, Node<T, ?> to) {
+    public synchronized void putEdge(Node<T, ?> from, Node<T, ?> to) {
         adjList.get(from).add(to);
+        plan = null;
     }
 
     @Override
-    public void putEdge(Node<T, ?> from, Conditional<T> conditional) {
+    public synchronized void putEdge(Node<T, ?> from, Conditional<T> conditional) {
         adjList.get(from).add(conditional);
+        plan = null;
     }
 
     @Override
-    public void putEdge(Node<T, ?> from, WorkflowStateName state) {
+    public synchronized void putEdge(Node<T, ?> from, WorkflowStateName state) {
         adjList.get(from).add(state);
+        plan = null;
     }
 
     @Override
-    public void startNode(Node<T,?> startNode){
+    public synchronized void putEdge(Node<T, ?> from, OnError<T> onError) {
+        adjList.get(from).add(onError);
+        plan = null;
+    }
+
+    @Override
+    public synchronized void startNode(Node<T,?> startNode){
         this.startNode = startNode;
+        plan = null;
     }
 
     @Override
-    public Node<T, ?> getLastNode() {
-        if (adjList.isEmpty() || adjList == null)
-            throw new IllegalStateException("No nodes added to the workflow");
+    public ExecutionPlan<T> compile() {
+        ExecutionPlan<T> compiled = plan();
+        if (!compiled.isValid()) {
+            throw new IllegalStateException("Invalid workflow: " + String.join("; ", compiled.problems()));
+        }
+        return compiled;
+    }
 
-        return adjList.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().contains(WorkflowStateName.END))
-                .<Node<T, ?>>map(Map.Entry::getKey)
-                .findFirst()
-                .orElseGet(() -> adjList.keySet()
-                        .<Node<T, ?>>stream()
-                        .reduce((first, second) -> second)
-                        .orElseThrow());
+    /**
+     * Returns the execution plan of the current graph, compiling it once after every change of the graph.
+     * Validation problems are logged but do not prevent the workflow from running.
+     */
+    private ExecutionPlan<T> plan() {
+        ExecutionPlan<T> compiled = plan;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = plan;
+                if (compiled == null) {
+                    compiled = ExecutionPlan.compile(adjList, startNode);
+                    compiled.problems().forEach(problem -> log.warn("Workflow validation: " + problem));
+                    plan = compiled;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the branch statistics of the given plan, starting over when the plan was compiled again.
+     *
+     * @return the branch statistics, or null if nodes are not speculated
+     */
+    private BranchStatistics branchStatistics(ExecutionPlan<T> executionPlan) {
+        if (speculationPolicy == null) {
+            return null;
+        }
+        BranchStatistics statistics = branchStatistics;
+        if (statistics == null || !statistics.isFor(executionPlan)) {
+            synchronized (this) {
+                statistics = branchStatistics;
+                if (statistics == null || !statistics.isFor(executionPlan)) {
+                    statistics = new BranchStatistics(executionPlan);
+                    branchStatistics = statistics;
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public Node<T, ?> getLastNode() {
+        return plan().terminalNode();
     }
 
     @Override
     public T run() {
-        transitions.clear(); // clean previous transitions
+        return run(defaultStatefulBean());
+    }
+
+    @Override
+    public T run(@NonNull T initialState) {
         log.debug("STARTING workflow in normal mode..");
-        runNode(startNode);
-        return statefulBean;
+        return execute(initialState, null);
     }
 
-    private void runNode(Node<T,?> node) {
-        if (node == null) return;
-        log.debug("Running node name: " + node.getName() + "..");
-        if (node == startNode)
-            transitions.add(Transition.from(WorkflowStateName.START, node));
-        synchronized (statefulBean){
-            node.execute(statefulBean);
-        }
-        List<TransitionState> nextNodes;
-        synchronized (adjList) {
-            nextNodes = adjList.get(node);
-        }
-        for (TransitionState nextNode : nextNodes) {
-            if (nextNode instanceof WorkflowStateName) {
-                WorkflowStateName next = (WorkflowStateName) nextNode;
-                if (next == WorkflowStateName.END) {
-                    log.debug("Reached END state");
-                    transitions.add(Transition.from(node, WorkflowStateName.END));
-                    return;
-                }
-                transitions.add(Transition.from(node, next));
-            } else if (nextNode instanceof Node) {
-                Node<T,?> next = (Node<T,?>) nextNode;
-                transitions.add(Transition.from(node, next));
-                runNode(next);
-            } else if (nextNode instanceof Conditional) {
-                Node<T,?> conditionalNode = ((Conditional<T>) nextNode).evaluate(statefulBean);
-                transitions.add(Transition.from(node, conditionalNode));
-                runNode(conditionalNode);
-            }
+    @Override
+    public T run(@NonNull T initialState, @NonNull NodeListener<T> listener) {
+        log.debug("STARTING workflow in normal mode with node listener..");
+        return execute(initialState, listener);
+    }
+
+    /**
+     * Runs the workflow synchronously against the given state, saving its progress after every node to the
+     * checkpoint store under the given run id. If the run fails or the JVM stops, it can be continued with
+     * {@link #resume(String)}. The checkpoints are deleted once the run completes.
+     *
+     * @param initialState the state to execute the workflow against
+     * @param runId        the identifier of the run, unique among the runs of the checkpoint store
+     * @return the given state after the workflow execution
+     * @throws IllegalStateException    if no checkpoint store is configured
+     * @throws IllegalArgumentException if the state is not Serializable and no stateSerializer is defined
+     */
+    public T run(@NonNull T initialState, @NonNull String runId) {
+        log.debug("STARTING workflow run '" + runId + "' with checkpoints..");
+        RunCheckpointer<T> checkpointer = checkpointer(runId, 0L);
+        requireSerializable(initialState);
+        return execute(() -> launch(initialState, null, checkpointer, -1, null));
+    }
+
+    /**
+     * Continues a checkpointed run from the node following its last checkpoint, with the state saved in it.
+     *
+     * @param runId the identifier of the run
+     * @return the state after the workflow execution
+     * @throws IllegalStateException if no checkpoint store is configured, the run has no checkpoint, or its
+     *                               checkpoint does not match the nodes of this workflow
+     */
+    public T resume(@NonNull String runId) {
+        log.debug("RESUMING workflow run '" + runId + "'..");
+        return execute(() -> relaunch(runId));
+    }
+
+    /**
+     * Continues a checkpointed run asynchronously.
+     *
+     * @param runId the identifier of the run
+     * @return a future completed with the state after the workflow execution
+     * @see #resume(String)
+     */
+    public CompletableFuture<T> resumeAsync(@NonNull String runId) {
+        log.debug("RESUMING workflow run '" + runId + "' in async mode..");
+        return start(() -> relaunch(runId));
+    }
+
+    private CompletableFuture<T> relaunch(String runId) {
+        Checkpoint checkpoint = requireCheckpointStore().load(runId)
+                .orElseThrow(() -> new IllegalStateException("No checkpoint found for run '" + runId + "'"));
+        ExecutionPlan<T> executionPlan = plan();
+        int index = checkpoint.nodeIndex();
+        if (index < 0 || index >= executionPlan.nodeCount() || !executionPlan.node(index).getName().equals(checkpoint.nodeName())) {
+            throw new IllegalStateException("Checkpoint of run '" + runId + "' does not match the workflow: node '" + checkpoint.nodeName() + "' not found");
+        }
+        T state = stateSerializer.deserialize(checkpoint.state());
+        return launch(state, null, checkpointer(runId, checkpoint.sequence() + 1), index, null);
+    }
+
+    private RunCheckpointer<T> checkpointer(String runId, long sequence) {
+        return new RunCheckpointer<>(requireCheckpointStore(), stateSerializer, runId, sequence);
+    }
+
+    private void requireSerializable(T state) {
+        if (javaSerialization && !(state instanceof Serializable)) {
+            throw new IllegalArgumentException(state.getClass().getName()
+                    + " must be Serializable to be checkpointed with Java serialization, or a stateSerializer must be defined");
+        }
+    }
+
+    private TransitionJournal requireTransitionJournal() {
+        if (transitionJournal == null) {
+            throw new IllegalStateException("No transition journal defined in the workflow");
+        }
+        return transitionJournal;
+    }
+
+    private CheckpointStore requireCheckpointStore() {
+        if (checkpointStore == null) {
+            throw new IllegalStateException("No checkpoint store defined in the workflow");
         }
+        return checkpointStore;
     }
 
     @Override
     public T runStream(Consumer<Node<T, ?>> eventConsumer) {
-        transitions.clear(); // clean previous transitions
+        return runStream(defaultStatefulBean(), eventConsumer);
+    }
+
+    @Override
+    public T runStream(@NonNull T initialState, @NonNull Consumer<Node<T, ?>> eventConsumer) {
         log.debug("STARTING workflow in stream mode..");
-        Queue<TransitionState> queue = new LinkedBlockingQueue<>();
-        queue.add(startNode);
-        transitions.add(Transition.from(WorkflowStateName.START, startNode));
-        while (!queue.isEmpty()) {
-            TransitionState current = queue.poll();
-            if (current instanceof Node) {
-                Node<T,?> currentNode = (Node<T,?>) current;
-                //eventConsumer.accept(currentNode);
-                synchronized (statefulBean){
-                    currentNode.execute(statefulBean);
+        return execute(initialState, NodeListener.onCompleted(eventConsumer));
+    }
+
+    @Override
+    public CompletableFuture<T> runAsync() {
+        return runAsync(defaultStatefulBean());
+    }
+
+    @Override
+    public CompletableFuture<T> runAsync(@NonNull T initialState) {
+        log.debug("STARTING workflow in async mode..");
+        return start(initialState, null);
+    }
+
+    @Override
+    public CompletableFuture<T> runStreamAsync(@NonNull T initialState, @NonNull Consumer<Node<T, ?>> eventConsumer) {
+        log.debug("STARTING workflow in async stream mode..");
+        return start(initialState, NodeListener.onCompleted(eventConsumer));
+    }
+
+    @Override
+    public CompletableFuture<T> runAsync(@NonNull T initialState, @NonNull NodeListener<T> listener) {
+        log.debug("STARTING workflow in async mode with node listener..");
+        return start(initialState, listener);
+    }
+
+    private T execute(T initialState, NodeListener<T> listener) {
+        return execute(() -> launch(initialState, listener, null, -1, null));
+    }
+
+    private T execute(Supplier<CompletableFuture<T>> launcher) {
+        // blocking runs wait for admission on their own thread and run inline once admitted
+        AdmissionController.Permit permit = admissionController != null ? admissionController.acquire() : null;
+        try {
+            return await(launcher.get());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+
+    private T await(CompletableFuture<T> run) {
+        try {
+            return run.get();
+        } catch (InterruptedException e) {
+            run.cancel(true); // the run does not outlive its caller
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the workflow run", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("Workflow run failed", cause);
+        }
+    }
+
+    private CompletableFuture<T> start(T initialState, NodeListener<T> listener) {
+        return start(() -> launch(initialState, listener, null, -1, null));
+    }
+
+    private CompletableFuture<T> start(Supplier<CompletableFuture<T>> launcher) {
+        if (admissionController == null) {
+            return launcher.get();
+        }
+        CompletableFuture<AdmissionController.Permit> admission = admissionController.acquireAsync();
+        CompletableFuture<T> run = new CompletableFuture<>();
+        run.whenComplete((state, error) -> {
+            if (error instanceof CancellationException) {
+                admission.cancel(false); // withdraws the request if still queued
+            }
+        });
+        BiConsumer<AdmissionController.Permit, Throwable> onAdmission = (permit, error) -> {
+            if (error != null) {
+                run.completeExceptionally(WorkflowExecution.unwrap(error));
+                return;
+            }
+            if (run.isDone()) {
+                permit.close(); // cancelled while waiting
+                return;
+            }
+            CompletableFuture<T> launched;
+            try {
+                launched = launcher.get();
+            } catch (Throwable t) {
+                run.completeExceptionally(t);
+                permit.close();
+                return;
+            }
+            run.whenComplete((state, runError) -> {
+                if (runError instanceof CancellationException) {
+                    launched.cancel(true);
+                }
+            });
+            launched.whenComplete((state, runError) -> {
+                permit.close(); // released before callers observe the completion
+                if (runError != null) {
+                    run.completeExceptionally(runError);
+                } else {
+                    run.complete(state);
                 }
-                eventConsumer.accept(currentNode);
-                List<TransitionState> nextNodes;
-                synchronized (adjList) {
-                    nextNodes = adjList.get(currentNode);
+            });
+        };
+        if (admission.isDone()) {
+            admission.whenComplete(onAdmission);
+        } else {
+            // a queued run is admitted by the run releasing its permit, which must not execute it inline
+            admission.whenCompleteAsync(onAdmission, executor != null ? executor : ForkJoinPool.commonPool());
+        }
+        return run;
+    }
+
+    /**
+     * Creates an execution of the current plan and starts it from the starting node, or from the given node when
+     * resuming a checkpointed run. The id assigned to the run by the transition journal, if any, is passed to the
+     * given consumer before the run completes.
+     */
+    private CompletableFuture<T> launch(T initialState, NodeListener<T> listener, RunCheckpointer<T> checkpointer, int resumeIndex,
+                                        LongConsumer journaledRunId) {
+        ExecutionPlan<T> executionPlan = plan();
+        requireStart(executionPlan);
+        TransitionRecorder recorder = transitionRecording.startRun();
+        WorkflowExecution<T> execution = new WorkflowExecution<>(
+                executionPlan, initialState, listener, maxIterationsPerCycle, maxIterationsPerRun, executor,
+                runTimeout, defaultNodeTimeout, nodeTimeouts, retryPolicies, circuitBreakers,
+                speculationPolicy, branchStatistics(executionPlan), checkpointer, recorder, metrics);
+        CompletableFuture<T> run = new CompletableFuture<>();
+        run.whenComplete((state, error) -> {
+            if (error instanceof CancellationException) {
+                execution.cancel();
+            }
+        });
+        Instant startedAt = transitionJournal != null ? Instant.now() : null;
+        Runnable walk = () -> {
+            // started once the walk runs, so a walk rejected by the run executor is never counted in flight
+            long runStartedAt = metrics != null ? System.nanoTime() : 0L;
+            if (metrics != null) {
+                metrics.onRunStarted();
+            }
+            (resumeIndex < 0 ? execution.start() : execution.resume(resumeIndex)).whenComplete((state, error) -> {
+                if (metrics != null) {
+                    metrics.onRunCompleted(System.nanoTime() - runStartedAt, error != null ? WorkflowExecution.unwrap(error) : null);
                 }
-                if (nextNodes != null) {
-                    for (TransitionState next : nextNodes) {
-                        if (next instanceof WorkflowStateName) {
-                            WorkflowStateName nextState = (WorkflowStateName) next;
-                            if (nextState == WorkflowStateName.END) {
-                                transitions.add(Transition.from(currentNode, WorkflowStateName.END));
-                                return statefulBean;
-                            }
-                            transitions.add(Transition.from(currentNode, next));
-                            queue.add(next);
-                        } else if (next instanceof Node) {
-                            transitions.add(Transition.from(currentNode, next));
-                            queue.add(next);
-                        } else if (next instanceof Conditional) {
-                            Node<T,?> conditionalNode = ((Conditional<T>) next).evaluate(statefulBean);
-                            transitions.add(Transition.from(currentNode, conditionalNode));
-                            queue.add(conditionalNode);
+                if (recorder.isRecording()) {
+                    this.transitions = execution.transitions(); // owned by this execution only
+                    if (transitionJournal != null) {
+                        long runId = journal(executionPlan, execution.transitions(), startedAt, error);
+                        if (journaledRunId != null && runId > 0) {
+                            journaledRunId.accept(runId);
                         }
                     }
                 }
-            } else if (current == WorkflowStateName.END) {
-                log.debug("Reached END state");
-                return statefulBean;
-            }
+                if (error != null) {
+                    run.completeExceptionally(WorkflowExecution.unwrap(error));
+                } else {
+                    run.complete(state);
+                }
+            });
+        };
+        if (runExecutor == null) {
+            walk.run();
+        } else {
+            runExecutor.execute(walk);
+        }
+        return run;
+    }
+
+    /**
+     * Appends the transitions of a run to the transition journal.
+     *
+     * @return the id assigned to the run, 0 if the transitions could not be journaled
+     */
+    private long journal(ExecutionPlan<T> executionPlan, List<Transition> runTransitions, Instant startedAt, Throwable error) {
+        try {
+            return transitionJournal.append(executionPlan, runTransitions, startedAt, Instant.now(), outcome(error));
+        } catch (UncheckedIOException | IllegalStateException e) {
+            log.warn("Failed to journal the transitions of the run: " + e.getMessage()); // the run itself is not affected
+            return 0L;
+        }
+    }
+
+    private static TransitionJournal.Outcome outcome(Throwable error) {
+        return error == null ? TransitionJournal.Outcome.SUCCEEDED
+                : WorkflowExecution.unwrap(error) instanceof CancellationException ? TransitionJournal.Outcome.CANCELLED
+                : TransitionJournal.Outcome.FAILED;
+    }
+
+    private static void requireStart(ExecutionPlan<?> executionPlan) {
+        if (executionPlan.startIndex() < 0) {
+            throw new IllegalStateException("Start node is not defined or is not part of the workflow");
+        }
+    }
+
+    private static int positiveOrDefault(Integer value, int defaultValue, String name) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be greater than zero");
+        }
+        return value;
+    }
+
+    private static Duration positiveOrNull(Duration value, String name) {
+        if (value != null && (value.isNegative() || value.isZero())) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    private T defaultStatefulBean() {
+        if (statefulBean == null) {
+            throw new IllegalStateException("No stateful bean defined in the workflow. Use run(initialState) or runStream(initialState, eventConsumer) instead");
         }
         return statefulBean;
     }
@@ -193,10 +593,77 @@ public class DefaultStateWorkflow<T> implements StateWorkflow<T> {
         return new ArrayList<>(transitions);
     }
 
+    /**
+     * Returns the transitions of a run recorded in the transition journal of the workflow.
+     * <p>
+     * The returned transitions can be passed to a {@link GraphImageGenerator} to draw a past run, or analysed.
+     *
+     * @param runId the identifier assigned to the run by the journal, see {@link #runJournaled(Object)}
+     * @return the transitions of the run, empty if the journal does not hold it anymore
+     * @throws IllegalStateException if the workflow has no transition journal
+     */
+    public List<Transition> getJournaledTransitions(long runId) {
+        return requireTransitionJournal().transitions(runId, plan());
+    }
+
+    /**
+     * Runs the workflow synchronously against the given state and returns the identifier the transition journal
+     * assigned to it, to read its transitions back with {@link #getJournaledTransitions(long)} even when other runs
+     * complete concurrently.
+     * <p>
+     * A journaled run that fails is returned with its outcome and failure instead of throwing it, so its transitions
+     * can be looked up.
+     *
+     * @param initialState the state to execute the workflow against
+     * @return the journaled run
+     * @throws IllegalStateException if the workflow has no transition journal
+     * @throws RuntimeException      the failure of a run whose transitions were not journaled, for instance because
+     *                               the transition recording policy skipped it
+     */
+    public JournaledRun<T> runJournaled(@NonNull T initialState) {
+        requireTransitionJournal();
+        AtomicLong runId = new AtomicLong();
+        T state;
+        try {
+            state = execute(() -> launch(initialState, null, null, -1, runId::set));
+        } catch (RuntimeException e) {
+            if (runId.get() == 0) {
+                throw e;
+            }
+            return new JournaledRun<>(runId.get(), outcome(e), null, e);
+        }
+        return new JournaledRun<>(runId.get(), TransitionJournal.Outcome.SUCCEEDED, state, null);
+    }
+
+    /**
+     * Runs the workflow asynchronously against the given state.
+     *
+     * @param initialState the state to execute the workflow against
+     * @return a future completed with the journaled run, or exceptionally with the failure of a run whose
+     * transitions were not journaled
+     * @throws IllegalStateException if the workflow has no transition journal
+     * @see #runJournaled(Object)
+     */
+    public CompletableFuture<JournaledRun<T>> runJournaledAsync(@NonNull T initialState) {
+        requireTransitionJournal();
+        AtomicLong runId = new AtomicLong();
+        return start(() -> launch(initialState, null, null, -1, runId::set)).handle((state, error) -> {
+            if (error == null) {
+                return new JournaledRun<>(runId.get(), TransitionJournal.Outcome.SUCCEEDED, state, null);
+            }
+            Throwable cause = WorkflowExecution.unwrap(error);
+            if (runId.get() == 0) {
+                throw new CompletionException(cause);
+            }
+            return new JournaledRun<>(runId.get(), outcome(cause), null, cause);
+        });
+    }
+
     public String prettyTransitions() {
         StringBuilder sb = new StringBuilder();
         Object lastTo = null;
-        for (Transition transition : transitions) {
+        List<Transition> computedTransitions = this.transitions;
+        for (Transition transition : computedTransitions) {
             if (transition.from().equals(lastTo)) {
                 sb.append(" -> ").append(transition.to() instanceof Node ? ((Node) transition.to()).getName() : transition.to().toString());
             } else {
@@ -210,15 +677,31 @@ public class DefaultStateWorkflow<T> implements StateWorkflow<T> {
 
     @Override
     public void generateWorkflowImage(String outputPath) throws IOException {
+        List<Transition> computedTransitions = this.transitions;
+        GraphImageGenerator generator = graphImageGenerator();
         try {
             Path path = Paths.get(outputPath);
-            this.graphImageGenerator.generateImage(this.transitions, path.toAbsolutePath().toString()); // Absolute path by default
+            generator.generateImage(computedTransitions, path.toAbsolutePath().toString()); // Absolute path by default
         } catch (InvalidPathException e) {
             log.warn("Invalid path: " + outputPath + " using default path");
-            this.graphImageGenerator.generateImage(this.transitions);
+            generator.generateImage(computedTransitions);
         } catch (IOException e) {
             log.error("Error generating workflow image: " + e.getMessage());
             throw e;
         }
     }
+
+    private GraphImageGenerator graphImageGenerator() {
+        GraphImageGenerator generator = graphImageGenerator;
+        if (generator == null) {
+            synchronized (this) {
+                generator = graphImageGenerator;
+                if (generator == null) {
+                    generator = GraphImageGenerators.defaultGenerator();
+                    graphImageGenerator = generator;
+                }
+            }
+        }
+        return generator;
+    }
 }
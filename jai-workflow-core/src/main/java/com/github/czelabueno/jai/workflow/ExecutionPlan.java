@@ -0,0 +1,453 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.node.AsyncNode;
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.JoinNode;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.OnError;
+import com.github.czelabueno.jai.workflow.node.SpeculativeNode;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.transition.TransitionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, int-indexed execution plan compiled from the graph of a {@link StateWorkflow}.
+ * <p>
+ * Nodes are numbered in the order they were added to the workflow and their outgoing edges are stored
+ * in flat arrays, so the engine walks the graph by index without hashing {@link Node} instances or
+ * checking the type of every {@link TransitionState}. Edges declared after a transition to
+ * {@link WorkflowStateName#END} are never taken and are dropped at compile time, except {@link OnError}
+ * edges: they are only taken when the node fails and are kept apart from the successors of the node.
+ * Fan-out nodes (nodes with several outgoing node or conditional edges), {@link JoinNode}s and
+ * {@link AsyncNode}s are flagged once as well.
+ * <p>
+ * The plan holds no per-run state and is shared by the concurrent runs of the workflow. The nodes selected by
+ * every {@link Conditional} across runs, used to speculate on {@link SpeculativeNode}s, are counted apart by the
+ * workflow in {@link BranchStatistics}.
+ * <p>
+ * The plan is validated once when it is compiled. Detected problems (unreachable nodes, nodes without
+ * outgoing edges and graphs that never reach {@link WorkflowStateName#END}) are available through
+ * {@link #problems()}.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+public final class ExecutionPlan<T> {
+
+    /**
+     * Edge kind of a transition to another node.
+     */
+    static final byte NODE_EDGE = 0;
+    /**
+     * Edge kind of a transition resolved at runtime by a {@link Conditional}.
+     */
+    static final byte CONDITIONAL_EDGE = 1;
+    /**
+     * Edge kind of a transition to {@link WorkflowStateName#END}.
+     */
+    static final byte END_EDGE = 2;
+
+    private final Node<T, ?>[] nodes;
+    private final int[] edgeOffsets;
+    private final byte[] edgeKinds;
+    private final int[] edgeTargets;
+    private final Conditional<T>[] conditionals;
+    private final boolean[] fanOuts;
+    private final boolean[] joins;
+    private final boolean[] asyncs;
+    private final boolean[] speculatives;
+    private final OnError<T>[][] fallbacks;
+    private final int[][] fallbackTargets;
+    private final Map<Node<T, ?>, Integer> identityIndexes;
+    private final Map<Node<T, ?>, Integer> indexes;
+    private final int startIndex;
+    private final int terminalIndex;
+    private final List<String> problems;
+
+    @SuppressWarnings("unchecked")
+    private ExecutionPlan(Map<Node<T, ?>, List<TransitionState>> adjList, Node<T, ?> startNode) {
+        int nodeCount = adjList.size();
+        this.nodes = new Node[nodeCount];
+        this.identityIndexes = new IdentityHashMap<>(nodeCount);
+        this.indexes = new HashMap<>(nodeCount);
+        int i = 0;
+        for (Node<T, ?> node : adjList.keySet()) {
+            nodes[i] = node;
+            identityIndexes.put(node, i);
+            indexes.put(node, i);
+            i++;
+        }
+
+        this.edgeOffsets = new int[nodeCount + 1];
+        List<Byte> kinds = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        List<Conditional<T>> conditionalList = new ArrayList<>();
+        this.fallbacks = new OnError[nodeCount][];
+        this.fallbackTargets = new int[nodeCount][];
+        int terminal = -1;
+        for (i = 0; i < nodeCount; i++) {
+            edgeOffsets[i] = kinds.size();
+            List<OnError<T>> onErrors = new ArrayList<>();
+            boolean ended = false;
+            for (TransitionState edge : adjList.get(nodes[i])) {
+                if (edge instanceof OnError) {
+                    requireIndex(((OnError<T>) edge).getFallback());
+                    onErrors.add((OnError<T>) edge);
+                } else if (ended) {
+                    continue; // edges after END are never taken
+                } else if (edge instanceof Node) {
+                    int target = requireIndex((Node<T, ?>) edge);
+                    kinds.add(NODE_EDGE);
+                    targets.add(target);
+                } else if (edge instanceof Conditional) {
+                    kinds.add(CONDITIONAL_EDGE);
+                    targets.add(conditionalList.size());
+                    conditionalList.add((Conditional<T>) edge);
+                } else if (edge == WorkflowStateName.END) {
+                    kinds.add(END_EDGE);
+                    targets.add(-1);
+                    if (terminal < 0) terminal = i;
+                    ended = true;
+                } else {
+                    Transition.from(nodes[i], edge); // rejects inconsistent transitions such as node -> START
+                    throw new IllegalArgumentException("Unsupported transition state: " + edge);
+                }
+            }
+            fallbacks[i] = onErrors.toArray(new OnError[0]);
+            fallbackTargets[i] = new int[onErrors.size()];
+            for (int f = 0; f < onErrors.size(); f++) {
+                fallbackTargets[i][f] = indexOf(onErrors.get(f).getFallback());
+            }
+        }
+        edgeOffsets[nodeCount] = kinds.size();
+        this.edgeKinds = new byte[kinds.size()];
+        this.edgeTargets = new int[targets.size()];
+        for (int e = 0; e < edgeKinds.length; e++) {
+            edgeKinds[e] = kinds.get(e);
+            edgeTargets[e] = targets.get(e);
+        }
+        this.conditionals = conditionalList.toArray(new Conditional[0]);
+        this.fanOuts = new boolean[nodeCount];
+        this.joins = new boolean[nodeCount];
+        this.asyncs = new boolean[nodeCount];
+        this.speculatives = new boolean[nodeCount];
+        for (i = 0; i < nodeCount; i++) {
+            int successors = 0;
+            for (int e = edgeOffsets[i]; e < edgeOffsets[i + 1]; e++) {
+                if (edgeKinds[e] != END_EDGE) successors++;
+            }
+            fanOuts[i] = successors > 1;
+            joins[i] = nodes[i] instanceof JoinNode;
+            asyncs[i] = nodes[i] instanceof AsyncNode;
+            speculatives[i] = nodes[i] instanceof SpeculativeNode;
+        }
+        this.startIndex = startNode == null ? -1 : indexOf(startNode);
+        this.terminalIndex = terminal >= 0 ? terminal : nodeCount - 1;
+        this.problems = Collections.unmodifiableList(validate(startNode));
+    }
+
+    /**
+     * Compiles the given adjacency list into a new execution plan.
+     *
+     * @param adjList   the adjacency list of the workflow, iterated in node insertion order
+     * @param startNode the starting node of the workflow, may be null if not defined yet
+     * @param <T>       the type of the stateful bean used in the workflow
+     * @return a new execution plan
+     * @throws IllegalStateException    if no nodes were added to the workflow or an edge targets an unknown node
+     * @throws IllegalArgumentException if an edge defines an inconsistent transition
+     */
+    static <T> ExecutionPlan<T> compile(Map<Node<T, ?>, List<TransitionState>> adjList, Node<T, ?> startNode) {
+        if (adjList == null || adjList.isEmpty()) {
+            throw new IllegalStateException("No nodes added to the workflow");
+        }
+        return new ExecutionPlan<>(adjList, startNode);
+    }
+
+    private List<String> validate(Node<T, ?> startNode) {
+        List<String> found = new ArrayList<>();
+        if (startNode == null) {
+            found.add("Start node is not defined");
+            return found;
+        }
+        if (startIndex < 0) {
+            found.add("Start node '" + startNode.getName() + "' is not part of the workflow");
+            return found;
+        }
+        boolean[] reachable = reachableFromStart();
+        boolean reachesEnd = false;
+        for (int i = 0; i < nodes.length; i++) {
+            if (!reachable[i]) {
+                found.add("Node '" + nodes[i].getName() + "' is unreachable from start node '" + startNode.getName() + "'");
+                continue;
+            }
+            if (edgeOffsets[i] == edgeOffsets[i + 1]) {
+                found.add("Node '" + nodes[i].getName() + "' has no outgoing edges and no transition to END");
+            }
+            if (endsWithEnd(i)) {
+                reachesEnd = true;
+            }
+        }
+        if (!reachesEnd) {
+            found.add("No reachable node transitions to END");
+        }
+        return found;
+    }
+
+    private boolean[] reachableFromStart() {
+        boolean[] reachable = new boolean[nodes.length];
+        int[] stack = new int[nodes.length];
+        int top = 0;
+        reachable[startIndex] = true;
+        stack[top++] = startIndex;
+        while (top > 0) {
+            int current = stack[--top];
+            for (int target : fallbackTargets[current]) {
+                if (!reachable[target]) {
+                    reachable[target] = true;
+                    stack[top++] = target;
+                }
+            }
+            for (int e = edgeOffsets[current]; e < edgeOffsets[current + 1]; e++) {
+                if (edgeKinds[e] == NODE_EDGE) {
+                    int target = edgeTargets[e];
+                    if (!reachable[target]) {
+                        reachable[target] = true;
+                        stack[top++] = target;
+                    }
+                } else if (edgeKinds[e] == CONDITIONAL_EDGE) {
+                    List<Node<T, ?>> declared = conditionals[edgeTargets[e]].getTargets();
+                    if (declared.isEmpty()) {
+                        // Targets are only known at runtime, every node may be reached through this conditional
+                        Arrays.fill(reachable, true);
+                        return reachable;
+                    }
+                    for (Node<T, ?> node : declared) {
+                        Integer target = indexes.get(node);
+                        if (target != null && !reachable[target]) {
+                            reachable[target] = true;
+                            stack[top++] = target;
+                        }
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private boolean endsWithEnd(int index) {
+        int last = edgeOffsets[index + 1] - 1;
+        return last >= edgeOffsets[index] && edgeKinds[last] == END_EDGE;
+    }
+
+    private int requireIndex(Node<T, ?> node) {
+        int index = indexOf(node);
+        if (index < 0) {
+            throw new IllegalStateException("Node '" + node.getName() + "' is not part of the workflow");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the given node in this plan.
+     *
+     * @param node the node to look up
+     * @return the index of the node, or -1 if the node is not part of the workflow
+     */
+    public int indexOf(Node<T, ?> node) {
+        Integer index = identityIndexes.get(node);
+        if (index == null) {
+            index = indexes.get(node);
+        }
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the number of nodes in this plan.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the node at the given index.
+     *
+     * @param index the index of the node
+     * @return the node at the given index
+     */
+    public Node<T, ?> node(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the index of the starting node.
+     *
+     * @return the index of the starting node, or -1 if it is not defined
+     */
+    public int startIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Returns the terminal node of the workflow: the first node transitioning to {@link WorkflowStateName#END},
+     * or the last node added to the workflow if none does.
+     *
+     * @return the terminal node
+     */
+    public Node<T, ?> terminalNode() {
+        return nodes[terminalIndex];
+    }
+
+    /**
+     * Returns the problems detected while validating the graph.
+     *
+     * @return an unmodifiable list of problem descriptions, empty if the graph is valid
+     */
+    public List<String> problems() {
+        return problems;
+    }
+
+    /**
+     * Returns whether the graph has no validation problems.
+     *
+     * @return true if the graph is valid
+     */
+    public boolean isValid() {
+        return problems.isEmpty();
+    }
+
+    /**
+     * Returns every transition the graph can take, without running it: the transition from
+     * {@link WorkflowStateName#START} to the starting node, then the edges of every node in insertion order,
+     * including the declared targets of {@link Conditional}s and the fallback nodes of {@link OnError} edges.
+     * <p>
+     * The returned transitions can be exported or rendered to document the workflow, for instance at build time.
+     * Conditionals without declared targets contribute no transition.
+     *
+     * @return the transitions of the graph
+     */
+    public List<Transition> graphTransitions() {
+        List<Transition> transitions = new ArrayList<>();
+        if (startIndex >= 0) {
+            transitions.add(Transition.from(WorkflowStateName.START, nodes[startIndex]));
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            for (int e = edgeOffsets[i]; e < edgeOffsets[i + 1]; e++) {
+                switch (edgeKinds[e]) {
+                    case NODE_EDGE -> transitions.add(Transition.from(nodes[i], nodes[edgeTargets[e]]));
+                    case CONDITIONAL_EDGE -> {
+                        for (Node<T, ?> target : conditionals[edgeTargets[e]].getTargets()) {
+                            transitions.add(Transition.from(nodes[i], target));
+                        }
+                    }
+                    default -> transitions.add(Transition.from(nodes[i], WorkflowStateName.END));
+                }
+            }
+            for (int target : fallbackTargets[i]) {
+                transitions.add(Transition.from(nodes[i], nodes[target]));
+            }
+        }
+        return transitions;
+    }
+
+    boolean isFanOut(int index) {
+        return fanOuts[index];
+    }
+
+    boolean isJoin(int index) {
+        return joins[index];
+    }
+
+    boolean isAsync(int index) {
+        return asyncs[index];
+    }
+
+    /**
+     * Returns the fallback node taken when the node at the given index fails with the given error.
+     *
+     * @param index the index of the failed node
+     * @param error the failure of the node
+     * @return the index of the fallback node, or -1 if no fallback edge accepts the failure
+     */
+    int fallback(int index, Throwable error) {
+        OnError<T>[] onErrors = fallbacks[index];
+        for (int f = 0; f < onErrors.length; f++) {
+            if (onErrors[f].accepts(error)) {
+                return fallbackTargets[index][f];
+            }
+        }
+        return -1;
+    }
+
+    boolean isSpeculative(int index) {
+        return speculatives[index];
+    }
+
+    /**
+     * Returns the conditional edge of the given node if it is the only edge leading to another node.
+     *
+     * @param index the index of the node
+     * @return the conditional edge, or -1 if the node has none or has other successors
+     */
+    int soleConditionalEdge(int index) {
+        if (fanOuts[index]) {
+            return -1;
+        }
+        for (int edge = edgeOffsets[index]; edge < edgeOffsets[index + 1]; edge++) {
+            if (edgeKinds[edge] == CONDITIONAL_EDGE) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of conditionals, the target of a conditional edge being the index of its conditional.
+     */
+    int conditionalCount() {
+        return conditionals.length;
+    }
+
+    int edgeStart(int index) {
+        return edgeOffsets[index];
+    }
+
+    int edgeEnd(int index) {
+        return edgeOffsets[index + 1];
+    }
+
+    byte edgeKind(int edge) {
+        return edgeKinds[edge];
+    }
+
+    int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Resolves the node selected by the conditional edge at runtime.
+     *
+     * @param edge  the conditional edge
+     * @param state the state to evaluate the condition against
+     * @return the index of the selected node
+     * @throws IllegalStateException if the conditional selects a node that is not part of the workflow
+     */
+    int evaluate(int edge, T state) {
+        Node<T, ?> selected = conditionals[edgeTargets[edge]].evaluate(state);
+        if (selected == null) {
+            throw new IllegalStateException("Conditional returned no node");
+        }
+        int index = indexOf(selected);
+        if (index < 0) {
+            throw new IllegalStateException("Conditional returned node '" + selected.getName() + "' that is not part of the workflow");
+        }
+        return index;
+    }
+}
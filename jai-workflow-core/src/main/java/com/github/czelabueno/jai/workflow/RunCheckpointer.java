@@ -0,0 +1,41 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.checkpoint.Checkpoint;
+import com.github.czelabueno.jai.workflow.checkpoint.CheckpointStore;
+import com.github.czelabueno.jai.workflow.checkpoint.StateSerializer;
+
+import java.time.Instant;
+
+/**
+ * Saves the checkpoints of one workflow run to a {@link CheckpointStore}.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+final class RunCheckpointer<T> {
+
+    private final CheckpointStore store;
+    private final StateSerializer<T> serializer;
+    private final String runId;
+    private long sequence;
+
+    RunCheckpointer(CheckpointStore store, StateSerializer<T> serializer, String runId, long sequence) {
+        this.store = store;
+        this.serializer = serializer;
+        this.runId = runId;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Saves the state of the run and the node it continues from.
+     */
+    void save(ExecutionPlan<T> plan, int next, T state) {
+        store.save(new Checkpoint(runId, sequence++, next, plan.node(next).getName(), serializer.serialize(state), Instant.now()));
+    }
+
+    /**
+     * Deletes the checkpoints of the completed run.
+     */
+    void completed() {
+        store.delete(runId);
+    }
+}
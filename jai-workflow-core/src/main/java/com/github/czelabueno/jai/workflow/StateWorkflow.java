@@ -2,10 +2,13 @@ package com.github.czelabueno.jai.workflow;
 
 import com.github.czelabueno.jai.workflow.node.Conditional;
 import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.OnError;
+import com.github.czelabueno.jai.workflow.node.NodeListener;
 import com.github.czelabueno.jai.workflow.transition.Transition;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -24,6 +27,9 @@ public interface StateWorkflow<T> {
 
     /**
      * Creates an edge between two nodes in the workflow.
+     * <p>
+     * A node with several outgoing edges fans out: each successor starts an independent branch that runs
+     * until it reaches a {@link com.github.czelabueno.jai.workflow.node.JoinNode} or the end of its path.
      *
      * @param from the starting node of the edge
      * @param to   the ending node of the edge
@@ -46,6 +52,17 @@ public interface StateWorkflow<T> {
      */
     void putEdge(Node<T, ?> from, WorkflowStateName state);
 
+    /**
+     * Creates a fallback edge taken when a node fails in the workflow.
+     * <p>
+     * The edge is taken once the node has exhausted its retries or its circuit breaker is open, and the run
+     * continues from the fallback node instead of failing.
+     *
+     * @param from    the node whose failures are handled
+     * @param onError the fallback edge to take
+     */
+    void putEdge(Node<T, ?> from, OnError<T> onError);
+
     /**
      * Sets the starting node of the workflow.
      *
@@ -53,6 +70,18 @@ public interface StateWorkflow<T> {
      */
     void startNode(Node<T,?> startNode);
 
+    /**
+     * Compiles the current graph into an immutable {@link ExecutionPlan} and validates it.
+     * <p>
+     * Runs compile the graph implicitly the first time they are executed after a change of the graph,
+     * logging validation problems instead of failing. Call this method once the graph is defined to
+     * fail fast on unreachable nodes or nodes that never transition to {@link WorkflowStateName#END}.
+     *
+     * @return the compiled execution plan
+     * @throws IllegalStateException if the graph is invalid
+     */
+    ExecutionPlan<T> compile();
+
     /**
      * Returns the last node defined in the workflow.
      *
@@ -61,14 +90,39 @@ public interface StateWorkflow<T> {
     Node<T,?> getLastNode();
 
     /**
-     * Runs the workflow synchronously.
+     * Runs the workflow synchronously using the stateful bean defined at build time.
      *
      * @return the stateful bean after the workflow execution
      */
     T run();
 
     /**
-     * Runs the workflow in stream mode, consuming events with the specified consumer.
+     * Runs the workflow synchronously against the given state.
+     * <p>
+     * Every invocation owns its state and its computed transitions, so a single workflow definition
+     * can serve concurrent runs as long as each caller supplies its own state instance.
+     *
+     * @param initialState the state to execute the workflow against
+     * @return the given state after the workflow execution
+     */
+    T run(T initialState);
+
+    /**
+     * Runs the workflow synchronously against the given state, notifying the listener when every node is
+     * started, completed or failed.
+     * <p>
+     * Pass an {@link com.github.czelabueno.jai.workflow.trace.ExecutionTrace} to capture the inputs and outputs
+     * of the nodes of this run only.
+     *
+     * @param initialState the state to execute the workflow against
+     * @param listener     the listener to notify of node lifecycle events
+     * @return the given state after the workflow execution
+     */
+    T run(T initialState, NodeListener<T> listener);
+
+    /**
+     * Runs the workflow in stream mode using the stateful bean defined at build time,
+     * consuming events with the specified consumer.
      *
      * @param eventConsumer the consumer to process node events
      * @return the stateful bean after the workflow execution
@@ -76,7 +130,65 @@ public interface StateWorkflow<T> {
     T runStream(Consumer<Node<T, ?>> eventConsumer);
 
     /**
-     * Returns the list of computed transitions in the workflow.
+     * Runs the workflow in stream mode against the given state, consuming events with the specified consumer.
+     * <p>
+     * When parallel branches run concurrently, the consumer is invoked from the threads running the branches.
+     *
+     * @param initialState  the state to execute the workflow against
+     * @param eventConsumer the consumer to process node events
+     * @return the given state after the workflow execution
+     */
+    T runStream(T initialState, Consumer<Node<T, ?>> eventConsumer);
+
+    /**
+     * Runs the workflow asynchronously using the stateful bean defined at build time.
+     *
+     * @return a future completed with the stateful bean after the workflow execution
+     * @see #runAsync(Object)
+     */
+    CompletableFuture<T> runAsync();
+
+    /**
+     * Runs the workflow asynchronously against the given state.
+     * <p>
+     * No thread is parked while an {@link com.github.czelabueno.jai.workflow.node.AsyncNode} is pending: the run
+     * continues when its stage completes. Synchronous nodes run on the calling thread until the first pending
+     * stage, unless the workflow runs on virtual threads. Cancelling the returned future cancels the run.
+     *
+     * @param initialState the state to execute the workflow against
+     * @return a future completed with the given state after the workflow execution, or completed exceptionally
+     * with the failure of the node that stopped it
+     */
+    CompletableFuture<T> runAsync(T initialState);
+
+    /**
+     * Runs the workflow asynchronously in stream mode against the given state, consuming events with the
+     * specified consumer once every node is processed.
+     *
+     * @param initialState  the state to execute the workflow against
+     * @param eventConsumer the consumer to process node events
+     * @return a future completed with the given state after the workflow execution
+     * @see #runAsync(Object)
+     */
+    CompletableFuture<T> runStreamAsync(T initialState, Consumer<Node<T, ?>> eventConsumer);
+
+    /**
+     * Runs the workflow asynchronously against the given state, notifying the listener when every node is
+     * started, completed or failed.
+     *
+     * @param initialState the state to execute the workflow against
+     * @param listener     the listener to notify of node lifecycle events
+     * @return a future completed with the given state after the workflow execution
+     * @see #runAsync(Object)
+     */
+    CompletableFuture<T> runAsync(T initialState, NodeListener<T> listener);
+
+    /**
+     * Returns the list of transitions computed by the most recently completed run of the workflow.
+     * <p>
+     * Only runs recorded by the {@link com.github.czelabueno.jai.workflow.transition.TransitionRecording} of the
+     * workflow are taken into account: the list is empty when nothing is recorded, holds the last sampled run when
+     * runs are sampled, and holds the last transitions of the run when they are kept in a ring buffer.
      *
      * @return the list of computed transitions
      */
@@ -87,6 +199,7 @@ public interface StateWorkflow<T> {
      *
      * @param outputPath the path to save the workflow image
      * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if no image generator is set nor provided on the classpath
      */
     void generateWorkflowImage(String outputPath) throws IOException;
 
@@ -0,0 +1,61 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.concurrent.WorkflowTimer;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interrupts a thread executing a node once the node budget is exhausted.
+ * <p>
+ * The guard is disarmed when the node returns. If it fired, disarming waits for the interrupt to be delivered
+ * and clears it, so the interrupt never leaks into the code running after the node.
+ */
+final class TimeoutGuard implements Runnable {
+
+    private static final int ARMED = 0;
+    private static final int DISARMED = 1;
+    private static final int FIRING = 2;
+    private static final int FIRED = 3;
+
+    private final Thread thread;
+    private final AtomicInteger status = new AtomicInteger(ARMED);
+    private final ScheduledFuture<?> task;
+
+    private TimeoutGuard(Thread thread, long delayNanos) {
+        this.thread = thread;
+        this.task = WorkflowTimer.schedule(this, delayNanos);
+    }
+
+    /**
+     * Arms a guard interrupting the calling thread after the given delay.
+     */
+    static TimeoutGuard arm(long delayNanos) {
+        return new TimeoutGuard(Thread.currentThread(), delayNanos);
+    }
+
+    @Override
+    public void run() {
+        if (status.compareAndSet(ARMED, FIRING)) {
+            thread.interrupt();
+            status.set(FIRED);
+        }
+    }
+
+    /**
+     * Disarms the guard.
+     *
+     * @return true if the guard fired before being disarmed
+     */
+    boolean disarm() {
+        if (status.compareAndSet(ARMED, DISARMED)) {
+            task.cancel(false);
+            return false;
+        }
+        while (status.get() == FIRING) {
+            Thread.onSpinWait();
+        }
+        Thread.interrupted(); // clears the interrupt raised by this guard
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.czelabueno.jai.workflow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * The time budget of the node or conditional currently executed by a workflow run.
+ * <p>
+ * Node functions and conditionals can read the context of the calling thread with {@link #current()}, for example
+ * to pick a faster model when the remaining budget is low. The budget of a node is the earliest of the run deadline
+ * and the node timeout; the budget of a conditional is the run deadline. Outside a workflow run, or when no
+ * deadline applies, the context is {@link #unbounded()}.
+ */
+public final class WorkflowContext {
+
+    private static final WorkflowContext UNBOUNDED = new WorkflowContext(null, Long.MAX_VALUE);
+    private static final ThreadLocal<WorkflowContext> CURRENT = new ThreadLocal<>();
+
+    private final Instant deadline;
+    private final long deadlineNanos;
+
+    private WorkflowContext(Instant deadline, long deadlineNanos) {
+        this.deadline = deadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns the context of the node or conditional executed by the calling thread.
+     *
+     * @return the current context, {@link #unbounded()} if none applies
+     */
+    public static WorkflowContext current() {
+        WorkflowContext context = CURRENT.get();
+        return context != null ? context : UNBOUNDED;
+    }
+
+    /**
+     * Returns the context without deadline.
+     *
+     * @return the unbounded context
+     */
+    public static WorkflowContext unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Creates a context whose deadline is the given budget from now.
+     *
+     * @param budgetNanos the budget in nanoseconds, {@link Long#MAX_VALUE} for no deadline
+     */
+    static WorkflowContext withBudget(long budgetNanos) {
+        if (budgetNanos == Long.MAX_VALUE) {
+            return UNBOUNDED;
+        }
+        return new WorkflowContext(Instant.now().plusNanos(budgetNanos), System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * Makes the given context current for the calling thread.
+     *
+     * @return the previous context of the thread, to be restored with {@link #restore(WorkflowContext)}
+     */
+    static WorkflowContext enter(WorkflowContext context) {
+        WorkflowContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    static void restore(WorkflowContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Returns the time left before the deadline in nanoseconds.
+     *
+     * @return the remaining budget, which is negative once the deadline passed, or {@link Long#MAX_VALUE} if no
+     * deadline applies
+     */
+    long remainingNanos() {
+        return deadline == null ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Returns the deadline of the current node or conditional.
+     *
+     * @return the deadline, or empty if none applies
+     */
+    public Optional<Instant> deadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    /**
+     * Returns the time left before the deadline.
+     *
+     * @return the remaining budget, {@link Duration#ZERO} once the deadline passed, or
+     * {@link ChronoUnit#FOREVER}'s duration if no deadline applies
+     */
+    public Duration remaining() {
+        if (deadline == null) {
+            return ChronoUnit.FOREVER.getDuration();
+        }
+        return Duration.ofNanos(Math.max(0L, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Returns whether the deadline has passed.
+     *
+     * @return true if a deadline applies and has passed
+     */
+    public boolean isExpired() {
+        return deadline != null && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkflowContext{" +
+                "deadline=" + deadline +
+                '}';
+    }
+}
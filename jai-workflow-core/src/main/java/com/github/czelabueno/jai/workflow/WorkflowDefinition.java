@@ -0,0 +1,27 @@
+package com.github.czelabueno.jai.workflow;
+
+/**
+ * Provides a workflow definition to build-time tools, such as the jAI Workflow Maven plugin rendering the
+ * diagrams of workflows without running them.
+ * <p>
+ * Implementations need a public no-argument constructor. They are discovered with {@link java.util.ServiceLoader},
+ * by listing them in {@code META-INF/services/com.github.czelabueno.jai.workflow.WorkflowDefinition}, or named
+ * explicitly in the configuration of the tool. {@link #workflow()} should only build the graph: nodes are not
+ * executed, so they do not need their models or stores to be reachable.
+ */
+public interface WorkflowDefinition {
+
+    /**
+     * Returns the name of the workflow, used to name the files generated for it.
+     *
+     * @return the name of the workflow
+     */
+    String name();
+
+    /**
+     * Builds the workflow, with its nodes, edges and starting node.
+     *
+     * @return the workflow
+     */
+    StateWorkflow<?> workflow();
+}
@@ -0,0 +1,950 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.concurrent.SpeculationPolicy;
+import com.github.czelabueno.jai.workflow.concurrent.WorkflowTimer;
+import com.github.czelabueno.jai.workflow.metrics.WorkflowMetrics;
+import com.github.czelabueno.jai.workflow.node.JoinNode;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.NodeListener;
+import com.github.czelabueno.jai.workflow.node.SpeculativeNode;
+import com.github.czelabueno.jai.workflow.resilience.CircuitBreaker;
+import com.github.czelabueno.jai.workflow.resilience.CircuitBreakerOpenException;
+import com.github.czelabueno.jai.workflow.resilience.RetryPolicy;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiConsumer;
+
+/**
+ * A single execution of an {@link ExecutionPlan} against one state.
+ * <p>
+ * The graph is walked iteratively, so linear paths and loops driven by a
+ * {@link com.github.czelabueno.jai.workflow.node.Conditional} run with constant stack depth, however many
+ * iterations they take. A node with several successors fans out: every successor starts a branch that runs
+ * until it reaches a {@link JoinNode} or the end of its path. Branches run concurrently when an executor is
+ * configured and one after the other otherwise. The join is executed once, after the branches it waits for
+ * have arrived, and the walk continues from it.
+ * <p>
+ * The walk never blocks on pending work. When an {@link com.github.czelabueno.jai.workflow.node.AsyncNode}
+ * returns a stage that is not completed yet, or a fan-out waits for branches, the walk registers a
+ * continuation and returns; it resumes on the thread completing that work, or on the executor if one is
+ * configured. Completed stages are consumed inline, so purely synchronous graphs run on the calling thread.
+ * <p>
+ * When a run timeout or node timeouts are configured, every node runs with a budget: the earliest of the run
+ * deadline and its own timeout. The budget is published to the node function through {@link WorkflowContext},
+ * and the thread executing a synchronous node is interrupted once it is exhausted. The stage of an async node
+ * is cancelled instead. Either way the node fails with a {@link WorkflowTimeoutException}.
+ * <p>
+ * A failed node is retried according to its {@link RetryPolicy}: the walk resumes from a timer once the
+ * backoff has elapsed, as long as the run deadline leaves room for it. A node with a {@link CircuitBreaker}
+ * fails fast while its breaker is open. Once a node gives up, the walk continues from the first
+ * {@link com.github.czelabueno.jai.workflow.node.OnError} edge accepting the failure, if any.
+ * <p>
+ * With a {@link SpeculationPolicy}, a {@link SpeculativeNode} that its conditional usually selects is computed
+ * concurrently with the node preceding the conditional. Its output is committed when the conditional selects it,
+ * without computing it again, and discarded otherwise.
+ * <p>
+ * A checkpointed run saves its state and the next node of the root path after every node, so a failed run can
+ * be resumed from there. Nodes inside parallel branches are not checkpointed: the run is saved again once the
+ * branches are joined.
+ * <p>
+ * Every node keeps an iteration counter for the run, so runaway loops are cut off as soon as a node is
+ * executed more than {@code maxIterationsPerCycle} times or the run executes more than
+ * {@code maxIterationsPerRun} nodes.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+final class WorkflowExecution<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowExecution.class);
+    private static final int NOT_COMPLETED = Integer.MIN_VALUE;
+    private static final int RETRY_SCHEDULED = -2;
+
+    private final ExecutionPlan<T> plan;
+    private final T state;
+    private final NodeListener<T> listener;
+    private final int maxIterationsPerCycle;
+    private final int maxIterationsPerRun;
+    private final Executor executor;
+    private final Duration runTimeout;
+    private final Duration defaultNodeTimeout;
+    private final Map<Node<T, ?>, Duration> nodeTimeouts;
+    private final boolean timed;
+    private final RetryPolicy[] retryPolicies;
+    private final CircuitBreaker[] circuitBreakers;
+    private final SpeculationPolicy speculationPolicy;
+    private final BranchStatistics branchStatistics;
+    private final RunCheckpointer<T> checkpointer;
+    private WorkflowContext runContext = WorkflowContext.unbounded();
+    private final AtomicIntegerArray iterations;
+    private final AtomicInteger steps = new AtomicInteger();
+    private final TransitionRecorder recorder;
+    private final WorkflowMetrics metrics;
+    private final Walk root;
+
+    WorkflowExecution(ExecutionPlan<T> plan,
+                      T state,
+                      NodeListener<T> listener,
+                      int maxIterationsPerCycle,
+                      int maxIterationsPerRun,
+                      Executor executor,
+                      Duration runTimeout,
+                      Duration defaultNodeTimeout,
+                      Map<Node<T, ?>, Duration> nodeTimeouts,
+                      Map<Node<T, ?>, RetryPolicy> retryPolicies,
+                      Map<Node<T, ?>, CircuitBreaker> circuitBreakers,
+                      SpeculationPolicy speculationPolicy,
+                      BranchStatistics branchStatistics,
+                      RunCheckpointer<T> checkpointer,
+                      TransitionRecorder recorder,
+                      WorkflowMetrics metrics) {
+        this.plan = plan;
+        this.state = state;
+        this.listener = listener;
+        this.maxIterationsPerCycle = maxIterationsPerCycle;
+        this.maxIterationsPerRun = maxIterationsPerRun;
+        this.executor = executor;
+        this.runTimeout = runTimeout;
+        this.defaultNodeTimeout = defaultNodeTimeout;
+        this.nodeTimeouts = nodeTimeouts;
+        this.timed = runTimeout != null || defaultNodeTimeout != null || !nodeTimeouts.isEmpty();
+        this.iterations = new AtomicIntegerArray(plan.nodeCount());
+        this.speculationPolicy = speculationPolicy;
+        this.branchStatistics = branchStatistics;
+        this.checkpointer = checkpointer;
+        this.retryPolicies = new RetryPolicy[plan.nodeCount()];
+        this.circuitBreakers = new CircuitBreaker[plan.nodeCount()];
+        for (int i = 0; i < plan.nodeCount(); i++) {
+            this.retryPolicies[i] = retryPolicies.get(plan.node(i));
+            this.circuitBreakers[i] = circuitBreakers.get(plan.node(i));
+        }
+        this.recorder = recorder;
+        this.metrics = metrics;
+        this.root = new Walk(false);
+    }
+
+    /**
+     * Starts walking the plan from its starting node. The walk runs on the calling thread until it completes
+     * or has to wait for pending work.
+     *
+     * @return a future completed with the state once every path reached END or a node without outgoing edges
+     */
+    CompletableFuture<T> start() {
+        int start = plan.startIndex();
+        root.transitions.record(WorkflowStateName.START, plan.node(start));
+        return walk(start);
+    }
+
+    /**
+     * Resumes a checkpointed run from the given node. The walk runs on the calling thread until it completes or
+     * has to wait for pending work.
+     *
+     * @param index the index of the node the run continues from
+     * @return a future completed with the state once every path reached END or a node without outgoing edges
+     */
+    CompletableFuture<T> resume(int index) {
+        return walk(index);
+    }
+
+    private CompletableFuture<T> walk(int first) {
+        if (runTimeout != null) {
+            runContext = WorkflowContext.withBudget(runTimeout.toNanos());
+        }
+        return root.start(first).thenApply(join -> {
+            if (checkpointer != null) {
+                checkpointer.completed();
+            }
+            return state;
+        });
+    }
+
+    /**
+     * Cancels this execution. No further node is started and pending stages and branches are cancelled.
+     */
+    void cancel() {
+        root.cancel();
+    }
+
+    /**
+     * Returns the transitions computed by this execution.
+     *
+     * @return the computed transitions
+     */
+    List<Transition> transitions() {
+        return root.transitions.transitions();
+    }
+
+    /**
+     * Counts an execution of the node at the given index against the iteration limits of the run.
+     */
+    private void count(int index) {
+        int executions = iterations.incrementAndGet(index);
+        if (executions > maxIterationsPerCycle) {
+            throw new IllegalStateException("Maximum iterations per cycle (" + maxIterationsPerCycle + ") exceeded by node '" + plan.node(index).getName() + "'");
+        }
+        if (steps.incrementAndGet() > maxIterationsPerRun) {
+            throw new IllegalStateException("Maximum iterations per run (" + maxIterationsPerRun + ") exceeded by node '" + plan.node(index).getName() + "'");
+        }
+        if (executions > 1 && metrics != null) {
+            metrics.onLoopIteration(plan.node(index).getName());
+        }
+    }
+
+    /**
+     * Executes the node at the given index. The output of an async node is its completion stage.
+     */
+    @SuppressWarnings("unchecked")
+    private Object execute(int index, List<Object> branchOutputs) {
+        Node<T, ?> node = plan.node(index);
+        log.debug("Running node name: " + node.getName() + "..");
+        return plan.isJoin(index)
+                ? ((JoinNode<T, ?>) node).join(state, branchOutputs)
+                : node.execute(state);
+    }
+
+    /**
+     * Returns the budget of the node at the given index: the earliest of the run deadline and the node timeout.
+     *
+     * @return the budget in nanoseconds, {@link Long#MAX_VALUE} if neither applies
+     * @throws WorkflowTimeoutException if the run deadline has already passed
+     */
+    private long budget(int index) {
+        Node<T, ?> node = plan.node(index);
+        long remaining = runContext.remainingNanos();
+        if (remaining <= 0) {
+            throw new WorkflowTimeoutException("Workflow deadline exceeded before node '" + node.getName() + "'");
+        }
+        Duration timeout = nodeTimeouts.getOrDefault(node, defaultNodeTimeout);
+        return timeout != null ? Math.min(remaining, timeout.toNanos()) : remaining;
+    }
+
+    /**
+     * Executes the node at the given index within its budget, interrupting the thread once it is exhausted.
+     */
+    private Object execute(int index, List<Object> branchOutputs, long budget) {
+        WorkflowContext previous = WorkflowContext.enter(WorkflowContext.withBudget(budget));
+        TimeoutGuard guard = budget == Long.MAX_VALUE ? null : TimeoutGuard.arm(budget);
+        Object output;
+        try {
+            output = execute(index, branchOutputs);
+        } catch (Throwable t) {
+            if (guard != null && guard.disarm()) {
+                throw timeout(index, budget); // interrupted by the guard
+            }
+            throw t;
+        } finally {
+            WorkflowContext.restore(previous);
+        }
+        if (guard != null && guard.disarm()) {
+            throw timeout(index, budget);
+        }
+        return output;
+    }
+
+    /**
+     * Resolves the node selected by the conditional edge following the node at the given index, with the run
+     * deadline published to the conditional.
+     */
+    private int evaluate(int index, int edge) {
+        long startedAt = metrics != null ? System.nanoTime() : 0L;
+        int selected;
+        if (!timed) {
+            selected = plan.evaluate(edge, state);
+        } else {
+            WorkflowContext previous = WorkflowContext.enter(runContext);
+            try {
+                selected = plan.evaluate(edge, state);
+            } finally {
+                WorkflowContext.restore(previous);
+            }
+        }
+        if (metrics != null) {
+            metrics.onConditionalEvaluated(plan.node(index).getName(), System.nanoTime() - startedAt);
+        }
+        if (speculationPolicy != null) {
+            branchStatistics.recordBranch(edge, selected);
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the speculative node the conditional following the node at the given index usually selects.
+     *
+     * @return the index of the node to speculate on, or -1 if none
+     */
+    private int speculationTarget(int index) {
+        if (speculationPolicy == null) {
+            return -1;
+        }
+        int edge = plan.soleConditionalEdge(index);
+        if (edge < 0) {
+            return -1;
+        }
+        int target = branchStatistics.dominantBranch(edge, speculationPolicy.getMinSamples(), speculationPolicy.getMinBranchRatio());
+        return target >= 0 && target != index && plan.isSpeculative(target) ? target : -1;
+    }
+
+    /**
+     * Fails fast if the circuit breaker of the node at the given index is open.
+     */
+    private void admit(int index) {
+        CircuitBreaker breaker = circuitBreakers[index];
+        if (breaker != null && !breaker.tryAcquire()) {
+            throw new CircuitBreakerOpenException("Circuit breaker of node '" + plan.node(index).getName() + "' is open");
+        }
+    }
+
+    private void succeeded(int index) {
+        CircuitBreaker breaker = circuitBreakers[index];
+        if (breaker != null) {
+            breaker.onSuccess();
+        }
+    }
+
+    private void broke(int index, Throwable error) {
+        CircuitBreaker breaker = circuitBreakers[index];
+        if (breaker == null || error instanceof CircuitBreakerOpenException) {
+            return; // the execution was never let through
+        }
+        if (error instanceof CancellationException) {
+            breaker.release();
+        } else {
+            breaker.onFailure();
+        }
+    }
+
+    private WorkflowTimeoutException timeout(int index, long budget) {
+        return new WorkflowTimeoutException("Node '" + plan.node(index).getName() + "' exceeded its time budget of " + Duration.ofNanos(budget));
+    }
+
+    private long startTime() {
+        return listener == null && metrics == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Notifies the start of the node at the given index. Once it is called, the node must be followed by a call to
+     * {@link #completed} or {@link #failed}, even if the listener throws.
+     *
+     * @return the input captured by the listener for this execution
+     */
+    private Object started(int index) {
+        if (metrics != null) {
+            metrics.onNodeStarted(plan.node(index).getName());
+        }
+        if (listener == null) {
+            return null;
+        }
+        listener.onStarted(plan.node(index), state);
+        return listener.captureInput(plan.node(index), state);
+    }
+
+    private void completed(int index, Object input, Object output, long startedAt) {
+        if (listener == null && metrics == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - startedAt;
+        if (metrics != null) {
+            metrics.onNodeCompleted(plan.node(index).getName(), nanos);
+        }
+        if (listener != null) {
+            listener.onCompleted(plan.node(index), state, input, output, Duration.ofNanos(nanos));
+        }
+    }
+
+    private void failed(int index, Object input, Throwable error, long startedAt) {
+        if (listener == null && metrics == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - startedAt;
+        if (metrics != null) {
+            metrics.onNodeFailed(plan.node(index).getName(), nanos, unwrap(error));
+        }
+        if (listener != null) {
+            listener.onFailed(plan.node(index), state, input, unwrap(error), Duration.ofNanos(nanos));
+        }
+    }
+
+    /**
+     * Runs the action once the future completes, on the executor if one is configured.
+     */
+    private <V> void onComplete(CompletableFuture<V> future, BiConsumer<? super V, ? super Throwable> action) {
+        if (executor == null) {
+            future.whenComplete(action);
+        } else {
+            future.whenCompleteAsync(action, executor);
+        }
+    }
+
+    /**
+     * A path through the graph. The root walk starts at the starting node; branch walks start at the
+     * successors of a fan-out node and stop when they reach a join node. The completion of a walk holds the
+     * index of the join node reached by a branch, or -1 when the path ended.
+     */
+    private final class Walk {
+
+        private final TransitionRecorder transitions;
+        private final boolean branch;
+        private final CompletableFuture<Integer> completion = new CompletableFuture<>();
+        private volatile boolean cancelled;
+        private volatile Future<?> pending;
+        private volatile FanOut activeFanOut;
+        private volatile Speculation speculation;
+        private Object lastOutput;
+
+        private Walk(boolean branch) {
+            this.branch = branch;
+            this.transitions = branch ? recorder.branch() : recorder;
+        }
+
+        private CompletableFuture<Integer> start(int first) {
+            resume(first, null, false, 1);
+            return completion;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Future<?> stage = pending;
+            if (stage != null) {
+                stage.cancel(true);
+            }
+            FanOut fanOut = activeFanOut;
+            if (fanOut != null) {
+                fanOut.cancel();
+            }
+            discardSpeculation();
+        }
+
+        /**
+         * Starts computing the given speculative node concurrently with the node about to be executed.
+         */
+        @SuppressWarnings("unchecked")
+        private void speculate(int target) {
+            SpeculativeNode<T, Object> node = (SpeculativeNode<T, Object>) plan.node(target);
+            log.debug("Speculating on node name: " + node.getName() + "..");
+            Executor speculationExecutor = executor != null ? executor : ForkJoinPool.commonPool();
+            speculation = new Speculation(target, CompletableFuture.supplyAsync(() -> node.compute(state), speculationExecutor));
+        }
+
+        /**
+         * Returns the speculation on the given node, if any, and discards a speculation on any other node.
+         */
+        private Speculation takeSpeculation(int index) {
+            Speculation speculated = speculation;
+            if (speculated == null) {
+                return null;
+            }
+            speculation = null;
+            if (speculated.target() != index) {
+                log.debug("Discarding speculation on node name: " + plan.node(speculated.target()).getName());
+                speculated.result().cancel(false);
+                return null;
+            }
+            return speculated;
+        }
+
+        private void discardSpeculation() {
+            Speculation speculated = speculation;
+            if (speculated != null) {
+                speculation = null;
+                speculated.result().cancel(false);
+            }
+        }
+
+        /**
+         * Commits the speculative output of the given node into the state once it is computed.
+         */
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<Object> commit(int index, Speculation speculated) {
+            SpeculativeNode<T, Object> node = (SpeculativeNode<T, Object>) plan.node(index);
+            return speculated.result().thenApply(output -> node.commit(state, output));
+        }
+
+        /**
+         * Walks the graph from the given node until the path ends or pending work has to be awaited.
+         *
+         * @param current       the index of the node to continue from
+         * @param branchOutputs the outputs of the arrived branches if the node is a join, otherwise null
+         * @param executed      whether the node was already executed and only its successors are left
+         * @param attempt       the attempt number of the node, starting at 1
+         */
+        private void resume(int current, List<Object> branchOutputs, boolean executed, int attempt) {
+            try {
+                while (true) {
+                    if (!executed) {
+                        if (cancelled) {
+                            completion.completeExceptionally(new CancellationException("Workflow execution cancelled"));
+                            return;
+                        }
+                        if (branchOutputs == null && plan.isJoin(current)) {
+                            branchOutputs = Collections.singletonList(lastOutput); // a single path is a single branch
+                        }
+                        if (attempt == 1) {
+                            count(current); // retries are not iterations
+                        }
+                        long budget = timed ? budget(current) : Long.MAX_VALUE;
+                        Speculation speculated = takeSpeculation(current);
+                        long startedAt = startTime();
+                        Object input;
+                        try {
+                            input = started(current);
+                        } catch (Throwable t) {
+                            failed(current, null, t, startedAt); // a failing listener stops the run, it is not recovered
+                            if (speculated != null) {
+                                speculated.result().cancel(false);
+                            }
+                            throw t;
+                        }
+                        Object output = null;
+                        try {
+                            admit(current);
+                            CompletableFuture<?> stage = null;
+                            if (speculated != null) {
+                                stage = commit(current, speculated);
+                            } else {
+                                int target = speculationTarget(current);
+                                if (target >= 0) {
+                                    speculate(target);
+                                }
+                                output = timed ? execute(current, branchOutputs, budget) : execute(current, branchOutputs);
+                                if (plan.isAsync(current)) {
+                                    stage = ((CompletionStage<?>) output).toCompletableFuture();
+                                }
+                            }
+                            if (stage != null) {
+                                if (!stage.isDone()) {
+                                    await(current, stage, budget, input, startedAt, attempt);
+                                    return;
+                                }
+                                output = stage.join();
+                            }
+                        } catch (Throwable t) {
+                            failed(current, input, t, startedAt);
+                            int fallback = recover(current, branchOutputs, attempt, unwrap(t));
+                            if (fallback == RETRY_SCHEDULED) {
+                                return;
+                            }
+                            if (fallback < 0) {
+                                throw t;
+                            }
+                            if (ends(fallback, null)) {
+                                return;
+                            }
+                            current = fallback;
+                            branchOutputs = null;
+                            attempt = 1;
+                            continue;
+                        }
+                        succeeded(current);
+                        attempt = 1;
+                        branchOutputs = null;
+                        lastOutput = output;
+                        completed(current, input, output, startedAt);
+                    }
+                    executed = false;
+
+                    int next;
+                    if (plan.isFanOut(current)) {
+                        FanOut fanOut = new FanOut(current);
+                        activeFanOut = fanOut;
+                        CompletableFuture<FanOutResult> arrived = fanOut.start();
+                        if (!arrived.isDone()) {
+                            onComplete(arrived, (result, error) -> {
+                                if (error != null) {
+                                    completion.completeExceptionally(unwrap(error));
+                                } else {
+                                    proceed(result);
+                                }
+                            });
+                            return;
+                        }
+                        FanOutResult result = arrived.join();
+                        activeFanOut = null;
+                        next = result.join();
+                        branchOutputs = result.outputs();
+                    } else {
+                        next = follow(current);
+                    }
+                    if (checkpointer != null && !branch && next >= 0 && branchOutputs == null) {
+                        checkpointer.save(plan, next, state);
+                    }
+                    if (ends(next, branchOutputs)) {
+                        return;
+                    }
+                    current = next;
+                }
+            } catch (Throwable t) {
+                discardSpeculation();
+                completion.completeExceptionally(unwrap(t));
+            }
+        }
+
+        /**
+         * Completes this walk if the given successor ends it: the path ended, or a branch reached a join.
+         */
+        private boolean ends(int next, List<Object> branchOutputs) {
+            if (next < 0 || (branch && branchOutputs == null && plan.isJoin(next))) {
+                discardSpeculation();
+                completion.complete(next);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Handles the failure of a node: schedules a retry if its policy allows one, otherwise looks up the
+         * fallback edge accepting the failure.
+         *
+         * @return {@link #RETRY_SCHEDULED}, the index of the fallback node, or -1 if the failure is not handled
+         */
+        private int recover(int index, List<Object> branchOutputs, int attempt, Throwable error) {
+            broke(index, error);
+            if (cancelled || error instanceof CancellationException) {
+                return -1;
+            }
+            RetryPolicy policy = retryPolicies[index];
+            if (policy != null && policy.shouldRetry(attempt, error)) {
+                long backoff = policy.backoffNanos(attempt);
+                if (runContext.remainingNanos() > backoff) {
+                    log.debug("Retrying node name: " + plan.node(index).getName() + " in " + Duration.ofNanos(backoff) + "..");
+                    retry(index, branchOutputs, attempt + 1, backoff);
+                    return RETRY_SCHEDULED;
+                }
+            }
+            int fallback = plan.fallback(index, error);
+            if (fallback >= 0) {
+                log.debug("Falling back from node name: " + plan.node(index).getName() + " to " + plan.node(fallback).getName() + "..");
+                transitions.record(plan.node(index), plan.node(fallback));
+            }
+            return fallback;
+        }
+
+        /**
+         * Resumes the walk with the given attempt of the node once the backoff has elapsed, without parking a thread.
+         */
+        private void retry(int index, List<Object> branchOutputs, int attempt, long backoffNanos) {
+            CompletableFuture<Void> backoff = new CompletableFuture<>();
+            pending = backoff;
+            if (cancelled) {
+                backoff.cancel(true);
+            }
+            Executor resumeExecutor = executor != null ? executor : ForkJoinPool.commonPool();
+            CompletableFuture.delayedExecutor(backoffNanos, TimeUnit.NANOSECONDS, resumeExecutor).execute(() -> backoff.complete(null));
+            backoff.whenComplete((value, error) -> {
+                pending = null;
+                if (error != null) {
+                    completion.completeExceptionally(unwrap(error));
+                } else {
+                    resume(index, branchOutputs, false, attempt);
+                }
+            });
+        }
+
+        private void await(int index, CompletableFuture<?> stage, long budget, Object input, long startedAt, int attempt) {
+            pending = stage;
+            if (cancelled) {
+                stage.cancel(true);
+            }
+            CompletableFuture<Object> awaited = new CompletableFuture<>();
+            AtomicBoolean timedOut = new AtomicBoolean();
+            stage.whenComplete((value, error) -> {
+                if (timedOut.get()) {
+                    return; // cancelled by the timeout below
+                }
+                if (error != null) {
+                    awaited.completeExceptionally(error);
+                } else {
+                    awaited.complete(value);
+                }
+            });
+            if (budget != Long.MAX_VALUE) {
+                ScheduledFuture<?> timer = WorkflowTimer.schedule(() -> {
+                    if (!awaited.isDone() && timedOut.compareAndSet(false, true)) {
+                        stage.cancel(true);
+                        awaited.completeExceptionally(timeout(index, budget));
+                    }
+                }, budget);
+                awaited.whenComplete((value, error) -> timer.cancel(false));
+            }
+            onComplete(awaited, (value, error) -> {
+                pending = null;
+                try {
+                    if (error != null) {
+                        failed(index, input, error, startedAt);
+                        int fallback = recover(index, null, attempt, unwrap(error));
+                        if (fallback == RETRY_SCHEDULED) {
+                            return;
+                        }
+                        if (fallback < 0) {
+                            completion.completeExceptionally(unwrap(error));
+                        } else if (!ends(fallback, null)) {
+                            resume(fallback, null, false, 1);
+                        }
+                        return;
+                    }
+                    succeeded(index);
+                    lastOutput = value;
+                    completed(index, input, value, startedAt);
+                } catch (Throwable t) {
+                    completion.completeExceptionally(t);
+                    return;
+                }
+                resume(index, null, true, 1);
+            });
+        }
+
+        private void proceed(FanOutResult result) {
+            activeFanOut = null;
+            if (result.join() < 0) {
+                completion.complete(result.join());
+            } else {
+                resume(result.join(), result.outputs(), false, 1);
+            }
+        }
+
+        /**
+         * Follows the only successor of the given node, if any.
+         */
+        private int follow(int index) {
+            Node<T, ?> node = plan.node(index);
+            int next = -1;
+            for (int edge = plan.edgeStart(index); edge < plan.edgeEnd(index); edge++) {
+                switch (plan.edgeKind(edge)) {
+                    case ExecutionPlan.NODE_EDGE -> next = plan.edgeTarget(edge);
+                    case ExecutionPlan.CONDITIONAL_EDGE -> next = evaluate(index, edge);
+                    default -> {
+                        if (next >= 0) {
+                            transitions.record(node, plan.node(next));
+                        }
+                        log.debug("Reached END state");
+                        transitions.record(node, WorkflowStateName.END);
+                        return next;
+                    }
+                }
+            }
+            if (next >= 0) {
+                transitions.record(node, plan.node(next));
+            }
+            return next;
+        }
+
+        /**
+         * The branches started by a fan-out node of this walk, and the join they converge on.
+         */
+        private final class FanOut {
+
+            private final int index;
+            private final List<Integer> successors = new ArrayList<>();
+            private final List<Walk> branches = new ArrayList<>();
+            private final List<Future<?>> tasks = new ArrayList<>();
+            private final List<Integer> arrivalOrder = new ArrayList<>();
+            private final CompletableFuture<FanOutResult> arrived = new CompletableFuture<>();
+            private final int[] joins;
+            private boolean toEnd;
+            private int completedBranches;
+            private boolean finished;
+
+            private FanOut(int index) {
+                this.index = index;
+                Node<T, ?> node = plan.node(index);
+                for (int edge = plan.edgeStart(index); edge < plan.edgeEnd(index); edge++) {
+                    switch (plan.edgeKind(edge)) {
+                        case ExecutionPlan.NODE_EDGE -> successors.add(plan.edgeTarget(edge));
+                        case ExecutionPlan.CONDITIONAL_EDGE -> successors.add(evaluate(index, edge));
+                        default -> toEnd = true;
+                    }
+                }
+                for (int successor : successors) {
+                    Walk walk = new Walk(true);
+                    walk.lastOutput = lastOutput;
+                    walk.transitions.record(node, plan.node(successor));
+                    branches.add(walk);
+                }
+                this.joins = new int[branches.size()];
+                Arrays.fill(joins, NOT_COMPLETED);
+            }
+
+            private CompletableFuture<FanOutResult> start() {
+                log.debug("Fan-out of node name: " + plan.node(index).getName() + " into " + successors.size() + " branches..");
+                if (executor == null) {
+                    startSequentially(0);
+                } else {
+                    startConcurrently();
+                }
+                return arrived;
+            }
+
+            private void startSequentially(int first) {
+                for (int k = first; k < branches.size(); k++) {
+                    CompletableFuture<Integer> branchCompletion = startBranch(k);
+                    if (!branchCompletion.isDone()) {
+                        int branch = k;
+                        branchCompletion.whenComplete((join, error) -> {
+                            if (!arrived(branch, join, error)) {
+                                startSequentially(branch + 1);
+                            }
+                        });
+                        return;
+                    }
+                    Integer join = null;
+                    Throwable error = null;
+                    try {
+                        join = branchCompletion.join();
+                    } catch (Throwable t) {
+                        error = t;
+                    }
+                    if (arrived(k, join, error)) {
+                        return; // remaining branches are not needed by the join
+                    }
+                }
+            }
+
+            private void startConcurrently() {
+                for (int k = 0; k < branches.size(); k++) {
+                    int branch = k;
+                    FutureTask<Void> task = new FutureTask<>(() -> startBranch(branch), null);
+                    synchronized (this) {
+                        if (finished) {
+                            return;
+                        }
+                        tasks.add(task);
+                    }
+                    branches.get(k).completion.whenComplete((join, error) -> arrived(branch, join, error));
+                    executor.execute(task);
+                }
+            }
+
+            private CompletableFuture<Integer> startBranch(int k) {
+                int successor = successors.get(k);
+                if (plan.isJoin(successor)) {
+                    branches.get(k).completion.complete(successor); // arrived at the join without executing any node
+                    return branches.get(k).completion;
+                }
+                return branches.get(k).start(successor);
+            }
+
+            /**
+             * Records the completion of a branch and returns whether the fan-out is finished. Futures are
+             * completed outside the lock, so continuations never run while it is held.
+             */
+            private boolean arrived(int k, Integer join, Throwable error) {
+                synchronized (this) {
+                    if (finished) {
+                        return true;
+                    }
+                    if (error == null) {
+                        joins[k] = join;
+                        completedBranches++;
+                        if (join >= 0) {
+                            arrivalOrder.add(k);
+                        }
+                        boolean done = completedBranches == branches.size()
+                                || (join >= 0 && arrivalOrder.size() >= requiredBranches(join, branches.size()));
+                        if (!done) {
+                            return false;
+                        }
+                    }
+                    finished = true;
+                }
+                cancelPending(); // remaining branches are not needed by the join
+                if (error != null) {
+                    arrived.completeExceptionally(unwrap(error));
+                    return true;
+                }
+                try {
+                    arrived.complete(result());
+                } catch (Throwable t) {
+                    arrived.completeExceptionally(t);
+                }
+                return true;
+            }
+
+            private void cancel() {
+                synchronized (this) {
+                    if (finished) {
+                        return;
+                    }
+                    finished = true;
+                }
+                cancelPending();
+                arrived.completeExceptionally(new CancellationException("Workflow execution cancelled"));
+            }
+
+            private void cancelPending() {
+                for (int k = 0; k < branches.size(); k++) {
+                    if (joins[k] == NOT_COMPLETED) {
+                        branches.get(k).cancel();
+                        if (k < tasks.size()) {
+                            tasks.get(k).cancel(true);
+                        }
+                    }
+                }
+            }
+
+            private FanOutResult result() {
+                Node<T, ?> node = plan.node(index);
+                for (int k = 0; k < branches.size(); k++) {
+                    if (joins[k] != NOT_COMPLETED) {
+                        transitions.recordAll(branches.get(k).transitions); // only branches that completed
+                    }
+                }
+                int join = -1;
+                List<Object> outputs = new ArrayList<>(arrivalOrder.size());
+                for (int k : arrivalOrder) {
+                    if (join >= 0 && join != joins[k]) {
+                        throw new IllegalStateException("Branches of fan-out node '" + node.getName() + "' converge on different join nodes");
+                    }
+                    join = joins[k];
+                    outputs.add(branches.get(k).lastOutput);
+                }
+                if (toEnd) {
+                    log.debug("Reached END state");
+                    transitions.record(node, WorkflowStateName.END);
+                }
+                return new FanOutResult(join, join >= 0 ? outputs : null);
+            }
+        }
+    }
+
+    private int requiredBranches(int join, int branches) {
+        int required = ((JoinNode<T, ?>) plan.node(join)).getRequiredBranches();
+        return required == JoinNode.ALL_BRANCHES ? branches : Math.min(required, branches);
+    }
+
+    /**
+     * Returns the original failure wrapped by a completion or execution exception.
+     */
+    static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private record FanOutResult(int join, List<Object> outputs) {
+    }
+
+    private record Speculation(int target, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.czelabueno.jai.workflow;
+
+/**
+ * Thrown when a node exceeds its timeout or a workflow run exceeds its deadline.
+ */
+public class WorkflowTimeoutException extends IllegalStateException {
+
+    /**
+     * Constructs a new WorkflowTimeoutException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public WorkflowTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.czelabueno.jai.workflow.cache;
+
+/**
+ * A snapshot of the statistics of a {@link ResultCache}.
+ *
+ * @param hits        the number of lookups that returned a cached result
+ * @param misses      the number of lookups that found no valid result
+ * @param evictions   the number of results evicted to keep the cache within its bounds
+ * @param expirations the number of results dropped because their time to live had elapsed
+ * @param size        the current number of cached results
+ * @param weight      the current total weight of the cached results
+ */
+public record CacheStats(long hits, long misses, long evictions, long expirations, long size, long weight) {
+
+    /**
+     * Returns the share of lookups that returned a cached result.
+     *
+     * @return the hit rate between 0 and 1, 0 if there was no lookup yet
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
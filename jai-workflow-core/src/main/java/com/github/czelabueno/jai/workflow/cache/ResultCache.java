@@ -0,0 +1,165 @@
+package com.github.czelabueno.jai.workflow.cache;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded, thread-safe cache of computed results with least-recently-used eviction and a time to live.
+ * <p>
+ * The cache holds at most {@code maxEntries} entries, or entries weighing at most {@code maxWeight} in total
+ * according to the {@code weigher}, and evicts the least recently used entries beyond that. Entries older than
+ * {@code ttl} are never returned and are dropped on access. Hits, misses and evictions are counted in
+ * {@link #stats()}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached results
+ */
+public final class ResultCache<K, V> {
+
+    private final long maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+    private long totalWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Constructs a new ResultCache. At least one of {@code maxEntries} and {@code maxWeight} must be set.
+     *
+     * @param maxEntries the maximum number of entries, optional
+     * @param maxWeight  the maximum total weight of the entries, optional
+     * @param weigher    the weight of a result, required with {@code maxWeight}. Every result weighs 1 by default
+     * @param ttl        the time an entry is kept after being stored. If null, entries never expire
+     * @throws IllegalArgumentException if no bound is set or a parameter is out of range
+     */
+    @Builder
+    public ResultCache(Long maxEntries, Long maxWeight, ToLongFunction<? super V> weigher, Duration ttl) {
+        if (maxEntries == null && maxWeight == null) {
+            throw new IllegalArgumentException("maxEntries or maxWeight must be defined");
+        }
+        if ((maxEntries != null && maxEntries <= 0) || (maxWeight != null && maxWeight <= 0)) {
+            throw new IllegalArgumentException("maxEntries and maxWeight must be greater than zero");
+        }
+        if (maxWeight != null && weigher == null) {
+            throw new IllegalArgumentException("weigher must be defined with maxWeight");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries == null ? Long.MAX_VALUE : maxEntries;
+        this.maxWeight = maxWeight == null ? Long.MAX_VALUE : maxWeight;
+        this.weigher = weigher == null ? value -> 1L : weigher;
+        this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+    }
+
+    /**
+     * Returns the result cached for the given key and marks it as recently used.
+     *
+     * @param key the key to look up
+     * @return the cached result, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Stores a result, evicting the least recently used entries if the cache is over its bounds. A result heavier
+     * than the maximum weight is not stored.
+     *
+     * @param key   the key of the result
+     * @param value the result to store
+     */
+    public synchronized void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight cannot be negative");
+        }
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        if (weight > maxWeight) {
+            return;
+        }
+        long expiresAt = ttlNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + ttlNanos;
+        entries.put(key, new Entry<>(value, weight, expiresAt));
+        totalWeight += weight;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || totalWeight > maxWeight) {
+            Entry<V> evicted = eldest.next().getValue();
+            eldest.remove();
+            totalWeight -= evicted.weight;
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the result cached for the given key, if any.
+     *
+     * @param key the key to remove
+     */
+    public synchronized void invalidate(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Removes every cached result. Statistics are kept.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Returns the number of cached results, including expired results not accessed since they expired.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the current statistics
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, expirations, entries.size(), totalWeight);
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight;
+    }
+
+    private record Entry<V>(V value, long weight, long expiresAt) {
+
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+import lombok.NonNull;
+
+import java.time.Instant;
+
+/**
+ * The progress of a workflow run saved after one of its nodes completed.
+ *
+ * @param runId     the identifier of the run
+ * @param sequence  the number of checkpoints saved by the run before this one
+ * @param nodeIndex the index, in the execution plan, of the node the run continues from
+ * @param nodeName  the name of the node the run continues from, used to detect a changed workflow
+ * @param state     the serialized state of the run
+ * @param createdAt the time the checkpoint was taken
+ */
+public record Checkpoint(@NonNull String runId,
+                         long sequence,
+                         int nodeIndex,
+                         @NonNull String nodeName,
+                         @NonNull byte[] state,
+                         @NonNull Instant createdAt) {
+}
@@ -0,0 +1,36 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+import java.util.Optional;
+
+/**
+ * Persists the progress of workflow runs so they can be resumed after a crash or a restart.
+ * <p>
+ * A workflow configured with a store saves a {@link Checkpoint} after every node of a run, and deletes the
+ * checkpoints of the run once it completes. Failed runs keep their last checkpoint and can be resumed with
+ * {@link com.github.czelabueno.jai.workflow.DefaultStateWorkflow#resume(String)}. Implementations must be
+ * thread-safe: concurrent runs save checkpoints concurrently.
+ */
+public interface CheckpointStore {
+
+    /**
+     * Saves a checkpoint, superseding the previous checkpoints of the same run.
+     *
+     * @param checkpoint the checkpoint to save
+     */
+    void save(Checkpoint checkpoint);
+
+    /**
+     * Returns the latest checkpoint of the given run.
+     *
+     * @param runId the identifier of the run
+     * @return the latest checkpoint, or empty if the run has none
+     */
+    Optional<Checkpoint> load(String runId);
+
+    /**
+     * Deletes every checkpoint of the given run.
+     *
+     * @param runId the identifier of the run
+     */
+    void delete(String runId);
+}
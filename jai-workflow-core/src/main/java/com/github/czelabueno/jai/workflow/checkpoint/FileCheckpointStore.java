@@ -0,0 +1,167 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+import lombok.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link CheckpointStore} appending the checkpoints of every run to its own file in a local directory.
+ * <p>
+ * Checkpoints are only ever appended, and every record carries a checksum, so a record torn by a crash while it
+ * was written is ignored and the run resumes from the previous one. With {@code sync} enabled (the default),
+ * every checkpoint is forced to the storage device before the run continues. The file of a run is deleted once
+ * the run completes. The checkpoints of a run are saved one after the other, so files are never written
+ * concurrently.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    private static final int MAGIC = 0x4A414943; // "JAIC"
+    private static final String EXTENSION = ".ckpt";
+    private static final Pattern RUN_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final Path directory;
+    private final boolean sync;
+
+    /**
+     * Constructs a new FileCheckpointStore syncing every checkpoint to the storage device.
+     *
+     * @param directory the directory of the checkpoint files, created if needed
+     */
+    public FileCheckpointStore(Path directory) {
+        this(directory, true);
+    }
+
+    /**
+     * Constructs a new FileCheckpointStore.
+     *
+     * @param directory the directory of the checkpoint files, created if needed
+     * @param sync      whether every checkpoint is forced to the storage device before the run continues
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public FileCheckpointStore(@NonNull Path directory, boolean sync) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create checkpoint directory " + directory, e);
+        }
+        this.directory = directory;
+        this.sync = sync;
+    }
+
+    @Override
+    public void save(Checkpoint checkpoint) {
+        Path file = file(checkpoint.runId());
+        byte[] payload = encode(checkpoint);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        try (FileOutputStream stream = new FileOutputStream(file.toFile(), true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, payload.length + 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeLong(crc.getValue());
+            out.flush();
+            if (sync) {
+                stream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save checkpoint of run '" + checkpoint.runId() + "'", e);
+        }
+    }
+
+    @Override
+    public Optional<Checkpoint> load(String runId) {
+        Path file = file(runId);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load checkpoint of run '" + runId + "'", e);
+        }
+        Checkpoint latest = null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            while (true) {
+                if (in.readInt() != MAGIC) {
+                    break; // corrupted record
+                }
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    break; // torn record
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if (in.readLong() != crc.getValue()) {
+                    break; // torn record
+                }
+                latest = decode(runId, payload);
+            }
+        } catch (EOFException e) {
+            // end of the file, or a record torn while its header was written
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load checkpoint of run '" + runId + "'", e);
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    @Override
+    public void delete(String runId) {
+        try {
+            Files.deleteIfExists(file(runId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete checkpoints of run '" + runId + "'", e);
+        }
+    }
+
+    private Path file(String runId) {
+        if (runId == null || !RUN_ID.matcher(runId).matches()) {
+            throw new IllegalArgumentException("Run id must only contain letters, digits, '.', '_' or '-': " + runId);
+        }
+        return directory.resolve(runId + EXTENSION);
+    }
+
+    private static byte[] encode(Checkpoint checkpoint) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(checkpoint.state().length + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(checkpoint.sequence());
+            out.writeInt(checkpoint.nodeIndex());
+            out.writeUTF(checkpoint.nodeName());
+            out.writeLong(checkpoint.createdAt().getEpochSecond());
+            out.writeInt(checkpoint.createdAt().getNano());
+            out.writeInt(checkpoint.state().length);
+            out.write(checkpoint.state());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by in-memory streams
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Checkpoint decode(String runId, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = in.readLong();
+        int nodeIndex = in.readInt();
+        String nodeName = in.readUTF();
+        Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        byte[] state = new byte[in.readInt()];
+        in.readFully(state);
+        return new Checkpoint(runId, sequence, nodeIndex, nodeName, state, createdAt);
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link CheckpointStore} keeping the latest checkpoint of every run in memory.
+ * <p>
+ * Checkpoints do not survive the JVM, so this store only lets runs that failed be resumed by the same process,
+ * and suits tests.
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty InMemoryCheckpointStore.
+     */
+    public InMemoryCheckpointStore() {
+    }
+
+    @Override
+    public void save(Checkpoint checkpoint) {
+        checkpoints.put(checkpoint.runId(), checkpoint);
+    }
+
+    @Override
+    public Optional<Checkpoint> load(String runId) {
+        return Optional.ofNullable(checkpoints.get(runId));
+    }
+
+    @Override
+    public void delete(String runId) {
+        checkpoints.remove(runId);
+    }
+
+    /**
+     * Returns the number of runs with a checkpoint.
+     *
+     * @return the number of checkpointed runs
+     */
+    public int size() {
+        return checkpoints.size();
+    }
+}
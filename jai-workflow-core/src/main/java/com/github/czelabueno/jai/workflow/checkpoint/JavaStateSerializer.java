@@ -0,0 +1,39 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A {@link StateSerializer} based on Java serialization.
+ *
+ * @param <T> the type of the stateful bean used in the workflow, must be {@link java.io.Serializable}
+ */
+final class JavaStateSerializer<T> implements StateSerializer<T> {
+
+    @Override
+    public byte[] serialize(T state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize workflow state", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize workflow state", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Failed to deserialize workflow state", e);
+        }
+    }
+}
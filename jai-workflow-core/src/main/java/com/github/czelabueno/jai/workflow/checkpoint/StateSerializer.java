@@ -0,0 +1,38 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+/**
+ * Converts the state of a workflow run to bytes and back, so it can be saved in a {@link CheckpointStore}.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+public interface StateSerializer<T> {
+
+    /**
+     * Serializes the given state.
+     *
+     * @param state the state to serialize
+     * @return the serialized state
+     */
+    byte[] serialize(T state);
+
+    /**
+     * Deserializes a state serialized by {@link #serialize(Object)}.
+     *
+     * @param bytes the serialized state
+     * @return the deserialized state
+     */
+    T deserialize(byte[] bytes);
+
+    /**
+     * Returns a serializer based on Java serialization. The state and everything it references must be
+     * {@link java.io.Serializable}. The stateful beans of the jai-workflow-langchain4j module reference the
+     * {@code Flux} of their streamed generation, which is not serializable: checkpoint them with a serializer of
+     * your own, skipping that field.
+     *
+     * @param <T> the type of the stateful bean used in the workflow
+     * @return the Java serialization based serializer
+     */
+    static <T> StateSerializer<T> java() {
+        return new JavaStateSerializer<>();
+    }
+}
@@ -0,0 +1,272 @@
+package com.github.czelabueno.jai.workflow.concurrent;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of workflow executions running at once.
+ * <p>
+ * At most {@code maxInFlight} executions hold a {@link Permit} at the same time. Further requests wait in a FIFO
+ * queue of at most {@code maxQueued} entries for up to {@code queueTimeout}, and are admitted in arrival order as
+ * permits are released. When the queue is full, the {@link OverflowPolicy} decides whether the new request is
+ * rejected or the oldest waiting request is shed to make room for it. Rejected, shed and timed out requests fail
+ * with a {@link RejectedExecutionException}, so callers fail fast instead of piling up behind a saturated model.
+ * <p>
+ * Queue depth, in-flight count and wait times are available through {@link #metrics()}.
+ */
+public final class AdmissionController {
+
+    /**
+     * Decides what happens to a request arriving while the wait queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The new request is rejected.
+         */
+        REJECT,
+        /**
+         * The oldest waiting request is rejected and the new request takes its place at the end of the queue.
+         */
+        SHED_OLDEST
+    }
+
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final OverflowPolicy overflowPolicy;
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Constructs a new AdmissionController.
+     *
+     * @param maxInFlight    the maximum number of executions running at once, must be greater than zero
+     * @param maxQueued      the maximum number of requests waiting for a permit, 0 by default (no queue)
+     * @param queueTimeout   the maximum time a request waits for a permit, 30 seconds by default
+     * @param overflowPolicy the policy applied when the queue is full, {@link OverflowPolicy#REJECT} by default
+     * @throws IllegalArgumentException if a limit is out of range
+     */
+    @Builder
+    public AdmissionController(int maxInFlight, Integer maxQueued, Duration queueTimeout, OverflowPolicy overflowPolicy) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be greater than zero");
+        }
+        if (maxQueued != null && maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued cannot be negative");
+        }
+        if (queueTimeout != null && (queueTimeout.isNegative() || queueTimeout.isZero())) {
+            throw new IllegalArgumentException("queueTimeout must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued == null ? 0 : maxQueued;
+        this.queueTimeout = queueTimeout == null ? Duration.ofSeconds(30) : queueTimeout;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.REJECT : overflowPolicy;
+    }
+
+    /**
+     * Requests a permit without blocking.
+     * <p>
+     * The returned future is completed immediately if a permit is available, later when a queued request is
+     * admitted, or exceptionally with a {@link RejectedExecutionException} if the request is rejected, shed or
+     * times out. Cancelling the future withdraws a queued request.
+     *
+     * @return a future completed with the permit
+     */
+    public CompletableFuture<Permit> acquireAsync() {
+        Waiter waiter;
+        Waiter evicted = null;
+        synchronized (this) {
+            if (inFlight < maxInFlight && queue.isEmpty()) {
+                inFlight++;
+                admitted.increment();
+                return CompletableFuture.completedFuture(new Permit(0L));
+            }
+            if (queue.size() >= maxQueued) {
+                if (overflowPolicy == OverflowPolicy.REJECT || maxQueued == 0) {
+                    rejected.increment();
+                    return CompletableFuture.failedFuture(new RejectedExecutionException(
+                            "Workflow admission rejected: " + inFlight + " executions in flight and " + queue.size() + " waiting"));
+                }
+                evicted = queue.pollFirst();
+                shed.increment();
+            }
+            waiter = new Waiter(System.nanoTime());
+            queue.addLast(waiter);
+        }
+        if (evicted != null) {
+            evicted.future.completeExceptionally(new RejectedExecutionException("Workflow admission request shed by a newer request"));
+        }
+        ScheduledFuture<?> timeout = WorkflowTimer.schedule(() -> {
+            synchronized (this) {
+                if (!queue.remove(waiter)) {
+                    return; // admitted, shed or cancelled in the meantime
+                }
+                timedOut.increment();
+            }
+            waiter.future.completeExceptionally(
+                    new RejectedExecutionException("Timed out after " + queueTimeout + " waiting for workflow admission"));
+        }, queueTimeout.toNanos());
+        waiter.future.whenComplete((permit, error) -> {
+            timeout.cancel(false); // admitted, shed or cancelled requests do not keep their timeout scheduled
+            if (error != null) {
+                synchronized (this) {
+                    queue.remove(waiter); // cancelled while waiting
+                }
+            }
+        });
+        return waiter.future;
+    }
+
+    /**
+     * Requests a permit, waiting up to the queue timeout for one to be available.
+     *
+     * @return the permit, to be closed once the execution completes
+     * @throws RejectedExecutionException if the request is rejected, shed or times out
+     * @throws IllegalStateException      if the calling thread is interrupted while waiting
+     */
+    public Permit acquire() {
+        CompletableFuture<Permit> future = acquireAsync();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+                future.join().close(); // admitted while being interrupted
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for workflow admission", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException rejectedExecutionException) {
+                throw rejectedExecutionException;
+            }
+            throw new IllegalStateException("Workflow admission failed", e.getCause());
+        } catch (CancellationException e) {
+            throw new RejectedExecutionException("Workflow admission request cancelled", e);
+        }
+    }
+
+    private void release() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                next = queue.pollFirst();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            long waitNanos = System.nanoTime() - next.enqueuedAt;
+            if (next.future.complete(new Permit(waitNanos))) { // the permit is handed over, in-flight count unchanged
+                admitted.increment();
+                totalWaitNanos.add(waitNanos);
+                maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the admission metrics.
+     *
+     * @return the current metrics
+     */
+    public Metrics metrics() {
+        int currentInFlight;
+        int queueDepth;
+        synchronized (this) {
+            currentInFlight = inFlight;
+            queueDepth = queue.size();
+        }
+        long admittedCount = admitted.sum();
+        return new Metrics(
+                currentInFlight,
+                queueDepth,
+                admittedCount,
+                rejected.sum(),
+                shed.sum(),
+                timedOut.sum(),
+                Duration.ofNanos(admittedCount == 0 ? 0 : totalWaitNanos.sum() / admittedCount),
+                Duration.ofNanos(maxWaitNanos.get()));
+    }
+
+    /**
+     * A permit to run one workflow execution. Closing it admits the next waiting request, if any.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long waitNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long waitNanos) {
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * Returns the time the request waited in the queue before being admitted.
+         *
+         * @return the wait time, {@link Duration#ZERO} if admitted immediately
+         */
+        public Duration waitTime() {
+            return Duration.ofNanos(waitNanos);
+        }
+
+        /**
+         * Releases the permit. Subsequent calls have no effect.
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the admission metrics.
+     *
+     * @param inFlight        the number of executions currently holding a permit
+     * @param queueDepth      the number of requests currently waiting for a permit
+     * @param admitted        the total number of admitted requests
+     * @param rejected        the total number of requests rejected because the queue was full
+     * @param shed            the total number of waiting requests shed in favour of newer ones
+     * @param timedOut        the total number of requests that timed out while waiting
+     * @param meanWaitTime    the mean time admitted requests waited for a permit
+     * @param maxWaitTime     the longest time an admitted request waited for a permit
+     */
+    public record Metrics(int inFlight,
+                          int queueDepth,
+                          long admitted,
+                          long rejected,
+                          long shed,
+                          long timedOut,
+                          Duration meanWaitTime,
+                          Duration maxWaitTime) {
+    }
+
+    private static final class Waiter {
+
+        private final long enqueuedAt;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+        private Waiter(long enqueuedAt) {
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
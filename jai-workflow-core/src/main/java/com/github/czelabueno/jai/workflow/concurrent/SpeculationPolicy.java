@@ -0,0 +1,49 @@
+package com.github.czelabueno.jai.workflow.concurrent;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Decides when a workflow starts a {@link com.github.czelabueno.jai.workflow.node.SpeculativeNode} before the
+ * {@link com.github.czelabueno.jai.workflow.node.Conditional} selecting it is evaluated.
+ * <p>
+ * The workflow counts the nodes selected by every conditional across runs. A node is speculated once its
+ * conditional was evaluated at least {@code minSamples} times and selected it in at least {@code minBranchRatio}
+ * of them, so a wrong guess only costs discarded work on a path that is rarely taken.
+ */
+@Getter
+public final class SpeculationPolicy {
+
+    private final int minSamples;
+    private final double minBranchRatio;
+
+    /**
+     * Constructs a new SpeculationPolicy.
+     *
+     * @param minSamples     the number of evaluations of a conditional before its branches are speculated,
+     *                       20 by default
+     * @param minBranchRatio the minimum share of evaluations selecting a node for it to be speculated, greater than
+     *                       0.5 so that a single node qualifies, 0.8 by default
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    @Builder
+    public SpeculationPolicy(Integer minSamples, Double minBranchRatio) {
+        this.minSamples = minSamples == null ? 20 : minSamples;
+        this.minBranchRatio = minBranchRatio == null ? 0.8 : minBranchRatio;
+        if (this.minSamples <= 0) {
+            throw new IllegalArgumentException("minSamples must be greater than zero");
+        }
+        if (this.minBranchRatio <= 0.5 || this.minBranchRatio > 1.0) {
+            throw new IllegalArgumentException("minBranchRatio must be greater than 0.5 and not greater than 1");
+        }
+    }
+
+    /**
+     * Creates a policy with the default thresholds.
+     *
+     * @return a new SpeculationPolicy instance
+     */
+    public static SpeculationPolicy defaults() {
+        return SpeculationPolicy.builder().build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.czelabueno.jai.workflow.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the executors used by workflows running in virtual-thread mode.
+ * <p>
+ * This is the Java 17 implementation: virtual threads are not available, so it falls back to an unbounded
+ * pool of daemon platform threads. The multi-release JAR ships a Java 21 implementation under
+ * {@code META-INF/versions/21} that starts one virtual thread per task.
+ */
+public final class WorkflowExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowExecutors.class);
+
+    private WorkflowExecutors() {
+    }
+
+    /**
+     * Returns whether this runtime supports virtual threads.
+     *
+     * @return false, virtual threads require Java 21 or later
+     */
+    public static boolean virtualThreadsSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the shared executor that starts a new thread for every workflow run and parallel branch.
+     *
+     * @return the shared executor
+     */
+    public static ExecutorService virtualThreadExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = newFallbackExecutor();
+
+        private static ExecutorService newFallbackExecutor() {
+            log.warn("Virtual threads require Java 21 or later, falling back to platform threads");
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "jai-workflow-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.czelabueno.jai.workflow.concurrent;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timer shared by node timeouts, admission queue timeouts and hedged model calls.
+ * <p>
+ * Actions run one after the other on a single daemon thread, so they must not block: an action starting longer
+ * work hands it over to an executor. Cancelled actions are removed from the timer right away instead of piling up
+ * until their delay expires.
+ */
+public final class WorkflowTimer {
+
+    private WorkflowTimer() {
+    }
+
+    /**
+     * Schedules the given action after the given delay.
+     *
+     * @param action     the action to run, which must not block
+     * @param delayNanos the delay in nanoseconds
+     * @return the scheduled action, to be cancelled once it is not needed anymore
+     */
+    public static ScheduledFuture<?> schedule(Runnable action, long delayNanos) {
+        return Holder.EXECUTOR.schedule(action, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Holder {
+        private static final ScheduledThreadPoolExecutor EXECUTOR = newTimer();
+
+        private static ScheduledThreadPoolExecutor newTimer() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "jai-workflow-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
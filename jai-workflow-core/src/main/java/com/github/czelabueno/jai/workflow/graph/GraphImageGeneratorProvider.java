@@ -0,0 +1,20 @@
+package com.github.czelabueno.jai.workflow.graph;
+
+/**
+ * Service provider of the default {@link GraphImageGenerator}, discovered with {@link java.util.ServiceLoader}.
+ * <p>
+ * The core module renders no images by itself: image generators live in optional modules, such as
+ * {@code jai-workflow-graphviz}, that register their provider in
+ * {@code META-INF/services/com.github.czelabueno.jai.workflow.graph.GraphImageGeneratorProvider}.
+ *
+ * @see GraphImageGenerators#defaultGenerator()
+ */
+public interface GraphImageGeneratorProvider {
+
+    /**
+     * Creates a new graph image generator.
+     *
+     * @return the graph image generator
+     */
+    GraphImageGenerator create();
+}
@@ -0,0 +1,40 @@
+package com.github.czelabueno.jai.workflow.graph;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up the default {@link GraphImageGenerator} of the classpath.
+ */
+public final class GraphImageGenerators {
+
+    private GraphImageGenerators() {
+    }
+
+    /**
+     * Creates a graph image generator from the first {@link GraphImageGeneratorProvider} found on the classpath.
+     * Providers are looked up once, the first time an image generator is needed.
+     *
+     * @return a new graph image generator
+     * @throws IllegalStateException if no provider is found on the classpath
+     */
+    public static GraphImageGenerator defaultGenerator() {
+        GraphImageGeneratorProvider provider = ProviderHolder.PROVIDER;
+        if (provider == null) {
+            throw new IllegalStateException("No GraphImageGenerator found on the classpath. " +
+                    "Add the jai-workflow-graphviz module or set a GraphImageGenerator explicitly");
+        }
+        return provider.create();
+    }
+
+    // Initialized on first use only, so workflows that never render images never scan the classpath
+    private static final class ProviderHolder {
+        private static final GraphImageGeneratorProvider PROVIDER = load();
+
+        private static GraphImageGeneratorProvider load() {
+            Iterator<GraphImageGeneratorProvider> providers =
+                    ServiceLoader.load(GraphImageGeneratorProvider.class, GraphImageGenerators.class.getClassLoader()).iterator();
+            return providers.hasNext() ? providers.next() : null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.czelabueno.jai.workflow.graph;
+
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.transition.TransitionState;
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exports the graph of workflow transitions as <a href="https://graphviz.org/doc/info/lang.html">DOT</a> or
+ * <a href="https://mermaid.js.org/syntax/flowchart.html">Mermaid</a> text, written straight to a {@link Writer} or
+ * {@link OutputStream}.
+ * <p>
+ * Unlike the {@code GraphvizImageGenerator} of the jai-workflow-graphviz module, no JavaScript engine is
+ * involved: the text is rendered by the dashboard or tool displaying it. The text is computed from the given
+ * transitions on every call, every distinct edge being written once in the order it was first taken.
+ * Used as a {@link GraphImageGenerator}, the exporter writes the text to the output path.
+ */
+public final class TextGraphExporter implements GraphImageGenerator {
+
+    /**
+     * The text format of an exporter.
+     */
+    public enum Format {
+        /**
+         * The DOT language of Graphviz.
+         */
+        DOT,
+        /**
+         * The flowchart syntax of Mermaid.
+         */
+        MERMAID
+    }
+
+    private static final TextGraphExporter DOT = new TextGraphExporter(Format.DOT);
+    private static final TextGraphExporter MERMAID = new TextGraphExporter(Format.MERMAID);
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final Format format;
+
+    private TextGraphExporter(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Returns the exporter of DOT text, as rendered by Graphviz.
+     *
+     * @return the DOT exporter
+     */
+    public static TextGraphExporter dot() {
+        return DOT;
+    }
+
+    /**
+     * Returns the exporter of Mermaid flowchart text.
+     *
+     * @return the Mermaid exporter
+     */
+    public static TextGraphExporter mermaid() {
+        return MERMAID;
+    }
+
+    /**
+     * Returns the text format of this exporter.
+     *
+     * @return the text format
+     */
+    public Format format() {
+        return format;
+    }
+
+    /**
+     * Writes the graph of the given transitions to the writer. The writer is neither flushed nor closed.
+     *
+     * @param transitions the transitions to export
+     * @param writer      the writer to write the text to
+     * @throws IOException              if an I/O error occurs while writing
+     * @throws IllegalArgumentException if the transitions are null or empty
+     */
+    public void export(List<Transition> transitions, @NonNull Writer writer) throws IOException {
+        if (transitions == null || transitions.isEmpty()) {
+            throw new IllegalArgumentException("Transitions list can not be null or empty. Cannot export graph.");
+        }
+        Set<Transition> edges = new LinkedHashSet<>(transitions);
+        if (format == Format.DOT) {
+            writeDot(edges, writer);
+        } else {
+            writeMermaid(edges, writer);
+        }
+    }
+
+    /**
+     * Writes the graph of the given transitions to the output stream, encoded in UTF-8. The stream is flushed but
+     * not closed.
+     *
+     * @param transitions the transitions to export
+     * @param output      the stream to write the text to
+     * @throws IOException              if an I/O error occurs while writing
+     * @throws IllegalArgumentException if the transitions are null or empty
+     */
+    public void export(List<Transition> transitions, @NonNull OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        export(transitions, writer);
+        writer.flush();
+    }
+
+    /**
+     * Returns the graph of the given transitions as text.
+     *
+     * @param transitions the transitions to export
+     * @return the exported text
+     * @throws IllegalArgumentException if the transitions are null or empty
+     */
+    public String export(List<Transition> transitions) {
+        StringWriter writer = new StringWriter();
+        try {
+            export(transitions, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringWriter
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the graph of the given transitions to the specified output path.
+     *
+     * @param transitions the transitions to export
+     * @param outputPath  the path of the text file
+     * @throws IOException              if an I/O error occurs while writing
+     * @throws IllegalArgumentException if the output path is null or empty, or the transitions are null or empty
+     */
+    @Override
+    public void generateImage(List<Transition> transitions, String outputPath) throws IOException {
+        if (outputPath == null || outputPath.isEmpty()) {
+            throw new IllegalArgumentException("Output path can not be null or empty. Cannot generate image.");
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outputPath), StandardCharsets.UTF_8)) {
+            export(transitions, writer);
+        }
+    }
+
+    private static void writeDot(Set<Transition> edges, Writer writer) throws IOException {
+        writer.append("digraph workflow {").append(NEW_LINE);
+        writer.append(" node [style=filled,fillcolor=lightgrey]").append(NEW_LINE);
+        writer.append(" rankdir=LR;").append(NEW_LINE);
+        writer.append(" beautify=true").append(NEW_LINE);
+        writer.append(NEW_LINE);
+        for (Transition edge : edges) {
+            writer.append(" ").append(dotId(edge.from())).append(" -> ").append(dotId(edge.to())).append(";").append(NEW_LINE);
+            if (edge.to() == WorkflowStateName.END) {
+                writer.append(NEW_LINE);
+            }
+        }
+        writer.append(" ").append(dotId(WorkflowStateName.START)).append(" [shape=Mdiamond, fillcolor=\"orange\"];").append(NEW_LINE);
+        writer.append(" ").append(dotId(WorkflowStateName.END)).append(" [shape=Msquare, fillcolor=\"lightgreen\"];").append(NEW_LINE);
+        writer.append("}");
+    }
+
+    private static void writeMermaid(Set<Transition> edges, Writer writer) throws IOException {
+        writer.append("flowchart LR").append(NEW_LINE);
+        Set<TransitionState> declared = new LinkedHashSet<>();
+        for (Transition edge : edges) {
+            writer.append("    ").append(mermaidNode(edge.from(), declared))
+                    .append(" --> ").append(mermaidNode(edge.to(), declared)).append(NEW_LINE);
+        }
+    }
+
+    private static String dotId(TransitionState state) {
+        return state instanceof Node<?, ?> node ? sanitizeNodeName(node.getName()) : state.toString().toLowerCase();
+    }
+
+    /**
+     * Returns the Mermaid id of the state, with its label the first time the state is written.
+     */
+    private static String mermaidNode(TransitionState state, Set<TransitionState> declared) {
+        boolean first = declared.add(state);
+        if (state instanceof Node<?, ?> node) {
+            String id = sanitizeNodeName(node.getName());
+            return first ? id + "[\"" + node.getName().replace("\"", "#quot;") + "\"]" : id;
+        }
+        String id = "__" + state.toString().toLowerCase() + "__"; // "end" is a reserved word in Mermaid
+        return first ? id + "([" + state + "])" : id;
+    }
+
+    /**
+     * Sanitizes the node name by removing special characters and converting it to camel case.
+     *
+     * @param nodeName the node name to sanitize
+     * @return the sanitized node name
+     */
+    private static String sanitizeNodeName(String nodeName) {
+        // Remove special characters
+        String sanitized = nodeName.replaceAll("[^a-zA-Z0-9 ]", "");
+
+        // Convert to camel case
+        StringBuilder camelCase = new StringBuilder();
+        for (String word : sanitized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            camelCase.append(word.substring(0, 1).toUpperCase());
+            if (word.length() > 1) {
+                camelCase.append(word.substring(1).toLowerCase());
+            }
+        }
+        return camelCase.toString();
+    }
+}
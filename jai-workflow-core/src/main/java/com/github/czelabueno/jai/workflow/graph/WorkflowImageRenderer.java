@@ -0,0 +1,178 @@
+package com.github.czelabueno.jai.workflow.graph;
+
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.transition.TransitionState;
+import lombok.Builder;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders workflow images in the background, off the request path.
+ * <p>
+ * Images are identified by the topology of the transitions they are rendered from: the set of distinct edges taken,
+ * regardless of their order or repetitions. A topology is rendered once; its image is kept in a small LRU cache of
+ * {@code cacheSize} images and written from there to every output path requesting it. An output path that already
+ * holds the image of the requested topology is not written again, and concurrent requests for the same topology
+ * share a single rendering.
+ */
+public final class WorkflowImageRenderer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowImageRenderer.class);
+
+    private final GraphImageGenerator generator;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Map<String, CompletableFuture<byte[]>> images;
+    private final Map<Path, String> written = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WorkflowImageRenderer.
+     *
+     * @param generator the generator rendering the images
+     * @param executor  the executor rendering and writing the images. If null, a single daemon thread owned by the
+     *                  renderer is used
+     * @param cacheSize the maximum number of rendered images kept in memory, 16 by default
+     * @throws IllegalArgumentException if cacheSize is not greater than zero
+     */
+    @Builder
+    public WorkflowImageRenderer(@NonNull GraphImageGenerator generator, Executor executor, Integer cacheSize) {
+        if (cacheSize != null && cacheSize <= 0) {
+            throw new IllegalArgumentException("cacheSize must be greater than zero");
+        }
+        int maxImages = cacheSize == null ? 16 : cacheSize;
+        this.generator = generator;
+        this.ownedExecutor = executor == null ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jai-workflow-image-renderer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.executor = executor != null ? executor : ownedExecutor;
+        this.images = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<byte[]>> eldest) {
+                return size() > maxImages;
+            }
+        };
+    }
+
+    /**
+     * Renders the image of the given transitions to the given path in the background.
+     *
+     * @param transitions the transitions to render
+     * @param outputPath  the path to write the image to
+     * @return a future completed with the output path once it holds the image, immediately if it already does
+     * @throws IllegalArgumentException if the transitions are empty
+     */
+    public CompletableFuture<Path> render(@NonNull List<Transition> transitions, @NonNull Path outputPath) {
+        if (transitions.isEmpty()) {
+            throw new IllegalArgumentException("Transitions list can not be empty. Cannot render image.");
+        }
+        String topology = topology(transitions);
+        Path path = outputPath.toAbsolutePath();
+        if (topology.equals(written.get(path)) && Files.exists(path)) {
+            return CompletableFuture.completedFuture(path);
+        }
+        List<Transition> snapshot = List.copyOf(transitions);
+        CompletableFuture<byte[]> image;
+        synchronized (images) {
+            image = images.get(topology);
+            if (image == null || image.isCompletedExceptionally()) { // failed renderings are retried
+                image = CompletableFuture.supplyAsync(() -> renderImage(snapshot), executor);
+                images.put(topology, image);
+            }
+        }
+        return image.thenApplyAsync(bytes -> {
+            if (!topology.equals(written.get(path)) || !Files.exists(path)) {
+                try {
+                    Files.write(path, bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write workflow image to " + path, e);
+                }
+                written.put(path, topology);
+                log.debug("Workflow image saved to: " + path);
+            }
+            return path;
+        }, executor);
+    }
+
+    /**
+     * Returns the number of rendered images kept in memory.
+     *
+     * @return the number of cached images
+     */
+    public int cachedImages() {
+        synchronized (images) {
+            return images.size();
+        }
+    }
+
+    /**
+     * Stops the thread owned by the renderer, if any. Pending renderings are abandoned.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private byte[] renderImage(List<Transition> transitions) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("jai-workflow-image", ".svg");
+            generator.generateImage(transitions, file.toString());
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render workflow image", e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.debug("Failed to delete temporary workflow image " + file);
+                }
+            }
+        }
+    }
+
+    private static String topology(List<Transition> transitions) {
+        TreeSet<String> edges = new TreeSet<>();
+        for (Transition transition : transitions) {
+            edges.add(name(transition.from()) + " -> " + name(transition.to()));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String edge : edges) {
+                digest.update(edge.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String name(TransitionState state) {
+        return state instanceof Node<?, ?> node ? "node:" + node.getName() : "state:" + state;
+    }
+}
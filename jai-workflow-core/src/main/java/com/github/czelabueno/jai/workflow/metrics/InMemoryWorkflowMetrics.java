@@ -0,0 +1,203 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the metrics of workflow runs in memory: latency histograms, counters and in-flight gauges of the runs
+ * and of every node, looked up by node name. The metrics can be shared by several workflows, and exported with
+ * {@link PrometheusTextFormat}.
+ * <pre>{@code
+ * InMemoryWorkflowMetrics metrics = new InMemoryWorkflowMetrics();
+ * DefaultStateWorkflow<MyState> workflow = DefaultStateWorkflow.<MyState>builder()
+ *         .addNodes(nodes)
+ *         .metrics(metrics)
+ *         .build();
+ * ...
+ * Duration p99 = metrics.node("retrieve").latency().percentile(99);
+ * }</pre>
+ */
+public final class InMemoryWorkflowMetrics implements WorkflowMetrics {
+
+    private final LatencyHistogram runLatency = new LatencyHistogram();
+    private final LongAdder runErrors = new LongAdder();
+    private final AtomicInteger runsInFlight = new AtomicInteger();
+    private final Map<String, NodeMetrics> nodes = new ConcurrentHashMap<>();
+
+    @Override
+    public void onRunStarted() {
+        runsInFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onRunCompleted(long nanos, Throwable error) {
+        runsInFlight.decrementAndGet();
+        runLatency.record(nanos);
+        if (error != null) {
+            runErrors.increment();
+        }
+    }
+
+    @Override
+    public void onNodeStarted(String node) {
+        metrics(node).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onNodeCompleted(String node, long nanos) {
+        NodeMetrics metrics = metrics(node);
+        metrics.inFlight.decrementAndGet();
+        metrics.latency.record(nanos);
+    }
+
+    @Override
+    public void onNodeFailed(String node, long nanos, Throwable error) {
+        NodeMetrics metrics = metrics(node);
+        metrics.inFlight.decrementAndGet();
+        metrics.latency.record(nanos);
+        metrics.errors.increment();
+    }
+
+    @Override
+    public void onConditionalEvaluated(String node, long nanos) {
+        metrics(node).conditionalLatency.record(nanos);
+    }
+
+    @Override
+    public void onLoopIteration(String node) {
+        metrics(node).loopIterations.increment();
+    }
+
+    /**
+     * Returns the latency histogram of the completed runs.
+     *
+     * @return the latency histogram of the runs
+     */
+    public LatencyHistogram runLatency() {
+        return runLatency;
+    }
+
+    /**
+     * Returns the number of completed runs.
+     *
+     * @return the number of completed runs
+     */
+    public long runs() {
+        return runLatency.count();
+    }
+
+    /**
+     * Returns the number of failed runs.
+     *
+     * @return the number of failed runs
+     */
+    public long runErrors() {
+        return runErrors.sum();
+    }
+
+    /**
+     * Returns the number of runs in progress.
+     *
+     * @return the number of runs in progress
+     */
+    public int runsInFlight() {
+        return runsInFlight.get();
+    }
+
+    /**
+     * Returns the names of the nodes with metrics.
+     *
+     * @return an unmodifiable view of the names of the nodes with metrics
+     */
+    public Set<String> nodeNames() {
+        return Collections.unmodifiableSet(nodes.keySet());
+    }
+
+    /**
+     * Returns the metrics of the given node.
+     *
+     * @param node the name of the node
+     * @return the metrics of the node, or null if the node has not been executed
+     */
+    public NodeMetrics node(String node) {
+        return nodes.get(node);
+    }
+
+    private NodeMetrics metrics(String node) {
+        NodeMetrics metrics = nodes.get(node);
+        return metrics != null ? metrics : nodes.computeIfAbsent(node, name -> new NodeMetrics());
+    }
+
+    /**
+     * The metrics of a node, shared by every execution of the nodes with its name.
+     */
+    public static final class NodeMetrics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram conditionalLatency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder loopIterations = new LongAdder();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private NodeMetrics() {
+        }
+
+        /**
+         * Returns the latency histogram of the executions of the node, failed ones included.
+         *
+         * @return the latency histogram of the node
+         */
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        /**
+         * Returns the latency histogram of the evaluations of the conditional edge following the node.
+         *
+         * @return the latency histogram of the conditional, empty if the node has no conditional edge
+         */
+        public LatencyHistogram conditionalLatency() {
+            return conditionalLatency;
+        }
+
+        /**
+         * Returns the number of completed executions of the node, failed ones included.
+         *
+         * @return the number of executions
+         */
+        public long executions() {
+            return latency.count();
+        }
+
+        /**
+         * Returns the number of failed executions of the node.
+         *
+         * @return the number of failed executions
+         */
+        public long errors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the number of times the node was executed again in the same run.
+         *
+         * @return the number of loop iterations
+         */
+        public long loopIterations() {
+            return loopIterations.sum();
+        }
+
+        /**
+         * Returns the number of executions of the node in progress.
+         *
+         * @return the number of executions in progress
+         */
+        public int inFlight() {
+            return inFlight.get();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, in the style of
+ * <a href="https://github.com/HdrHistogram/HdrHistogram">HdrHistogram</a>.
+ * <p>
+ * Latencies below 128 ns are counted exactly. Above, every power of two is split into 64 linear buckets, so a
+ * recorded latency is known within 1.6% of its value whatever its magnitude. Latencies are tracked up to about
+ * 73 minutes, longer ones are counted in the last bucket. The histogram has a fixed footprint of about 19 KiB,
+ * and recording a latency never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = SUB_BUCKETS << 1;
+    private static final long MAX_TRACKABLE = (1L << 42) - 1;
+    private static final int BUCKETS = index(MAX_TRACKABLE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds, negative latencies are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(index(Math.min(value, MAX_TRACKABLE)));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded latencies.
+     *
+     * @return the sum of the recorded latencies
+     */
+    public Duration total() {
+        return Duration.ofNanos(totalNanos.sum());
+    }
+
+    /**
+     * Returns the largest recorded latency.
+     *
+     * @return the largest recorded latency, zero if none is recorded
+     */
+    public Duration max() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    /**
+     * Returns the latency at the given percentile: the highest latency of the bucket holding the percentile,
+     * capped by the largest recorded latency.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency at the percentile, zero if no latency is recorded
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    public Duration percentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            recorded += snapshot[i];
+        }
+        if (recorded == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(highestEquivalentValue(i), maxNanos.get()));
+            }
+        }
+        return max();
+    }
+
+    private static int index(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+/**
+ * The metrics recording nothing, used by workflows without metrics.
+ */
+final class NoopWorkflowMetrics implements WorkflowMetrics {
+
+    static final NoopWorkflowMetrics INSTANCE = new NoopWorkflowMetrics();
+
+    private NoopWorkflowMetrics() {
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exports {@link InMemoryWorkflowMetrics} in the
+ * <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text exposition format</a>, to
+ * be served by any HTTP endpoint scraped by Prometheus.
+ * <p>
+ * Latencies are exported as summaries in seconds, with their 50th, 90th and 99th percentiles. Node metrics carry
+ * the name of the node in a {@code node} label:
+ * <pre>
+ * jai_workflow_node_duration_seconds{node="retrieve",quantile="0.99"} 0.125
+ * jai_workflow_node_errors_total{node="retrieve"} 2
+ * </pre>
+ */
+public final class PrometheusTextFormat {
+
+    /**
+     * The content type of the exported text.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final String PREFIX = "jai_workflow_";
+
+    private PrometheusTextFormat() {
+    }
+
+    /**
+     * Returns the given metrics in the Prometheus text format.
+     *
+     * @param metrics the metrics to export
+     * @return the exported metrics
+     */
+    public static String scrape(InMemoryWorkflowMetrics metrics) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(metrics, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by a StringWriter
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the given metrics in the Prometheus text format.
+     *
+     * @param metrics the metrics to export
+     * @param writer  the writer to write the metrics to, not closed
+     * @throws IOException if the metrics cannot be written
+     */
+    public static void write(InMemoryWorkflowMetrics metrics, Writer writer) throws IOException {
+        header(writer, "run_duration_seconds", "summary", "Duration of the workflow runs");
+        summary(writer, "run_duration_seconds", null, metrics.runLatency());
+        header(writer, "run_errors_total", "counter", "Number of failed workflow runs");
+        sample(writer, "run_errors_total", null, Long.toString(metrics.runErrors()));
+        header(writer, "runs_in_flight", "gauge", "Number of workflow runs in progress");
+        sample(writer, "runs_in_flight", null, Integer.toString(metrics.runsInFlight()));
+
+        List<String> nodes = new ArrayList<>(metrics.nodeNames());
+        Collections.sort(nodes);
+        header(writer, "node_duration_seconds", "summary", "Duration of the node executions");
+        for (String node : nodes) {
+            summary(writer, "node_duration_seconds", node, metrics.node(node).latency());
+        }
+        header(writer, "node_errors_total", "counter", "Number of failed node executions");
+        for (String node : nodes) {
+            sample(writer, "node_errors_total", node, Long.toString(metrics.node(node).errors()));
+        }
+        header(writer, "node_loop_iterations_total", "counter", "Number of node executions repeated in the same run");
+        for (String node : nodes) {
+            sample(writer, "node_loop_iterations_total", node, Long.toString(metrics.node(node).loopIterations()));
+        }
+        header(writer, "node_in_flight", "gauge", "Number of node executions in progress");
+        for (String node : nodes) {
+            sample(writer, "node_in_flight", node, Integer.toString(metrics.node(node).inFlight()));
+        }
+        header(writer, "conditional_duration_seconds", "summary", "Duration of the evaluations of the conditional edge following a node");
+        for (String node : nodes) {
+            LatencyHistogram conditional = metrics.node(node).conditionalLatency();
+            if (conditional.count() > 0) {
+                summary(writer, "conditional_duration_seconds", node, conditional);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void header(Writer writer, String name, String type, String help) throws IOException {
+        writer.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        writer.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void summary(Writer writer, String name, String node, LatencyHistogram histogram) throws IOException {
+        for (double quantile : QUANTILES) {
+            writer.append(PREFIX).append(name).append('{');
+            if (node != null) {
+                writer.append("node=\"").append(escape(node)).append("\",");
+            }
+            writer.append("quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                    .append(seconds(histogram.percentile(quantile * 100))).append('\n');
+        }
+        sample(writer, name + "_sum", node, seconds(histogram.total()));
+        sample(writer, name + "_count", node, Long.toString(histogram.count()));
+    }
+
+    private static void sample(Writer writer, String name, String node, String value) throws IOException {
+        writer.append(PREFIX).append(name);
+        if (node != null) {
+            writer.append("{node=\"").append(escape(node)).append("\"}");
+        }
+        writer.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(Duration duration) {
+        return Double.toString(duration.toNanos() / 1e9);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+/**
+ * Service provider interface of the metrics of workflow runs, invoked by the workflow around every run, every
+ * node execution and every conditional evaluation.
+ * <p>
+ * Callbacks are invoked on the threads running the workflow, concurrently for concurrent runs and branches, so
+ * implementations must be thread-safe and should not block. Latencies are given in nanoseconds so recording them
+ * does not allocate. Nodes and conditionals are identified by node name: a conditional by the name of the node
+ * it follows.
+ *
+ * @see InMemoryWorkflowMetrics
+ */
+public interface WorkflowMetrics {
+
+    /**
+     * Returns the metrics recording nothing. Workflows using them skip the timing of nodes and conditionals.
+     *
+     * @return the no-op metrics
+     */
+    static WorkflowMetrics noop() {
+        return NoopWorkflowMetrics.INSTANCE;
+    }
+
+    /**
+     * Called when a run starts.
+     */
+    default void onRunStarted() {
+    }
+
+    /**
+     * Called when a run completes, successfully or not.
+     *
+     * @param nanos the duration of the run in nanoseconds
+     * @param error the error failing the run, or null if it succeeded
+     */
+    default void onRunCompleted(long nanos, Throwable error) {
+    }
+
+    /**
+     * Called before a node is executed.
+     *
+     * @param node the name of the node
+     */
+    default void onNodeStarted(String node) {
+    }
+
+    /**
+     * Called after a node is executed successfully. The latency of an asynchronous node runs until its completion
+     * stage completes.
+     *
+     * @param node  the name of the node
+     * @param nanos the latency of the node in nanoseconds
+     */
+    default void onNodeCompleted(String node, long nanos) {
+    }
+
+    /**
+     * Called after the execution of a node failed.
+     *
+     * @param node  the name of the node
+     * @param nanos the latency of the node until it failed, in nanoseconds
+     * @param error the error failing the node
+     */
+    default void onNodeFailed(String node, long nanos, Throwable error) {
+    }
+
+    /**
+     * Called after the conditional edge following a node is evaluated.
+     *
+     * @param node  the name of the node the conditional follows
+     * @param nanos the latency of the evaluation in nanoseconds
+     */
+    default void onConditionalEvaluated(String node, long nanos) {
+    }
+
+    /**
+     * Called when a node is executed again in the same run, by a loop of the graph.
+     *
+     * @param node the name of the node
+     */
+    default void onLoopIteration(String node) {
+    }
+}
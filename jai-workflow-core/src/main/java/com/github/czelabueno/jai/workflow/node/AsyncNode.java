@@ -0,0 +1,43 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import lombok.NonNull;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Represents a node whose function starts a non-blocking operation and returns a {@link CompletionStage}.
+ * <p>
+ * The workflow does not park a thread while the stage is pending: the run continues from this node once the
+ * stage completes, using its result as the output of the node. Blocking runs simply wait for the stage.
+ *
+ * @param <T> the type of the input to the function. Normally a stateful bean POJO defined by the user.
+ * @param <R> the type of the result of the completion stage returned by the function.
+ */
+public class AsyncNode<T, R> extends Node<T, CompletionStage<R>> {
+
+    /**
+     * Constructs an AsyncNode with the specified name and function.
+     *
+     * @param name     the name of the node
+     * @param function the function starting the asynchronous operation
+     * @throws IllegalArgumentException if the node name is empty
+     * @throws NullPointerException     if the name or function is null
+     */
+    public AsyncNode(@NonNull String name, @NonNull Function<T, CompletionStage<R>> function) {
+        super(name, function);
+    }
+
+    /**
+     * Creates a new AsyncNode with the specified name and function.
+     *
+     * @param name     the name of the node
+     * @param function the function starting the asynchronous operation
+     * @param <T>      the type of the input to the function
+     * @param <R>      the type of the result of the completion stage
+     * @return a new AsyncNode instance
+     */
+    public static <T, R> AsyncNode<T, R> fromAsync(String name, Function<T, CompletionStage<R>> function) {
+        return new AsyncNode<>(name, function);
+    }
+}
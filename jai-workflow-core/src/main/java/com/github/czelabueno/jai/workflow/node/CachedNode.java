@@ -0,0 +1,102 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import com.github.czelabueno.jai.workflow.cache.CacheStats;
+import com.github.czelabueno.jai.workflow.cache.ResultCache;
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A node that memoizes the outputs of another node.
+ * <p>
+ * Before the wrapped node runs, the key extractor computes a key from the state, for example the question. On a
+ * cache hit the wrapped node is skipped and the cached output is written back into the state with
+ * {@code writeBack}, so the following nodes see the same state as after a live execution. On a miss the wrapped node
+ * runs and its output is cached. States without key (a null key) and null outputs bypass the cache. Concurrent
+ * misses on the same key may each run the wrapped node.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * Node<MyStatefulBean, List<String>> cachedRetrieve = CachedNode.<MyStatefulBean, List<String>>builder()
+ *         .node(retrieve)
+ *         .keyExtractor(MyStatefulBean::getQuestion)
+ *         .writeBack(MyStatefulBean::setDocuments)
+ *         .cache(ResultCache.<Object, List<String>>builder().maxEntries(1_000L).ttl(Duration.ofMinutes(10)).build())
+ *         .build();
+ * }</pre>
+ *
+ * @param <T> the type of the input to the function. Normally a stateful bean POJO defined by the user.
+ * @param <R> the type of the output from the function.
+ */
+public class CachedNode<T, R> extends Node<T, R> {
+
+    private final Node<T, R> node;
+    private final ResultCache<Object, R> cache;
+
+    /**
+     * Constructs a CachedNode with the specified parameters. The node keeps the name of the wrapped node.
+     *
+     * @param node         the node whose outputs are cached. Async and join nodes cannot be cached
+     * @param keyExtractor the function computing the cache key from the state
+     * @param writeBack    the function writing a cached output into the state on a hit, optional if the wrapped
+     *                     node does not modify the state
+     * @param cache        the cache storing the outputs, possibly shared with other nodes using distinct keys
+     * @throws IllegalArgumentException if the node is an {@link AsyncNode} or a {@link JoinNode}
+     * @throws NullPointerException     if the node, the key extractor or the cache is null
+     */
+    @Builder
+    public CachedNode(@NonNull Node<T, R> node,
+                      @NonNull Function<T, ?> keyExtractor,
+                      BiConsumer<T, R> writeBack,
+                      @NonNull ResultCache<Object, R> cache) {
+        super(node.getName(), state -> cached(node, keyExtractor, writeBack, cache, state));
+        if (node instanceof AsyncNode || node instanceof JoinNode) {
+            throw new IllegalArgumentException("Node '" + node.getName() + "' cannot be cached: only synchronous nodes can");
+        }
+        this.node = node;
+        this.cache = cache;
+    }
+
+    private static <T, R> R cached(Node<T, R> node,
+                                   Function<T, ?> keyExtractor,
+                                   BiConsumer<T, R> writeBack,
+                                   ResultCache<Object, R> cache,
+                                   T state) {
+        Object key = keyExtractor.apply(state);
+        if (key == null) {
+            return node.execute(state);
+        }
+        R output = cache.get(key);
+        if (output != null) {
+            if (writeBack != null) {
+                writeBack.accept(state, output);
+            }
+            return output;
+        }
+        output = node.execute(state);
+        if (output != null) {
+            cache.put(key, output);
+        }
+        return output;
+    }
+
+    /**
+     * Returns the node whose outputs are cached.
+     *
+     * @return the wrapped node
+     */
+    public Node<T, R> getNode() {
+        return node;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
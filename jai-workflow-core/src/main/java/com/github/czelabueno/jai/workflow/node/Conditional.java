@@ -3,6 +3,9 @@ package com.github.czelabueno.jai.workflow.node;
 import com.github.czelabueno.jai.workflow.transition.TransitionState;
 import lombok.NonNull;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -16,6 +19,7 @@ import java.util.function.Function;
 public class Conditional<T> implements TransitionState {
 
     private final Function<T, Node<T,?>> condition;
+    private final List<Node<T,?>> targets;
 
     /**
      * Constructs a Conditional with the specified condition function.
@@ -24,7 +28,21 @@ public class Conditional<T> implements TransitionState {
      * @throws NullPointerException if the condition function is null
      */
     public Conditional(@NonNull Function<T, Node<T,?>> condition) {
+        this(condition, Collections.emptyList());
+    }
+
+    /**
+     * Constructs a Conditional with the specified condition function and the nodes it can return.
+     * <p>
+     * Declaring the targets lets the workflow validate reachability of the graph at compile time.
+     *
+     * @param condition the condition function to evaluate
+     * @param targets   the nodes the condition function can return
+     * @throws NullPointerException if the condition function or the targets are null
+     */
+    public Conditional(@NonNull Function<T, Node<T,?>> condition, @NonNull List<Node<T,?>> targets) {
         this.condition = Objects.requireNonNull(condition, "Condition function cannot be null");
+        this.targets = List.copyOf(targets);
     }
 
     /**
@@ -50,6 +68,28 @@ public class Conditional<T> implements TransitionState {
         return new Conditional<>(condition);
     }
 
+    /**
+     * Creates a new Conditional with the specified condition function and the nodes it can return.
+     *
+     * @param condition the condition function to evaluate
+     * @param targets   the nodes the condition function can return
+     * @param <T> the stateful bean as input to the condition function
+     * @return a new Conditional instance
+     */
+    @SafeVarargs
+    public static <T> Conditional<T> eval(Function<T, Node<T,?>> condition, Node<T,?>... targets) {
+        return new Conditional<>(condition, Arrays.asList(targets));
+    }
+
+    /**
+     * Returns the nodes declared as possible results of the condition function.
+     *
+     * @return an unmodifiable list of declared targets, empty if they were not declared
+     */
+    public List<Node<T,?>> getTargets() {
+        return targets;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,112 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Represents a join (barrier) node that waits for the parallel branches of a fan-out and merges their outputs.
+ * <p>
+ * A node with several outgoing node edges fans out: each successor starts an independent branch that runs
+ * until it reaches a join node. The join waits for all branches, or for the first {@code requiredBranches}
+ * of them, and then invokes its merge function with the state and the outputs of the last node executed on
+ * every arrived branch, in arrival order. Branches that have not arrived by then are cancelled.
+ * <p>
+ * This class extends {@link Node}; executing it as a regular node merges an empty list of branch outputs.
+ *
+ * @param <T> the stateful bean POJO defined by the user. It is used to store the state of the workflow.
+ * @param <R> the type of the output from the merge function
+ */
+public class JoinNode<T, R> extends Node<T, R> {
+
+    /**
+     * Value of {@link #getRequiredBranches()} meaning that the join waits for all branches.
+     */
+    public static final int ALL_BRANCHES = 0;
+
+    private final int requiredBranches;
+    private final BiFunction<T, List<Object>, R> merge;
+
+    /**
+     * Constructs a JoinNode with the specified name, number of required branches and merge function.
+     *
+     * @param name             the name of the node
+     * @param requiredBranches the number of branches to wait for, or {@link #ALL_BRANCHES}
+     * @param merge            the function merging the branch outputs into the state
+     * @throws IllegalArgumentException if the node name is empty or the number of required branches is negative
+     * @throws NullPointerException     if the name or merge function is null
+     */
+    public JoinNode(@NonNull String name, int requiredBranches, @NonNull BiFunction<T, List<Object>, R> merge) {
+        super(name, state -> merge.apply(state, Collections.emptyList()));
+        if (requiredBranches < 0) {
+            throw new IllegalArgumentException("Required branches cannot be negative");
+        }
+        this.requiredBranches = requiredBranches;
+        this.merge = merge;
+    }
+
+    /**
+     * Merges the outputs of the arrived branches into the given state.
+     *
+     * @param input          the state of the workflow
+     * @param branchOutputs  the outputs of the last node executed on every arrived branch
+     * @return the output from the merge function
+     * @throws IllegalArgumentException if the input is null
+     */
+    public R join(T input, @NonNull List<Object> branchOutputs) {
+        if (input == null) {
+            throw new IllegalArgumentException("Function input cannot be null");
+        }
+        return merge.apply(input, branchOutputs);
+    }
+
+    /**
+     * Returns the number of branches this join waits for.
+     *
+     * @return the number of required branches, or {@link #ALL_BRANCHES}
+     */
+    public int getRequiredBranches() {
+        return requiredBranches;
+    }
+
+    /**
+     * Creates a new JoinNode that waits for all branches and merges their outputs with the specified function.
+     *
+     * @param name  the name of the node
+     * @param merge the function merging the branch outputs into the state
+     * @param <T>   the type of the stateful bean
+     * @param <R>   the type of the output from the merge function
+     * @return a new JoinNode instance
+     */
+    public static <T, R> JoinNode<T, R> from(String name, BiFunction<T, List<Object>, R> merge) {
+        return new JoinNode<>(name, ALL_BRANCHES, merge);
+    }
+
+    /**
+     * Creates a new JoinNode that waits for the first {@code requiredBranches} branches and merges their outputs
+     * with the specified function.
+     *
+     * @param name             the name of the node
+     * @param requiredBranches the number of branches to wait for
+     * @param merge            the function merging the branch outputs into the state
+     * @param <T>              the type of the stateful bean
+     * @param <R>              the type of the output from the merge function
+     * @return a new JoinNode instance
+     */
+    public static <T, R> JoinNode<T, R> from(String name, int requiredBranches, BiFunction<T, List<Object>, R> merge) {
+        return new JoinNode<>(name, requiredBranches, merge);
+    }
+
+    /**
+     * Creates a new JoinNode that only waits for all branches, leaving the state as the branches updated it.
+     *
+     * @param name the name of the node
+     * @param <T>  the type of the stateful bean
+     * @return a new JoinNode instance
+     */
+    public static <T> JoinNode<T, T> barrier(String name) {
+        return new JoinNode<>(name, ALL_BRANCHES, (state, outputs) -> state);
+    }
+}
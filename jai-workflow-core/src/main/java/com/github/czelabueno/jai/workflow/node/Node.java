@@ -10,7 +10,10 @@ import java.util.function.Function;
 /**
  * Represents a node in a workflow that executes a function with a given input and produces an output.
  * <p>
- * This class implements the {@link TransitionState} interface.
+ * This class implements the {@link TransitionState} interface. A node holds no data of its executions, so a single
+ * instance can be shared by concurrent runs; inputs and outputs of a run are captured by its
+ * {@link NodeListener}, for instance an
+ * {@link com.github.czelabueno.jai.workflow.trace.ExecutionTrace}.
  *
  * @param <T> the type of the input to the function. Normally a stateful bean POJO defined by the user.
  * @param <R> the type of the output from the function. Normally a stateful bean POJO defined by the user.
@@ -20,10 +23,6 @@ public class Node<T, R> implements TransitionState {
     @Getter
     private final String name;
     private final Function<T, R> function;
-    @Getter
-    private T functionInput;
-    @Getter
-    private R functionOutput;
 
     /**
      * Constructs a Node with the specified name and function.
@@ -42,7 +41,7 @@ public class Node<T, R> implements TransitionState {
     }
 
     /**
-     * Executes the function with the given input and stores the input and output.
+     * Executes the function with the given input.
      *
      * @param input the input to the function
      * @return the output from the function
@@ -52,10 +51,7 @@ public class Node<T, R> implements TransitionState {
         if (input == null) {
             throw new IllegalArgumentException("Function input cannot be null");
         }
-        R output = function.apply(input);
-        functionInput = input;
-        functionOutput = output;
-        return output;
+        return function.apply(input);
     }
 
     /**
@@ -0,0 +1,108 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Listens to the lifecycle of the nodes executed by a workflow run.
+ * <p>
+ * Methods are invoked on the thread executing the node. When parallel branches run concurrently or an
+ * {@link AsyncNode} completes on another thread, the listener is invoked from those threads, so implementations
+ * must be thread-safe. Exceptions thrown by a listener stop the run.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+public interface NodeListener<T> {
+
+    /**
+     * Invoked right before the node is executed.
+     *
+     * @param node  the node about to be executed
+     * @param state the state the node is executed against
+     */
+    default void onStarted(Node<T, ?> node, T state) {
+    }
+
+    /**
+     * Invoked right after {@link #onStarted} to capture the input of this execution of the node. The engine passes
+     * the returned value back to {@link #onCompleted(Node, Object, Object, Object, Duration)} or
+     * {@link #onFailed(Node, Object, Object, Throwable, Duration)} of the same execution, even when the node runs
+     * concurrently on several branches.
+     *
+     * @param node  the node about to be executed
+     * @param state the state the node is executed against
+     * @return the input of this execution, null by default
+     */
+    default Object captureInput(Node<T, ?> node, T state) {
+        return null;
+    }
+
+    /**
+     * Invoked once the node is executed. For an {@link AsyncNode}, once its completion stage is completed.
+     *
+     * @param node     the executed node
+     * @param state    the state the node was executed against
+     * @param output   the output of the node, the result of the completion stage for an {@link AsyncNode}
+     * @param duration the time elapsed since the node was started
+     */
+    default void onCompleted(Node<T, ?> node, T state, Object output, Duration duration) {
+    }
+
+    /**
+     * Invoked once the node is executed, with the input captured when this execution started. Delegates to
+     * {@link #onCompleted(Node, Object, Object, Duration)} by default.
+     *
+     * @param node     the executed node
+     * @param state    the state the node was executed against
+     * @param input    the value returned by {@link #captureInput} when this execution started
+     * @param output   the output of the node, the result of the completion stage for an {@link AsyncNode}
+     * @param duration the time elapsed since the node was started
+     */
+    default void onCompleted(Node<T, ?> node, T state, Object input, Object output, Duration duration) {
+        onCompleted(node, state, output, duration);
+    }
+
+    /**
+     * Invoked when the node throws an exception or its completion stage completes exceptionally.
+     *
+     * @param node     the failed node
+     * @param state    the state the node was executed against
+     * @param error    the failure of the node
+     * @param duration the time elapsed since the node was started
+     */
+    default void onFailed(Node<T, ?> node, T state, Throwable error, Duration duration) {
+    }
+
+    /**
+     * Invoked when the node fails, with the input captured when this execution started. Delegates to
+     * {@link #onFailed(Node, Object, Throwable, Duration)} by default.
+     *
+     * @param node     the failed node
+     * @param state    the state the node was executed against
+     * @param input    the value returned by {@link #captureInput} when this execution started, null if the
+     *                 listener failed before
+     * @param error    the failure of the node
+     * @param duration the time elapsed since the node was started
+     */
+    default void onFailed(Node<T, ?> node, T state, Object input, Throwable error, Duration duration) {
+        onFailed(node, state, error, duration);
+    }
+
+    /**
+     * Creates a listener passing every completed node to the given consumer.
+     *
+     * @param eventConsumer the consumer to process completed nodes
+     * @param <T>           the type of the stateful bean used in the workflow
+     * @return a new listener
+     */
+    static <T> NodeListener<T> onCompleted(@NonNull Consumer<Node<T, ?>> eventConsumer) {
+        return new NodeListener<>() {
+            @Override
+            public void onCompleted(Node<T, ?> node, T state, Object output, Duration duration) {
+                eventConsumer.accept(node);
+            }
+        };
+    }
+}
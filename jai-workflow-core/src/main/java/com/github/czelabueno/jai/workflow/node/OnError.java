@@ -0,0 +1,82 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import com.github.czelabueno.jai.workflow.transition.TransitionState;
+import lombok.NonNull;
+
+import java.util.function.Predicate;
+
+/**
+ * Represents a fallback edge taken when a node fails.
+ * <p>
+ * The edge is only taken once the node has exhausted its retries, or fails fast because its circuit breaker is
+ * open. The run then continues from the fallback node instead of failing. When a node declares several fallback
+ * edges, the first one accepting the failure is taken. Implements the {@link TransitionState} interface.
+ *
+ * @param <T> the stateful bean POJO defined by the user. It is used to store the state of the workflow.
+ */
+public class OnError<T> implements TransitionState {
+
+    private final Node<T, ?> fallback;
+    private final Predicate<Throwable> accepts;
+
+    /**
+     * Constructs an OnError edge to the specified fallback node for failures accepted by the predicate.
+     *
+     * @param fallback the node to continue from when the node fails
+     * @param accepts  the predicate selecting the failures handled by this edge
+     * @throws NullPointerException if the fallback node or the predicate is null
+     */
+    public OnError(@NonNull Node<T, ?> fallback, @NonNull Predicate<Throwable> accepts) {
+        this.fallback = fallback;
+        this.accepts = accepts;
+    }
+
+    /**
+     * Creates an OnError edge to the specified fallback node for every failure.
+     *
+     * @param fallback the node to continue from when the node fails
+     * @param <T>      the stateful bean POJO defined by the user
+     * @return a new OnError instance
+     */
+    public static <T> OnError<T> to(Node<T, ?> fallback) {
+        return new OnError<>(fallback, error -> true);
+    }
+
+    /**
+     * Creates an OnError edge to the specified fallback node for failures of the given type.
+     *
+     * @param fallback  the node to continue from when the node fails
+     * @param errorType the type of the failures handled by this edge
+     * @param <T>       the stateful bean POJO defined by the user
+     * @return a new OnError instance
+     */
+    public static <T> OnError<T> to(Node<T, ?> fallback, @NonNull Class<? extends Throwable> errorType) {
+        return new OnError<>(fallback, errorType::isInstance);
+    }
+
+    /**
+     * Returns the fallback node of this edge.
+     *
+     * @return the fallback node
+     */
+    public Node<T, ?> getFallback() {
+        return fallback;
+    }
+
+    /**
+     * Returns whether this edge handles the given failure.
+     *
+     * @param error the failure of the node
+     * @return true if the fallback node should be taken
+     */
+    public boolean accepts(Throwable error) {
+        return accepts.test(error);
+    }
+
+    @Override
+    public String toString() {
+        return "OnError{" +
+                "fallback=" + fallback +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import lombok.NonNull;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Represents a node whose work can start before the workflow knows it will be taken.
+ * <p>
+ * The function of the node is split in two: {@code compute} produces the output without side effects, and
+ * {@code commit} writes it into the state. When the workflow runs with a
+ * {@link com.github.czelabueno.jai.workflow.concurrent.SpeculationPolicy} and this node is the usual choice of the
+ * {@link Conditional} following its upstream node, {@code compute} starts concurrently with the upstream node. The
+ * output is committed if the conditional selects this node and discarded otherwise. {@code compute} must therefore
+ * only read the parts of the state the upstream node does not write, such as the question for a retrieval.
+ *
+ * @param <T> the type of the input to the function. Normally a stateful bean POJO defined by the user.
+ * @param <R> the type of the output from the function.
+ */
+public class SpeculativeNode<T, R> extends Node<T, R> {
+
+    private final Function<T, R> compute;
+    private final BiConsumer<T, R> commit;
+
+    /**
+     * Constructs a SpeculativeNode with the specified name, compute function and commit function.
+     *
+     * @param name    the name of the node
+     * @param compute the side-effect-free function producing the output
+     * @param commit  the function writing the output into the state
+     * @throws IllegalArgumentException if the node name is empty
+     * @throws NullPointerException     if the name or a function is null
+     */
+    public SpeculativeNode(@NonNull String name, @NonNull Function<T, R> compute, @NonNull BiConsumer<T, R> commit) {
+        super(name, state -> {
+            R output = compute.apply(state);
+            commit.accept(state, output);
+            return output;
+        });
+        this.compute = compute;
+        this.commit = commit;
+    }
+
+    /**
+     * Produces the output of the node without writing it into the state.
+     *
+     * @param state the state to read
+     * @return the output of the node
+     */
+    public R compute(T state) {
+        return compute.apply(state);
+    }
+
+    /**
+     * Writes an output produced by {@link #compute(Object)} into the state.
+     *
+     * @param state  the state to write
+     * @param output the output of the node
+     * @return the output of the node
+     */
+    public R commit(T state, R output) {
+        commit.accept(state, output);
+        return output;
+    }
+
+    /**
+     * Creates a new SpeculativeNode with the specified name, compute function and commit function.
+     *
+     * @param name    the name of the node
+     * @param compute the side-effect-free function producing the output
+     * @param commit  the function writing the output into the state
+     * @param <T>     the type of the input to the function
+     * @param <R>     the type of the output from the function
+     * @return a new SpeculativeNode instance
+     */
+    public static <T, R> SpeculativeNode<T, R> from(String name, Function<T, R> compute, BiConsumer<T, R> commit) {
+        return new SpeculativeNode<>(name, compute, commit);
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.czelabueno.jai.workflow.resilience;
+
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * Stops calling a failing node for a while, so executions fail fast instead of waiting on a provider that is down.
+ * <p>
+ * The breaker is {@link State#CLOSED} while the node works. After {@code failureThreshold} consecutive failures it
+ * opens: every execution of the node fails immediately with a {@link CircuitBreakerOpenException} during
+ * {@code openDuration}. Then a single trial execution is let through ({@link State#HALF_OPEN}): the breaker closes
+ * if it succeeds and opens again otherwise.
+ * <p>
+ * A breaker is meant to be shared by every execution of a node, and may be shared by several nodes calling the same
+ * provider. It is thread-safe.
+ */
+public final class CircuitBreaker {
+
+    /**
+     * The state of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Executions are let through.
+         */
+        CLOSED,
+        /**
+         * Executions fail fast.
+         */
+        OPEN,
+        /**
+         * A single trial execution is let through.
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * Constructs a new CircuitBreaker.
+     *
+     * @param failureThreshold the number of consecutive failures opening the breaker, 5 by default
+     * @param openDuration     the time the breaker stays open before a trial execution, 30 seconds by default
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    @Builder
+    public CircuitBreaker(Integer failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold == null ? 5 : failureThreshold;
+        Duration duration = openDuration == null ? Duration.ofSeconds(30) : openDuration;
+        if (this.failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be greater than zero");
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("openDuration must be positive");
+        }
+        this.openDurationNanos = duration.toNanos();
+    }
+
+    /**
+     * Returns whether an execution may start now. Every permitted execution must be followed by a call to
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+     *
+     * @return true if the execution is let through
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Records a successful execution.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a failed execution.
+     */
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Releases a permitted execution that ended without an outcome, such as a cancelled one. No failure is
+     * recorded, and a half-open breaker lets the next trial execution through.
+     */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     *
+     * @return the current state
+     */
+    public synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            return State.HALF_OPEN; // the next execution is a trial
+        }
+        return state;
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.czelabueno.jai.workflow.resilience;
+
+/**
+ * Thrown instead of executing a node whose {@link CircuitBreaker} is open.
+ */
+public class CircuitBreakerOpenException extends IllegalStateException {
+
+    /**
+     * Constructs a new CircuitBreakerOpenException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.czelabueno.jai.workflow.resilience;
+
+import com.github.czelabueno.jai.workflow.WorkflowTimeoutException;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Describes how a failed node is retried.
+ * <p>
+ * A node is executed at most {@code maxAttempts} times. Before every retry the run waits for an exponential
+ * backoff, starting at {@code initialBackoff} and multiplied by {@code multiplier} after every attempt up to
+ * {@code maxBackoff}. The backoff is randomly reduced by up to {@code jitter} of its value, so executions failing
+ * together do not retry together. The wait never parks a thread: the run resumes from a timer.
+ */
+@Getter
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double multiplier;
+    private final double jitter;
+    private final Predicate<Throwable> retryOn;
+
+    /**
+     * Constructs a new RetryPolicy.
+     *
+     * @param maxAttempts    the maximum number of executions of the node, including the first one, 3 by default
+     * @param initialBackoff the backoff before the first retry, 100 milliseconds by default
+     * @param maxBackoff     the maximum backoff between two attempts, 10 seconds by default
+     * @param multiplier     the factor applied to the backoff after every attempt, 2 by default
+     * @param jitter         the maximum fraction of the backoff removed at random, between 0 and 1, 0.5 by default
+     * @param retryOn        the predicate selecting retryable failures. By default every failure but
+     *                       {@link WorkflowTimeoutException}s and open circuit breakers is retried
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    @Builder
+    public RetryPolicy(Integer maxAttempts,
+                       Duration initialBackoff,
+                       Duration maxBackoff,
+                       Double multiplier,
+                       Double jitter,
+                       Predicate<Throwable> retryOn) {
+        this.maxAttempts = maxAttempts == null ? 3 : maxAttempts;
+        this.initialBackoff = initialBackoff == null ? Duration.ofMillis(100) : initialBackoff;
+        this.maxBackoff = maxBackoff == null ? Duration.ofSeconds(10) : maxBackoff;
+        this.multiplier = multiplier == null ? 2.0 : multiplier;
+        this.jitter = jitter == null ? 0.5 : jitter;
+        this.retryOn = retryOn == null ? RetryPolicy::retryableByDefault : retryOn;
+        if (this.maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be greater than zero");
+        }
+        if (this.initialBackoff.isNegative() || this.maxBackoff.compareTo(this.initialBackoff) < 0) {
+            throw new IllegalArgumentException("Backoffs cannot be negative and maxBackoff cannot be lower than initialBackoff");
+        }
+        if (this.multiplier < 1.0) {
+            throw new IllegalArgumentException("multiplier cannot be lower than 1");
+        }
+        if (this.jitter < 0.0 || this.jitter > 1.0) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Creates a policy executing a node up to the given number of times with the default backoff.
+     *
+     * @param maxAttempts the maximum number of executions of the node, including the first one
+     * @return a new RetryPolicy instance
+     */
+    public static RetryPolicy attempts(int maxAttempts) {
+        return RetryPolicy.builder().maxAttempts(maxAttempts).build();
+    }
+
+    /**
+     * Returns whether a node that failed the given attempt should be executed again.
+     *
+     * @param attempt the number of the failed attempt, starting at 1
+     * @param error   the failure of the attempt
+     * @return true if the node should be retried
+     */
+    public boolean shouldRetry(int attempt, Throwable error) {
+        return attempt < maxAttempts && !(error instanceof CircuitBreakerOpenException) && retryOn.test(error);
+    }
+
+    /**
+     * Returns the jittered backoff before the retry following the given attempt.
+     *
+     * @param attempt the number of the failed attempt, starting at 1
+     * @return the backoff in nanoseconds
+     */
+    public long backoffNanos(int attempt) {
+        double backoff = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() * Math.pow(multiplier, attempt - 1));
+        return (long) (backoff * (1.0 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static boolean retryableByDefault(Throwable error) {
+        return !(error instanceof WorkflowTimeoutException);
+    }
+}
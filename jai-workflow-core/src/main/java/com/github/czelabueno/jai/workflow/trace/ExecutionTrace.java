@@ -0,0 +1,132 @@
+package com.github.czelabueno.jai.workflow.trace;
+
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.NodeListener;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Captures the node executions of a single workflow run.
+ * <p>
+ * A trace is created by the caller for one run and passed to it as its {@link NodeListener}, so every run gets its
+ * own trace and nothing of a run is retained by the workflow or its nodes once the caller drops the trace. Capturing
+ * the inputs and outputs of nodes is opt-in: by default only the node names, durations and failures are kept.
+ * Captured values can be summarized, for instance to keep the size of a list of documents instead of the documents,
+ * and at most {@code maxEntries} executions are kept, the oldest being dropped first.
+ * <p>
+ * The input of a node is captured by the {@code inputSummarizer} when the node starts, before it mutates the state.
+ * As the following nodes keep mutating the same state, the summarizer must return a snapshot of what is worth
+ * keeping, such as the question or the number of retrieved documents, rather than the state itself.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+public final class ExecutionTrace<T> implements NodeListener<T> {
+
+    private final boolean captureInputs;
+    private final boolean captureOutputs;
+    private final int maxEntries;
+    private final Function<Object, Object> summarizer;
+    private final Function<T, Object> inputSummarizer;
+    private final Deque<NodeTrace> entries = new ArrayDeque<>();
+    private long dropped;
+
+    /**
+     * Constructs a new ExecutionTrace.
+     *
+     * @param captureInputs   whether the state every node is executed against is captured, false by default
+     * @param captureOutputs  whether the output of every node is captured, false by default
+     * @param maxEntries      the maximum number of node executions kept, 1000 by default
+     * @param summarizer      the function applied to captured outputs before they are kept. If null, outputs are
+     *                        kept as they are
+     * @param inputSummarizer the function snapshotting the state a node starts from, required to capture inputs
+     * @throws IllegalArgumentException if maxEntries is not greater than zero, or inputs are captured without an
+     *                                  inputSummarizer
+     */
+    @Builder
+    public ExecutionTrace(Boolean captureInputs,
+                          Boolean captureOutputs,
+                          Integer maxEntries,
+                          Function<Object, Object> summarizer,
+                          Function<T, Object> inputSummarizer) {
+        if (maxEntries != null && maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero");
+        }
+        this.captureInputs = Boolean.TRUE.equals(captureInputs);
+        if (this.captureInputs && inputSummarizer == null) {
+            throw new IllegalArgumentException("inputSummarizer is required to capture inputs");
+        }
+        this.captureOutputs = Boolean.TRUE.equals(captureOutputs);
+        this.maxEntries = maxEntries == null ? 1000 : maxEntries;
+        this.summarizer = summarizer != null ? summarizer : Function.identity();
+        this.inputSummarizer = inputSummarizer;
+    }
+
+    @Override
+    public Object captureInput(Node<T, ?> node, T state) {
+        return captureInputs && state != null ? inputSummarizer.apply(state) : null;
+    }
+
+    @Override
+    public void onCompleted(Node<T, ?> node, T state, Object input, Object output, Duration duration) {
+        add(new NodeTrace(node.getName(), input, captureOutputs ? capture(output) : null, null, duration));
+    }
+
+    @Override
+    public void onFailed(Node<T, ?> node, T state, Object input, Throwable error, Duration duration) {
+        add(new NodeTrace(node.getName(), input, null, error, duration));
+    }
+
+    private Object capture(Object value) {
+        return value == null ? null : summarizer.apply(value);
+    }
+
+    private synchronized void add(NodeTrace entry) {
+        if (entries.size() == maxEntries) {
+            entries.pollFirst();
+            dropped++;
+        }
+        entries.addLast(entry);
+    }
+
+    /**
+     * Returns the kept node executions, in the order they completed.
+     *
+     * @return the node executions
+     */
+    public synchronized List<NodeTrace> entries() {
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * Returns the last kept execution of the node with the given name.
+     *
+     * @param nodeName the name of the node
+     * @return the last execution of the node, empty if the node was not executed or its executions were dropped
+     */
+    public synchronized Optional<NodeTrace> last(String nodeName) {
+        var iterator = entries.descendingIterator();
+        while (iterator.hasNext()) {
+            NodeTrace entry = iterator.next();
+            if (entry.nodeName().equals(nodeName)) {
+                return Optional.of(entry);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the number of node executions dropped because the trace was full.
+     *
+     * @return the number of dropped executions
+     */
+    public synchronized long dropped() {
+        return dropped;
+    }
+}
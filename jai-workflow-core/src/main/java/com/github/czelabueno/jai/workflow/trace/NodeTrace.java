@@ -0,0 +1,24 @@
+package com.github.czelabueno.jai.workflow.trace;
+
+import java.time.Duration;
+
+/**
+ * The trace of one execution of a node in a workflow run.
+ *
+ * @param nodeName the name of the executed node
+ * @param input    the captured input of the node, null if inputs are not captured
+ * @param output   the captured output of the node, null if outputs are not captured or the node failed
+ * @param error    the failure of the node, null if the node completed
+ * @param duration the time the node took to complete or fail
+ */
+public record NodeTrace(String nodeName, Object input, Object output, Throwable error, Duration duration) {
+
+    /**
+     * Returns whether the node failed.
+     *
+     * @return true if the node failed
+     */
+    public boolean failed() {
+        return error != null;
+    }
+}
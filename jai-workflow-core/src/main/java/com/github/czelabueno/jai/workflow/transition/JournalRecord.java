@@ -0,0 +1,23 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+import java.time.Instant;
+
+/**
+ * A transition read from a {@link TransitionJournal}.
+ *
+ * @param runId     the identifier assigned to the run by the journal
+ * @param from      the index of the node the transition starts from in the execution plan, or
+ *                  {@link TransitionJournal#START}
+ * @param to        the index of the node the transition leads to in the execution plan, or
+ *                  {@link TransitionJournal#END}
+ * @param startedAt the time the run started
+ * @param endedAt   the time the run ended
+ * @param outcome   the outcome of the run
+ */
+public record JournalRecord(long runId,
+                            int from,
+                            int to,
+                            Instant startedAt,
+                            Instant endedAt,
+                            TransitionJournal.Outcome outcome) {
+}
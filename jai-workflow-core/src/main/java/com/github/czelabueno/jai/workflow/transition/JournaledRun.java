@@ -0,0 +1,16 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+/**
+ * A workflow run whose transitions were recorded in a {@link TransitionJournal}.
+ *
+ * @param runId   the identifier assigned to the run by the journal
+ * @param outcome the outcome of the run
+ * @param state   the state after the run, null if the run did not succeed
+ * @param error   the failure of the run, null if the run succeeded
+ * @param <T>     the type of the stateful bean used in the workflow
+ */
+public record JournaledRun<T>(long runId,
+                              TransitionJournal.Outcome outcome,
+                              T state,
+                              Throwable error) {
+}
@@ -0,0 +1,541 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+import com.github.czelabueno.jai.workflow.ExecutionPlan;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * An append-only journal of the transitions of workflow runs, stored off-heap in memory-mapped files.
+ * <p>
+ * Every transition is stored as a fixed-size binary record holding the run id, the indexes of its nodes in the
+ * {@link ExecutionPlan}, the start and end time of the run and its outcome. Records are written to a mapped
+ * segment file of {@code segmentSize} bytes; once full, the journal rolls over to a new segment and deletes the
+ * oldest segments beyond {@code maxSegments}. The history of runs therefore neither grows the heap nor creates
+ * garbage, and its disk usage is bounded.
+ * <p>
+ * Nodes are stored by index, so records can only be read back with an execution plan of the same graph: the
+ * reader maps the indexes back to the {@link Node}s of the plan to rebuild {@link Transition}s.
+ * <p>
+ * Reading does not map segments again: the live segment is read through the mapping of the writer, and sealed
+ * segments through positional reads of the records needed, so lookups leave no mapping behind.
+ */
+public final class TransitionJournal implements AutoCloseable {
+
+    /**
+     * The index standing for {@link WorkflowStateName#START} in journal records.
+     */
+    public static final int START = -1;
+    /**
+     * The index standing for {@link WorkflowStateName#END} in journal records.
+     */
+    public static final int END = -2;
+
+    /**
+     * The outcome of a journaled run.
+     */
+    public enum Outcome {
+        /**
+         * The run reached its end.
+         */
+        SUCCEEDED,
+        /**
+         * The run failed, for instance because a node threw an exception or a timeout was exceeded.
+         */
+        FAILED,
+        /**
+         * The run was cancelled by its caller.
+         */
+        CANCELLED
+    }
+
+    private static final int MAGIC = 0x4A41494A; // "JAIJ"
+    private static final int HEADER_SIZE = 16; // magic, version, record count, reserved
+    private static final int COUNT_OFFSET = 8;
+    private static final int RECORD_SIZE = 36; // run id, started at, ended at, from, to, outcome, reserved
+    private static final int READ_CHUNK_RECORDS = 1024; // records read at once from a sealed segment
+    private static final String PREFIX = "transitions-";
+    private static final String EXTENSION = ".journal";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final int maxSegments;
+    private final int recordsPerSegment;
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int count;
+    private long lastRunId;
+    private boolean closed;
+
+    /**
+     * Opens the journal stored in the given directory, appending after its existing records.
+     *
+     * @param directory   the directory of the segment files, created if needed
+     * @param segmentSize the size of a segment file in bytes, 64 MiB by default
+     * @param maxSegments the maximum number of segment files kept, 8 by default
+     * @throws IllegalArgumentException if a parameter is out of range
+     * @throws UncheckedIOException     if the journal cannot be opened
+     */
+    @Builder
+    public TransitionJournal(@NonNull Path directory, Long segmentSize, Integer maxSegments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize == null ? 64L << 20 : segmentSize;
+        this.maxSegments = maxSegments == null ? 8 : maxSegments;
+        if (this.segmentSize < HEADER_SIZE + RECORD_SIZE || this.segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize must hold at least one record and be lower than 2 GiB");
+        }
+        if (this.maxSegments <= 0) {
+            throw new IllegalArgumentException("maxSegments must be greater than zero");
+        }
+        this.recordsPerSegment = (int) ((this.segmentSize - HEADER_SIZE) / RECORD_SIZE);
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (segments.isEmpty()) {
+                open(0L);
+            } else {
+                open(segmentNumber(segments.get(segments.size() - 1)));
+                lastRunId = recoverLastRunId(segments);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transition journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the transitions of a run.
+     *
+     * @param plan        the execution plan the run was executed with
+     * @param transitions the transitions of the run
+     * @param startedAt   the time the run started
+     * @param endedAt     the time the run ended
+     * @param outcome     the outcome of the run
+     * @return the identifier assigned to the run
+     * @throws IllegalArgumentException if a transition involves a node that is not part of the plan
+     * @throws IllegalStateException    if the journal is closed
+     * @throws UncheckedIOException     if a new segment cannot be created
+     */
+    public synchronized long append(@NonNull ExecutionPlan<?> plan,
+                                    @NonNull List<Transition> transitions,
+                                    @NonNull Instant startedAt,
+                                    @NonNull Instant endedAt,
+                                    @NonNull Outcome outcome) {
+        if (closed) {
+            throw new IllegalStateException("Transition journal is closed");
+        }
+        int[] states = new int[transitions.size() * 2];
+        for (int t = 0; t < transitions.size(); t++) { // a rejected run leaves no record behind
+            states[2 * t] = index(plan, transitions.get(t).from());
+            states[2 * t + 1] = index(plan, transitions.get(t).to());
+        }
+        long runId = ++lastRunId;
+        long started = micros(startedAt);
+        long ended = micros(endedAt);
+        for (int t = 0; t < transitions.size(); t++) {
+            int from = states[2 * t];
+            int to = states[2 * t + 1];
+            if (count == recordsPerSegment) {
+                roll();
+            }
+            int offset = HEADER_SIZE + count * RECORD_SIZE;
+            segment.putLong(offset, runId);
+            segment.putLong(offset + 8, started);
+            segment.putLong(offset + 16, ended);
+            segment.putInt(offset + 24, from);
+            segment.putInt(offset + 28, to);
+            segment.put(offset + 32, (byte) outcome.ordinal());
+            segment.putInt(COUNT_OFFSET, ++count); // the record is complete before it is counted
+        }
+        return runId;
+    }
+
+    /**
+     * Returns the identifier assigned to the most recently appended run. When runs complete concurrently, use the
+     * identifier returned by {@link #append} instead, which is the one of the appended run.
+     *
+     * @return the last run id, 0 if the journal is empty
+     */
+    public synchronized long lastRunId() {
+        return lastRunId;
+    }
+
+    /**
+     * Passes every record of the journal to the given consumer, oldest first.
+     *
+     * @param consumer the consumer of the records
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public void forEach(@NonNull Consumer<JournalRecord> consumer) {
+        Outcome[] outcomes = Outcome.values();
+        SegmentReader live = live();
+        for (Path path : segments()) {
+            try (SegmentReader segment = reader(path, live)) {
+                for (int r = 0; r < segment.records(); r++) {
+                    int offset = segment.offset(r);
+                    ByteBuffer buffer = segment.data();
+                    consumer.accept(new JournalRecord(
+                            buffer.getLong(offset),
+                            buffer.getInt(offset + 24),
+                            buffer.getInt(offset + 28),
+                            instant(buffer.getLong(offset + 8)),
+                            instant(buffer.getLong(offset + 16)),
+                            outcomes[buffer.get(offset + 32)]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the transitions of a journaled run.
+     * <p>
+     * Run ids grow with every append, so the records of a segment are sorted by run id: segments whose first and
+     * last records do not enclose the run are skipped, and the first record of the run is found by binary search.
+     *
+     * @param runId the identifier of the run
+     * @param plan  the execution plan of the graph the run was executed with
+     * @param <T>   the type of the stateful bean used in the workflow
+     * @return the transitions of the run, empty if the run is not in the journal anymore
+     * @throws IllegalStateException if a record refers to a node the plan does not have
+     */
+    public <T> List<Transition> transitions(long runId, @NonNull ExecutionPlan<T> plan) {
+        List<Transition> transitions = new ArrayList<>();
+        SegmentReader live = live();
+        for (Path path : segments()) {
+            try (SegmentReader segment = reader(path, live)) {
+                int records = segment.records();
+                if (records == 0 || segment.runId(records - 1) < runId) {
+                    continue; // the run is in a later segment
+                }
+                if (segment.runId(0) > runId) {
+                    break; // the run was in a deleted segment, or never journaled
+                }
+                for (int r = firstRecord(segment, records, runId); r < records; r++) {
+                    int offset = segment.offset(r);
+                    ByteBuffer buffer = segment.data();
+                    if (buffer.getLong(offset) != runId) {
+                        break;
+                    }
+                    transitions.add(Transition.from(state(plan, buffer.getInt(offset + 24)), state(plan, buffer.getInt(offset + 28))));
+                }
+            }
+        }
+        return transitions;
+    }
+
+    /**
+     * Forces the records appended so far to the storage device.
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the journal. Subsequent appends fail.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segment.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close transition journal", e);
+        }
+    }
+
+    private void open(long number) throws IOException {
+        segmentNumber = number;
+        channel = FileChannel.open(directory.resolve(String.format("%s%010d%s", PREFIX, number, EXTENSION)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        if (created || segment.getInt(0) != MAGIC) {
+            segment.putInt(0, MAGIC);
+            segment.putInt(4, 1); // version
+            segment.putInt(COUNT_OFFSET, 0);
+        }
+        count = Math.min(segment.getInt(COUNT_OFFSET), recordsPerSegment);
+    }
+
+    /**
+     * Returns the id of the last run of the newest non-empty segment, the newest segment being empty right after a
+     * roll-over.
+     */
+    private long recoverLastRunId(List<Path> segments) {
+        if (count > 0) {
+            return segment.getLong(HEADER_SIZE + (count - 1) * RECORD_SIZE);
+        }
+        for (int i = segments.size() - 2; i >= 0; i--) {
+            try (SegmentReader sealed = SegmentReader.sealed(segments.get(i))) {
+                if (sealed.records() > 0) {
+                    return sealed.runId(sealed.records() - 1);
+                }
+            }
+        }
+        return 0L;
+    }
+
+    private void roll() {
+        try {
+            segment.force();
+            channel.close();
+            open(segmentNumber + 1);
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll transition journal over", e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(EXTENSION);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list transition journal segments in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns a reader of the live segment, holding the records appended so far. Appended records are never
+     * modified, so they can be read without holding the lock once their count is known.
+     */
+    private synchronized SegmentReader live() {
+        return SegmentReader.live(segmentNumber, segment.duplicate(), count);
+    }
+
+    private static SegmentReader reader(Path path, SegmentReader live) {
+        return segmentNumber(path) == live.number ? live : SegmentReader.sealed(path);
+    }
+
+    /**
+     * Returns the first record of the given segment with a run id not lower than the given one.
+     */
+    private static int firstRecord(SegmentReader segment, int records, long runId) {
+        int low = 0;
+        int high = records;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segment.runId(middle) < runId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+    }
+
+    private static int index(ExecutionPlan<?> plan, TransitionState state) {
+        if (state == WorkflowStateName.START) {
+            return START;
+        }
+        if (state == WorkflowStateName.END) {
+            return END;
+        }
+        if (!(state instanceof Node<?, ?> node)) {
+            throw new IllegalArgumentException("Unsupported transition state: " + state);
+        }
+        @SuppressWarnings("unchecked")
+        int index = ((ExecutionPlan<Object>) plan).indexOf((Node<Object, ?>) node);
+        if (index < 0) {
+            throw new IllegalArgumentException("Node '" + node.getName() + "' is not part of the workflow");
+        }
+        return index;
+    }
+
+    private static TransitionState state(ExecutionPlan<?> plan, int index) {
+        if (index == START) {
+            return WorkflowStateName.START;
+        }
+        if (index == END) {
+            return WorkflowStateName.END;
+        }
+        if (index < 0 || index >= plan.nodeCount()) {
+            throw new IllegalStateException("Journaled node index " + index + " is not part of the workflow");
+        }
+        return plan.node(index);
+    }
+
+    private static long micros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static Instant instant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    /**
+     * Reads the records of a segment: the live segment through the mapping of the writer, a sealed segment through
+     * positional reads of its file, a chunk of records at a time.
+     */
+    private static final class SegmentReader implements AutoCloseable {
+
+        private final long number;
+        private final ByteBuffer mapped;
+        private final FileChannel channel;
+        private final Path path;
+        private final int records;
+        private ByteBuffer chunk;
+        private int chunkFirst;
+        private int chunkRecords;
+
+        private SegmentReader(long number, ByteBuffer mapped, FileChannel channel, Path path, int records) {
+            this.number = number;
+            this.mapped = mapped;
+            this.channel = channel;
+            this.path = path;
+            this.records = records;
+        }
+
+        private static SegmentReader live(long number, ByteBuffer mapped, int records) {
+            return new SegmentReader(number, mapped, null, null, records);
+        }
+
+        /**
+         * Opens a sealed segment and reads its header. A segment deleted by a roll-over in the meantime has no
+         * records.
+         */
+        private static SegmentReader sealed(Path path) {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return new SegmentReader(-1L, null, null, path, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read transition journal segment " + path, e);
+            }
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                long size = channel.size();
+                int records = 0;
+                if (size >= HEADER_SIZE && readFully(channel, header, 0L) && header.getInt(0) == MAGIC) {
+                    records = (int) Math.min(header.getInt(COUNT_OFFSET), (size - HEADER_SIZE) / RECORD_SIZE);
+                }
+                return new SegmentReader(segmentNumber(path), null, channel, path, Math.max(records, 0));
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException closing) {
+                    e.addSuppressed(closing);
+                }
+                throw new UncheckedIOException("Failed to read transition journal segment " + path, e);
+            }
+        }
+
+        private int records() {
+            return records;
+        }
+
+        /**
+         * Returns the run id of the given record, reading only that record from a sealed segment.
+         */
+        private long runId(int record) {
+            if (mapped != null) {
+                return mapped.getLong(HEADER_SIZE + record * RECORD_SIZE);
+            }
+            if (record >= chunkFirst && record < chunkFirst + chunkRecords) {
+                return chunk.getLong((record - chunkFirst) * RECORD_SIZE);
+            }
+            ByteBuffer runId = ByteBuffer.allocate(Long.BYTES);
+            read(runId, position(record));
+            return runId.getLong(0);
+        }
+
+        /**
+         * Returns the offset of the given record in {@link #data()}, reading the chunk of records starting at it
+         * from a sealed segment if needed.
+         */
+        private int offset(int record) {
+            if (mapped != null) {
+                return HEADER_SIZE + record * RECORD_SIZE;
+            }
+            if (record < chunkFirst || record >= chunkFirst + chunkRecords) {
+                if (chunk == null) {
+                    chunk = ByteBuffer.allocate(Math.min(records, READ_CHUNK_RECORDS) * RECORD_SIZE);
+                }
+                int loaded = Math.min(records - record, READ_CHUNK_RECORDS);
+                chunk.clear().limit(loaded * RECORD_SIZE);
+                read(chunk, position(record));
+                chunkFirst = record;
+                chunkRecords = loaded;
+            }
+            return (record - chunkFirst) * RECORD_SIZE;
+        }
+
+        /**
+         * Returns the buffer holding the record whose offset was last returned by {@link #offset(int)}.
+         */
+        private ByteBuffer data() {
+            return mapped != null ? mapped : chunk;
+        }
+
+        private static long position(int record) {
+            return HEADER_SIZE + (long) record * RECORD_SIZE;
+        }
+
+        private void read(ByteBuffer buffer, long position) {
+            try {
+                if (!readFully(channel, buffer, position)) {
+                    throw new IllegalStateException("Transition journal segment " + path + " is truncated");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read transition journal segment " + path, e);
+            }
+        }
+
+        private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    return false;
+                }
+                position += read;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to close transition journal segment " + path, e);
+                }
+            }
+        }
+    }
+}
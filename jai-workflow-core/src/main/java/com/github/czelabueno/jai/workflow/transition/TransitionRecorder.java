@@ -0,0 +1,48 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+import java.util.List;
+
+/**
+ * Records the transitions taken by one path of a workflow run, as decided by a {@link TransitionRecording}.
+ * <p>
+ * Recorders are created by the workflow engine for every run and for every parallel branch of a run. A recorder
+ * that is not recording does not allocate any {@link Transition}.
+ */
+public interface TransitionRecorder {
+
+    /**
+     * Returns whether this recorder keeps the transitions it is given.
+     *
+     * @return true if transitions are recorded, false if they are discarded
+     */
+    boolean isRecording();
+
+    /**
+     * Records a transition.
+     *
+     * @param from the state the transition starts from
+     * @param to   the state the transition leads to
+     */
+    void record(TransitionState from, TransitionState to);
+
+    /**
+     * Records the transitions of a branch, once the branch completed.
+     *
+     * @param branch the recorder of the branch, created by {@link #branch()}
+     */
+    void recordAll(TransitionRecorder branch);
+
+    /**
+     * Creates a recorder of the same kind for a parallel branch of the path recorded by this recorder.
+     *
+     * @return the recorder of the branch
+     */
+    TransitionRecorder branch();
+
+    /**
+     * Returns the recorded transitions, in the order they were taken.
+     *
+     * @return the recorded transitions
+     */
+    List<Transition> transitions();
+}
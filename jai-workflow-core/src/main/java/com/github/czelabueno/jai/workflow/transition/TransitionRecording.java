@@ -0,0 +1,203 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Decides which transitions of the runs of a workflow are recorded.
+ * <p>
+ * By default every transition of every run is recorded, so the transitions of a run grow with the number of
+ * nodes it executes. Long-running loops or high-throughput workflows can instead record nothing, record one run
+ * out of N, or keep only the last K transitions of every run in a bounded lock-free ring buffer.
+ */
+public final class TransitionRecording {
+
+    private static final TransitionRecording ALL = new TransitionRecording(0, 1);
+    private static final TransitionRecording NONE = new TransitionRecording(0, 0);
+
+    private final int capacity;
+    private final int everyRuns;
+    private final AtomicLong runs = new AtomicLong();
+
+    private TransitionRecording(int capacity, int everyRuns) {
+        this.capacity = capacity;
+        this.everyRuns = everyRuns;
+    }
+
+    /**
+     * Records every transition of every run. This is the default.
+     *
+     * @return the recording policy
+     */
+    public static TransitionRecording all() {
+        return ALL;
+    }
+
+    /**
+     * Records no transition at all.
+     *
+     * @return the recording policy
+     */
+    public static TransitionRecording none() {
+        return NONE;
+    }
+
+    /**
+     * Records every transition of one run out of {@code everyRuns}, starting with the first run.
+     *
+     * @param everyRuns the sampling interval, in runs
+     * @return the recording policy
+     * @throws IllegalArgumentException if everyRuns is not greater than zero
+     */
+    public static TransitionRecording sampled(int everyRuns) {
+        if (everyRuns <= 0) {
+            throw new IllegalArgumentException("everyRuns must be greater than zero");
+        }
+        return new TransitionRecording(0, everyRuns);
+    }
+
+    /**
+     * Records the last {@code capacity} transitions of every run in a bounded ring buffer.
+     *
+     * @param capacity the maximum number of transitions kept per run
+     * @return the recording policy
+     * @throws IllegalArgumentException if capacity is not greater than zero
+     */
+    public static TransitionRecording ringBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than zero");
+        }
+        return new TransitionRecording(capacity, 1);
+    }
+
+    /**
+     * Creates the recorder of a new run.
+     *
+     * @return the recorder of the run
+     */
+    public TransitionRecorder startRun() {
+        if (everyRuns == 0 || (everyRuns > 1 && runs.getAndIncrement() % everyRuns != 0)) {
+            return NoopRecorder.INSTANCE;
+        }
+        return capacity > 0 ? new RingBufferRecorder(capacity) : new ListRecorder();
+    }
+
+    private static final class NoopRecorder implements TransitionRecorder {
+
+        private static final NoopRecorder INSTANCE = new NoopRecorder();
+
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public void record(TransitionState from, TransitionState to) {
+        }
+
+        @Override
+        public void recordAll(TransitionRecorder branch) {
+        }
+
+        @Override
+        public TransitionRecorder branch() {
+            return this;
+        }
+
+        @Override
+        public List<Transition> transitions() {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Records every transition. A path of a run is only walked by one thread at a time.
+     */
+    private static final class ListRecorder implements TransitionRecorder {
+
+        private final List<Transition> transitions = new ArrayList<>();
+
+        @Override
+        public boolean isRecording() {
+            return true;
+        }
+
+        @Override
+        public void record(TransitionState from, TransitionState to) {
+            transitions.add(Transition.from(from, to));
+        }
+
+        @Override
+        public void recordAll(TransitionRecorder branch) {
+            transitions.addAll(branch.transitions());
+        }
+
+        @Override
+        public TransitionRecorder branch() {
+            return new ListRecorder();
+        }
+
+        @Override
+        public List<Transition> transitions() {
+            return transitions;
+        }
+    }
+
+    /**
+     * Keeps the last transitions in a fixed array of slots claimed with an atomic sequence, so recording never
+     * blocks and never grows the heap.
+     */
+    private static final class RingBufferRecorder implements TransitionRecorder {
+
+        private final AtomicReferenceArray<Transition> slots;
+        private final AtomicLong sequence = new AtomicLong();
+
+        private RingBufferRecorder(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        @Override
+        public boolean isRecording() {
+            return true;
+        }
+
+        @Override
+        public void record(TransitionState from, TransitionState to) {
+            add(Transition.from(from, to));
+        }
+
+        @Override
+        public void recordAll(TransitionRecorder branch) {
+            for (Transition transition : branch.transitions()) {
+                add(transition);
+            }
+        }
+
+        private void add(Transition transition) {
+            long slot = sequence.getAndIncrement();
+            slots.set((int) (slot % slots.length()), transition);
+        }
+
+        @Override
+        public TransitionRecorder branch() {
+            return new RingBufferRecorder(slots.length());
+        }
+
+        @Override
+        public List<Transition> transitions() {
+            long end = sequence.get();
+            long start = Math.max(0, end - slots.length());
+            List<Transition> transitions = new ArrayList<>((int) (end - start));
+            for (long slot = start; slot < end; slot++) {
+                Transition transition = slots.get((int) (slot % slots.length()));
+                if (transition != null) {
+                    transitions.add(transition);
+                }
+            }
+            return transitions;
+        }
+    }
+}
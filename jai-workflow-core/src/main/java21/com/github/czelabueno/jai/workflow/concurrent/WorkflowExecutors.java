@@ -0,0 +1,39 @@
+package com.github.czelabueno.jai.workflow.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory of the executors used by workflows running in virtual-thread mode.
+ * <p>
+ * This is the Java 21 implementation of the multi-release JAR: every workflow run and parallel branch
+ * starts its own virtual thread, so blocking model and HTTP calls do not hold platform threads.
+ */
+public final class WorkflowExecutors {
+
+    private WorkflowExecutors() {
+    }
+
+    /**
+     * Returns whether this runtime supports virtual threads.
+     *
+     * @return true
+     */
+    public static boolean virtualThreadsSupported() {
+        return true;
+    }
+
+    /**
+     * Returns the shared executor that starts a new virtual thread for every workflow run and parallel branch.
+     *
+     * @return the shared executor
+     */
+    public static ExecutorService virtualThreadExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("jai-workflow-", 1).factory());
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BranchStatisticsTest {
+
+    private StateWorkflow<StringBuilder> workflow;
+    private Node<StringBuilder, StringBuilder> node1;
+    private Node<StringBuilder, StringBuilder> node2;
+    private Node<StringBuilder, StringBuilder> node3;
+
+    @BeforeEach
+    void setUp() {
+        node1 = Node.from("node1", sb -> sb.append("1"));
+        node2 = Node.from("node2", sb -> sb.append("2"));
+        node3 = Node.from("node3", sb -> sb.append("3"));
+        workflow = DefaultStateWorkflow.<StringBuilder>builder()
+                .addNodes(asList(node1, node2, node3))
+                .build();
+        workflow.putEdge(node1, Conditional.eval(sb -> node2, node2, node3));
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(node1);
+    }
+
+    @Test
+    void should_return_dominant_branch_once_enough_evaluations_are_counted() {
+        // given
+        ExecutionPlan<StringBuilder> plan = workflow.compile();
+        int edge = plan.soleConditionalEdge(plan.indexOf(node1));
+        BranchStatistics statistics = new BranchStatistics(plan);
+        // when
+        for (int i = 0; i < 4; i++) {
+            statistics.recordBranch(edge, plan.indexOf(node2));
+        }
+        // then
+        assertThat(statistics.dominantBranch(edge, 5, 0.8)).isEqualTo(-1); // not enough samples yet
+        statistics.recordBranch(edge, plan.indexOf(node3));
+        assertThat(statistics.dominantBranch(edge, 5, 0.8)).isEqualTo(plan.indexOf(node2));
+        statistics.recordBranch(edge, plan.indexOf(node3));
+        assertThat(statistics.dominantBranch(edge, 5, 0.8)).isEqualTo(-1); // 4 of 6 evaluations
+    }
+
+    @Test
+    void should_only_count_for_the_plan_they_were_created_for() {
+        // given
+        ExecutionPlan<StringBuilder> plan = workflow.compile();
+        BranchStatistics statistics = new BranchStatistics(plan);
+        // when
+        workflow.putEdge(node2, node3);
+        // then
+        assertThat(statistics.isFor(plan)).isTrue();
+        assertThat(statistics.isFor(workflow.compile())).isFalse();
+    }
+}
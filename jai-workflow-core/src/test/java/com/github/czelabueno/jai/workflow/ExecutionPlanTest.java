@@ -0,0 +1,139 @@
+package com.github.czelabueno.jai.workflow;
+
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.OnError;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ExecutionPlanTest {
+
+    private StateWorkflow<StringBuilder> workflow;
+    private Node<StringBuilder, StringBuilder> node1;
+    private Node<StringBuilder, StringBuilder> node2;
+    private Node<StringBuilder, StringBuilder> node3;
+
+    @BeforeEach
+    void setUp() {
+        node1 = Node.from("node1", sb -> sb.append("1"));
+        node2 = Node.from("node2", sb -> sb.append("2"));
+        node3 = Node.from("node3", sb -> sb.append("3"));
+        workflow = DefaultStateWorkflow.<StringBuilder>builder()
+                .addNodes(asList(node1, node2, node3))
+                .build();
+    }
+
+    @Test
+    void should_compile_valid_workflow_into_indexed_plan() {
+        // given
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, node3);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        ExecutionPlan<StringBuilder> plan = workflow.compile();
+        // then
+        assertThat(plan.isValid()).isTrue();
+        assertThat(plan.nodeCount()).isEqualTo(3);
+        assertThat(plan.startIndex()).isEqualTo(0);
+        assertThat(plan.indexOf(node3)).isEqualTo(2);
+        assertThat(plan.terminalNode()).isEqualTo(node3);
+        assertThat(workflow.compile()).isSameAs(plan); // compiled once until the graph changes
+    }
+
+    @Test
+    void should_recompile_plan_when_graph_changes() {
+        // given
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, node3);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(node1);
+        ExecutionPlan<StringBuilder> plan = workflow.compile();
+        // when
+        workflow.putEdge(node1, node3);
+        // then
+        assertThat(workflow.compile()).isNotSameAs(plan);
+        assertThat(workflow.compile().problems()).isEmpty();
+        assertThat(workflow.run(new StringBuilder()).toString()).isEqualTo("1233"); // node1 -> node2 -> node3 -> END, node1 -> node3 -> END
+    }
+
+    @Test
+    void should_report_unreachable_nodes_and_missing_end_edges() {
+        // given
+        workflow.putEdge(node1, node2);
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.compile())
+                .withMessageContaining("Node 'node3' is unreachable from start node 'node1'")
+                .withMessageContaining("Node 'node2' has no outgoing edges and no transition to END")
+                .withMessageContaining("No reachable node transitions to END");
+        // lenient runs still execute the graph
+        assertThat(workflow.run(new StringBuilder()).toString()).isEqualTo("12");
+    }
+
+    @Test
+    void should_use_declared_conditional_targets_for_reachability() {
+        // given
+        workflow.putEdge(node1, Conditional.eval(sb -> sb.length() > 5 ? node3 : node2, node2, node3));
+        workflow.putEdge(node2, node1);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        ExecutionPlan<StringBuilder> plan = workflow.compile();
+        // then
+        assertThat(plan.problems()).isEmpty();
+        assertThat(workflow.run(new StringBuilder()).toString()).isEqualTo("12121213");
+    }
+
+    @Test
+    void should_throw_illegalStateException_when_start_node_is_not_defined() {
+        // given
+        workflow.putEdge(node1, WorkflowStateName.END);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.compile())
+                .withMessageContaining("Start node is not defined");
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.run(new StringBuilder()));
+    }
+
+    @Test
+    void should_throw_illegalStateException_when_conditional_returns_unknown_node() {
+        // given
+        Node<StringBuilder, StringBuilder> unknown = Node.from("unknown", sb -> sb);
+        workflow.putEdge(node1, Conditional.eval(sb -> unknown));
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.run(new StringBuilder()))
+                .withMessage("Conditional returned node 'unknown' that is not part of the workflow");
+    }
+
+    @Test
+    void should_list_every_transition_of_the_graph() {
+        // given
+        workflow.putEdge(node1, Conditional.eval(sb -> sb.length() > 0 ? node2 : node3, node2, node3));
+        workflow.putEdge(node2, OnError.to(node3));
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        List<Transition> transitions = workflow.compile().graphTransitions();
+        // then
+        assertThat(transitions).containsExactly(
+                Transition.from(WorkflowStateName.START, node1),
+                Transition.from(node1, node2),
+                Transition.from(node1, node3),
+                Transition.from(node2, WorkflowStateName.END),
+                Transition.from(node2, node3),
+                Transition.from(node3, WorkflowStateName.END));
+    }
+}
@@ -1,20 +1,61 @@
 package com.github.czelabueno.jai.workflow;
 
+import com.github.czelabueno.jai.workflow.checkpoint.InMemoryCheckpointStore;
+import com.github.czelabueno.jai.workflow.checkpoint.StateSerializer;
+import com.github.czelabueno.jai.workflow.concurrent.AdmissionController;
+import com.github.czelabueno.jai.workflow.concurrent.SpeculationPolicy;
+import com.github.czelabueno.jai.workflow.graph.TextGraphExporter;
+import com.github.czelabueno.jai.workflow.metrics.InMemoryWorkflowMetrics;
+import com.github.czelabueno.jai.workflow.node.AsyncNode;
 import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.JoinNode;
 import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.NodeListener;
+import com.github.czelabueno.jai.workflow.node.OnError;
+import com.github.czelabueno.jai.workflow.node.SpeculativeNode;
+import com.github.czelabueno.jai.workflow.resilience.CircuitBreaker;
+import com.github.czelabueno.jai.workflow.resilience.CircuitBreakerOpenException;
+import com.github.czelabueno.jai.workflow.resilience.RetryPolicy;
+import com.github.czelabueno.jai.workflow.trace.ExecutionTrace;
+import com.github.czelabueno.jai.workflow.trace.NodeTrace;
+import com.github.czelabueno.jai.workflow.transition.JournaledRun;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.transition.TransitionJournal;
+import com.github.czelabueno.jai.workflow.transition.TransitionRecording;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class StateWorkflowTest {
@@ -85,15 +126,97 @@ class StateWorkflowTest {
     void should_add_transitions_and_run_stream_workflow_and_return_statefulbean_modified() {
         myWorkflow.putEdge(node1, node2);
         myWorkflow.startNode(node1);
-        myWorkflow.runStream(node -> {
-            assertThat(node.getName()).containsIgnoringCase("node");
-            assertThat(node.getFunctionInput()).isNotNull(); // stateful bean must not be null
-            assertThat(node.getFunctionOutput()).asString().containsIgnoringCase("processed function");
-        });
+        myWorkflow.runStream(node -> assertThat(node.getName()).containsIgnoringCase("node"));
         assertEquals(2, myWorkflow.getComputedTransitions().size()); // start -> node1 -> node2
         assertEquals(3, myStatefulBean.value);
     }
 
+    @Test
+    void should_capture_node_inputs_and_outputs_of_each_run_in_its_own_trace() throws Exception {
+        // given
+        myWorkflow.putEdge(node1, node2);
+        myWorkflow.startNode(node1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        List<ExecutionTrace<MyStatefulBean>> traces = List.of(
+                ExecutionTrace.<MyStatefulBean>builder()
+                        .captureInputs(true).inputSummarizer(String::valueOf)
+                        .captureOutputs(true).summarizer(String::valueOf)
+                        .build(),
+                ExecutionTrace.<MyStatefulBean>builder().maxEntries(1).build());
+        // when
+        List<Future<MyStatefulBean>> runs = new ArrayList<>();
+        for (ExecutionTrace<MyStatefulBean> trace : traces) {
+            runs.add(callers.submit(() -> myWorkflow.run(new MyStatefulBean(), trace)));
+        }
+        for (Future<MyStatefulBean> run : runs) {
+            assertEquals(3, run.get().value);
+        }
+        callers.shutdown();
+        // then
+        assertThat(traces.get(0).entries())
+                .extracting(NodeTrace::nodeName, NodeTrace::input, NodeTrace::output)
+                .containsExactly(
+                        tuple("node1", "MyStatefulBean{value=0}", "Node1: processed function"),
+                        tuple("node2", "MyStatefulBean{value=1}", "Node2: processed function"));
+        assertThat(traces.get(1).entries()).singleElement().satisfies(entry -> {
+            assertThat(entry.nodeName()).isEqualTo("node2");
+            assertThat(entry.input()).isNull(); // capture is opt-in
+            assertThat(entry.output()).isNull();
+        });
+        assertThat(traces.get(1).dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void should_capture_input_of_each_execution_of_node_running_on_concurrent_branches() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch secondCompleted = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Node<MyStatefulBean, String> shared = Node.from("shared", obj -> {
+            if (executions.getAndIncrement() == 0) {
+                await(secondCompleted); // the first execution to start completes last
+            }
+            return Thread.currentThread().getName();
+        });
+        Node<MyStatefulBean, String> afterShared = Node.from("after shared", obj -> {
+            secondCompleted.countDown();
+            return "done";
+        });
+        JoinNode<MyStatefulBean, MyStatefulBean> barrier = JoinNode.barrier("barrier");
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2, node3, shared, afterShared, barrier))
+                .executor(executor)
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node1, node3);
+        workflow.putEdge(node2, shared);
+        workflow.putEdge(node3, shared);
+        workflow.putEdge(shared, afterShared);
+        workflow.putEdge(afterShared, barrier);
+        workflow.putEdge(barrier, WorkflowStateName.END);
+        workflow.startNode(node1);
+        ExecutionTrace<MyStatefulBean> trace = ExecutionTrace.<MyStatefulBean>builder()
+                .captureInputs(true)
+                .inputSummarizer(obj -> Thread.currentThread().getName()) // identifies the execution
+                .captureOutputs(true)
+                .build();
+        // when
+        workflow.run(new MyStatefulBean(), trace);
+        executor.shutdown();
+        // then
+        assertThat(trace.entries())
+                .filteredOn(entry -> entry.nodeName().equals("shared"))
+                .hasSize(2)
+                .allSatisfy(entry -> assertThat(entry.input()).isEqualTo(entry.output()));
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_when_capturing_inputs_without_input_summarizer() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ExecutionTrace.<MyStatefulBean>builder().captureInputs(true).build())
+                .withMessage("inputSummarizer is required to capture inputs");
+    }
+
     @Test
     void should_start_node2_and_run_workflow_and_return_statefulbean_modified() {
         // given
@@ -151,12 +274,25 @@ class StateWorkflowTest {
         myWorkflow.putEdge(node2, WorkflowStateName.END);
         myWorkflow.startNode(node1);
         myWorkflow.run();
+        ((DefaultStateWorkflow<MyStatefulBean>) myWorkflow).setGraphImageGenerator(TextGraphExporter.dot());
         String imagePath = "image/my-workflow-from-test.svg";
         myWorkflow.generateWorkflowImage(imagePath);
         Path filePath = Paths.get(imagePath);
         assertThat(Files.exists(filePath)).isTrue();
     }
 
+    @Test
+    void should_fail_to_generate_workflow_image_without_image_generator() {
+        // given
+        myWorkflow.putEdge(node1, WorkflowStateName.END);
+        myWorkflow.startNode(node1);
+        myWorkflow.run();
+        // then, no image generator module is on the classpath of the core module
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> myWorkflow.generateWorkflowImage("image/no-generator.svg"))
+                .withMessageContaining("jai-workflow-graphviz");
+    }
+
     @Test
     void should_throw_illegalArgumentException_for_inconsistent_start_transition(){
         // given
@@ -169,4 +305,1020 @@ class StateWorkflowTest {
                 .isThrownBy(() -> myWorkflow.run())
                 .withMessage("Cannot transition to a START state");
     }
+
+    @SneakyThrows
+    @Test
+    void should_run_workflow_concurrently_with_caller_supplied_state() {
+        // given
+        myWorkflow.putEdge(node1, node2);
+        myWorkflow.putEdge(node2, node3);
+        myWorkflow.putEdge(node3, WorkflowStateName.END);
+        myWorkflow.startNode(node1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<MyStatefulBean>> runs = new ArrayList<>();
+        // when
+        for (int i = 0; i < 50; i++) {
+            runs.add(executor.submit(() -> myWorkflow.run(new MyStatefulBean())));
+        }
+        // then
+        for (Future<MyStatefulBean> run : runs) {
+            assertEquals(6, run.get().value); // each run owns its state
+        }
+        executor.shutdown();
+        assertEquals(0, myStatefulBean.value); // build time bean is untouched
+        assertEquals(4, myWorkflow.getComputedTransitions().size()); // start -> node1 -> node2 -> node3 -> end
+    }
+
+    @Test
+    void should_run_stream_workflow_with_caller_supplied_state() {
+        // given
+        myWorkflow.putEdge(node1, node2);
+        myWorkflow.putEdge(node2, WorkflowStateName.END);
+        myWorkflow.startNode(node1);
+        MyStatefulBean initialState = new MyStatefulBean();
+        // when
+        MyStatefulBean result = myWorkflow.runStream(initialState, node -> assertThat(node.getName()).containsIgnoringCase("node"));
+        // then
+        assertThat(result).isSameAs(initialState);
+        assertEquals(3, result.value);
+        assertEquals(0, myStatefulBean.value);
+    }
+
+    @Test
+    void should_throw_illegalStateException_when_running_without_stateful_bean() {
+        // given
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2))
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(workflow::run);
+        assertEquals(3, workflow.run(new MyStatefulBean()).value);
+    }
+
+    @Test
+    void should_run_long_conditional_loop_with_constant_stack_depth() {
+        // given
+        Node<MyStatefulBean, Integer> increment = Node.from("increment", obj -> obj.value += 1);
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(increment, node4))
+                .maxIterationsPerCycle(200_000)
+                .maxIterationsPerRun(200_001)
+                .build();
+        workflow.putEdge(increment, Conditional.eval(obj -> obj.value < 100_000 ? increment : node4));
+        workflow.putEdge(node4, WorkflowStateName.END);
+        workflow.startNode(increment);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(100_004, result.value); // 100_000 iterations of increment and one of node4 without StackOverflowError
+        assertEquals(100_002, workflow.getComputedTransitions().size());
+    }
+
+    @Test
+    void should_keep_only_last_transitions_of_long_loop_in_ring_buffer() {
+        // given
+        Node<MyStatefulBean, Integer> increment = Node.from("increment", obj -> obj.value += 1);
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(increment, node4))
+                .transitionRecording(TransitionRecording.ringBuffer(3))
+                .build();
+        workflow.putEdge(increment, Conditional.eval(obj -> obj.value < 500 ? increment : node4));
+        workflow.putEdge(node4, WorkflowStateName.END);
+        workflow.startNode(increment);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(504, result.value);
+        assertThat(workflow.prettyTransitions()).isEqualTo("increment -> increment -> node4 -> END");
+    }
+
+    @Test
+    void should_not_record_transitions_when_recording_is_off() {
+        // given
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2))
+                .transitionRecording(TransitionRecording.none())
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(3, result.value);
+        assertThat(workflow.getComputedTransitions()).isEmpty();
+        assertThat(workflow.prettyTransitions()).isEmpty();
+    }
+
+    @Test
+    void should_record_metrics_of_runs_nodes_conditionals_and_loops() {
+        // given
+        InMemoryWorkflowMetrics metrics = new InMemoryWorkflowMetrics();
+        Node<MyStatefulBean, Integer> increment = Node.from("increment", obj -> obj.value += 1);
+        Node<MyStatefulBean, Integer> failing = Node.from("failing", obj -> {
+            throw new IllegalStateException("failing node");
+        });
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(increment, node4, failing))
+                .metrics(metrics)
+                .build();
+        workflow.putEdge(increment, Conditional.eval(obj -> obj.value < 5 ? increment : node4));
+        workflow.putEdge(node4, failing);
+        workflow.putEdge(failing, WorkflowStateName.END);
+        workflow.startNode(increment);
+        // when
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()))
+                .withMessage("failing node");
+        // then
+        assertThat(metrics.runs()).isEqualTo(1);
+        assertThat(metrics.runErrors()).isEqualTo(1);
+        assertThat(metrics.runsInFlight()).isZero();
+        assertThat(metrics.nodeNames()).containsExactlyInAnyOrder("increment", "node4", "failing");
+        InMemoryWorkflowMetrics.NodeMetrics incrementMetrics = metrics.node("increment");
+        assertThat(incrementMetrics.executions()).isEqualTo(5);
+        assertThat(incrementMetrics.loopIterations()).isEqualTo(4);
+        assertThat(incrementMetrics.conditionalLatency().count()).isEqualTo(5);
+        assertThat(incrementMetrics.latency().percentile(99)).isPositive();
+        assertThat(metrics.node("node4").conditionalLatency().count()).isZero();
+        assertThat(metrics.node("failing").executions()).isEqualTo(1);
+        assertThat(metrics.node("failing").errors()).isEqualTo(1);
+        assertThat(metrics.node("failing").inFlight()).isZero();
+    }
+
+    @Test
+    void should_record_node_failure_when_listener_throws_on_start() {
+        // given
+        InMemoryWorkflowMetrics metrics = new InMemoryWorkflowMetrics();
+        Node<MyStatefulBean, Integer> node = Node.from("n", obj -> obj.value += 1);
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(singletonList(node))
+                .metrics(metrics)
+                .build();
+        workflow.putEdge(node, WorkflowStateName.END);
+        workflow.startNode(node);
+        List<Throwable> failures = new ArrayList<>();
+        NodeListener<MyStatefulBean> listener = new NodeListener<>() {
+            @Override
+            public void onStarted(Node<MyStatefulBean, ?> node, MyStatefulBean state) {
+                throw new IllegalStateException("listener failed");
+            }
+
+            @Override
+            public void onFailed(Node<MyStatefulBean, ?> node, MyStatefulBean state, Throwable error, Duration duration) {
+                failures.add(error);
+            }
+        };
+        // when
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(() -> workflow.runAsync(new MyStatefulBean(), listener).join())
+                .withCauseInstanceOf(IllegalStateException.class);
+        // then
+        assertThat(metrics.node("n").inFlight()).isZero();
+        assertThat(metrics.node("n").errors()).isEqualTo(1);
+        assertThat(failures).hasSize(1);
+    }
+
+    @Test
+    void should_stop_run_without_retry_or_fallback_when_listener_throws() {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        Node<MyStatefulBean, Integer> node = Node.from("n", obj -> executions.incrementAndGet());
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node, node2))
+                .retryPolicy(node, RetryPolicy.builder().initialBackoff(Duration.ofMillis(5)).build())
+                .build();
+        workflow.putEdge(node, WorkflowStateName.END);
+        workflow.putEdge(node, OnError.to(node2));
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node);
+        AtomicInteger starts = new AtomicInteger();
+        NodeListener<MyStatefulBean> listener = new NodeListener<>() {
+            @Override
+            public void onStarted(Node<MyStatefulBean, ?> node, MyStatefulBean state) {
+                starts.incrementAndGet();
+                throw new IllegalStateException("listener failed");
+            }
+        };
+        MyStatefulBean state = new MyStatefulBean();
+        // when
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(() -> workflow.runAsync(state, listener).orTimeout(5, TimeUnit.SECONDS).join())
+                .withCauseInstanceOf(IllegalStateException.class);
+        // then
+        assertThat(starts).hasValue(1); // not retried
+        assertThat(executions).hasValue(0);
+        assertEquals(0, state.value); // the fallback node never ran
+    }
+
+    @Test
+    void should_throw_illegalStateException_when_max_iterations_per_cycle_is_exceeded() {
+        // given
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2))
+                .maxIterationsPerCycle(3)
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, Conditional.eval(obj -> node1)); // runaway loop
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()))
+                .withMessage("Maximum iterations per cycle (3) exceeded by node 'node1'");
+        assertEquals(7, workflow.getComputedTransitions().size()); // transitions computed until the loop was cut off
+    }
+
+    @Test
+    void should_throw_illegalStateException_when_max_iterations_per_run_is_exceeded() {
+        // given
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2, node3))
+                .maxIterationsPerRun(2)
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, node3);
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.runStream(new MyStatefulBean(), node -> {}))
+                .withMessage("Maximum iterations per run (2) exceeded by node 'node3'");
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_non_positive_max_iterations() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> DefaultStateWorkflow.<MyStatefulBean>builder()
+                        .addNodes(asList(node1))
+                        .maxIterationsPerCycle(0)
+                        .build())
+                .withMessage("maxIterationsPerCycle must be greater than zero");
+    }
+
+    @Test
+    void should_run_fan_out_branches_concurrently_and_merge_them_in_join() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Node<MyStatefulBean, Integer> vectorSearch = Node.from("vector search", obj -> sleepAndReturn(300, 10));
+        Node<MyStatefulBean, Integer> webSearch = Node.from("web search", obj -> sleepAndReturn(300, 20));
+        JoinNode<MyStatefulBean, Integer> merge = JoinNode.from("merge", (obj, outputs) -> obj.value += outputs.stream().mapToInt(o -> (Integer) o).sum());
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, vectorSearch, webSearch, merge, node4))
+                .executor(executor)
+                .build();
+        workflow.putEdge(node1, vectorSearch);
+        workflow.putEdge(node1, webSearch);
+        workflow.putEdge(vectorSearch, merge);
+        workflow.putEdge(webSearch, merge);
+        workflow.putEdge(merge, node4);
+        workflow.putEdge(node4, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        long start = System.nanoTime();
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+        // then
+        assertEquals(35, result.value); // node1 + both branches merged once + node4
+        assertThat(elapsedMillis).isLessThan(550); // branches overlap
+        assertThat(((DefaultStateWorkflow<MyStatefulBean>) workflow).prettyTransitions())
+                .isEqualTo("START -> node1 -> vector search -> merge node1 -> web search -> merge -> node4 -> END");
+    }
+
+    @Test
+    void should_run_fan_out_branches_sequentially_without_executor() {
+        // given
+        JoinNode<MyStatefulBean, MyStatefulBean> barrier = JoinNode.barrier("barrier");
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2, node3, barrier, node4))
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node1, node3);
+        workflow.putEdge(node2, barrier);
+        workflow.putEdge(node3, barrier);
+        workflow.putEdge(barrier, node4);
+        workflow.startNode(node1);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(10, result.value); // node4 runs once after the barrier
+        assertEquals(6, workflow.getComputedTransitions().size());
+    }
+
+    @Test
+    void should_continue_after_first_branch_when_join_requires_one_of_many() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Node<MyStatefulBean, String> fast = Node.from("fast", obj -> sleepAndReturn(10, "fast"));
+        Node<MyStatefulBean, String> slow = Node.from("slow", obj -> sleepAndReturn(5_000, "slow"));
+        JoinNode<MyStatefulBean, List<Object>> firstWins = JoinNode.from("first wins", 1, (obj, outputs) -> outputs);
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, fast, slow, firstWins))
+                .executor(executor)
+                .build();
+        workflow.putEdge(node1, slow);
+        workflow.putEdge(node1, fast);
+        workflow.putEdge(slow, firstWins);
+        workflow.putEdge(fast, firstWins);
+        workflow.putEdge(firstWins, WorkflowStateName.END);
+        workflow.startNode(node1);
+        ExecutionTrace<MyStatefulBean> trace = ExecutionTrace.<MyStatefulBean>builder().captureOutputs(true).build();
+        // when
+        long start = System.nanoTime();
+        workflow.run(new MyStatefulBean(), trace);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+        // then
+        assertThat(elapsedMillis).isLessThan(2_000); // slow branch is cancelled
+        assertThat(trace.last("first wins")).hasValueSatisfying(entry -> assertThat(entry.output()).isEqualTo(List.of("fast")));
+    }
+
+    @Test
+    void should_propagate_failure_of_parallel_branch() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Node<MyStatefulBean, String> failing = Node.from("failing", obj -> {
+            throw new IllegalArgumentException("branch failed");
+        });
+        JoinNode<MyStatefulBean, MyStatefulBean> barrier = JoinNode.barrier("barrier");
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2, failing, barrier))
+                .executor(executor)
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node1, failing);
+        workflow.putEdge(node2, barrier);
+        workflow.putEdge(failing, barrier);
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()))
+                .withMessage("branch failed");
+        executor.shutdown();
+    }
+
+    @Test
+    void should_run_workflow_and_branches_off_the_caller_thread_in_virtual_threads_mode() {
+        // given
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        Node<MyStatefulBean, Integer> branch1 = Node.from("branch1", obj -> {
+            threads.add(Thread.currentThread());
+            return sleepAndReturn(300, 1);
+        });
+        Node<MyStatefulBean, Integer> branch2 = Node.from("branch2", obj -> {
+            threads.add(Thread.currentThread());
+            return sleepAndReturn(300, 2);
+        });
+        JoinNode<MyStatefulBean, Integer> join = JoinNode.from("join", (obj, outputs) -> obj.value = outputs.stream().mapToInt(o -> (Integer) o).sum());
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, branch1, branch2, join))
+                .virtualThreads(true)
+                .build();
+        workflow.putEdge(node1, branch1);
+        workflow.putEdge(node1, branch2);
+        workflow.putEdge(branch1, join);
+        workflow.putEdge(branch2, join);
+        workflow.putEdge(join, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        long start = System.nanoTime();
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // then
+        assertEquals(3, result.value);
+        assertThat(elapsedMillis).isLessThan(550); // branches overlap
+        assertThat(threads).hasSize(2).doesNotContain(Thread.currentThread());
+    }
+
+    @Test
+    void should_run_async_workflow_without_blocking_on_pending_stages() {
+        // given
+        CompletableFuture<Integer> modelCall = new CompletableFuture<>();
+        AsyncNode<MyStatefulBean, Integer> asyncNode = AsyncNode.fromAsync("async", obj -> modelCall.thenApply(v -> obj.value += v));
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, asyncNode, node2))
+                .build();
+        workflow.putEdge(node1, asyncNode);
+        workflow.putEdge(asyncNode, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        CompletableFuture<MyStatefulBean> run = workflow.runAsync(new MyStatefulBean());
+        // then
+        assertThat(run).isNotDone(); // returned while the stage is pending
+        modelCall.complete(10);
+        MyStatefulBean result = run.join();
+        assertEquals(13, result.value);
+        assertThat(workflow.getComputedTransitions()).hasSize(4);
+    }
+
+    @Test
+    void should_run_async_nodes_in_conditional_loop_and_in_blocking_mode() {
+        // given
+        AsyncNode<MyStatefulBean, Integer> increment = AsyncNode.fromAsync("increment",
+                obj -> CompletableFuture.supplyAsync(() -> obj.value += 1));
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(increment, node4))
+                .build();
+        workflow.putEdge(increment, Conditional.eval(obj -> obj.value < 100 ? increment : node4));
+        workflow.putEdge(node4, WorkflowStateName.END);
+        workflow.startNode(increment);
+        // when
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        MyStatefulBean asyncResult = workflow.runStreamAsync(new MyStatefulBean(), node -> events.add(node.getName())).join();
+        MyStatefulBean blockingResult = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(104, asyncResult.value);
+        assertEquals(104, blockingResult.value);
+        assertThat(events).hasSize(101).endsWith("node4");
+        assertEquals(102, workflow.getComputedTransitions().size());
+    }
+
+    @Test
+    void should_complete_async_run_exceptionally_when_stage_fails() {
+        // given
+        AsyncNode<MyStatefulBean, String> failing = AsyncNode.fromAsync("failing",
+                obj -> CompletableFuture.failedFuture(new IllegalArgumentException("model call failed")));
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, failing, node2))
+                .build();
+        workflow.putEdge(node1, failing);
+        workflow.putEdge(failing, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> workflow.runAsync(new MyStatefulBean()).get())
+                .withCauseInstanceOf(IllegalArgumentException.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()))
+                .withMessage("model call failed");
+    }
+
+    @Test
+    void should_merge_async_branches_in_join() {
+        // given
+        CompletableFuture<Integer> call1 = new CompletableFuture<>();
+        CompletableFuture<Integer> call2 = new CompletableFuture<>();
+        AsyncNode<MyStatefulBean, Integer> branch1 = AsyncNode.fromAsync("branch1", obj -> call1);
+        AsyncNode<MyStatefulBean, Integer> branch2 = AsyncNode.fromAsync("branch2", obj -> call2);
+        JoinNode<MyStatefulBean, Integer> join = JoinNode.from("join", (obj, outputs) -> obj.value = outputs.stream().mapToInt(o -> (Integer) o).sum());
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, branch1, branch2, join))
+                .build();
+        workflow.putEdge(node1, branch1);
+        workflow.putEdge(node1, branch2);
+        workflow.putEdge(branch1, join);
+        workflow.putEdge(branch2, join);
+        workflow.putEdge(join, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        CompletableFuture<MyStatefulBean> run = workflow.runAsync(new MyStatefulBean());
+        call2.complete(20);
+        call1.complete(10);
+        // then
+        assertEquals(30, run.join().value);
+        assertThat(workflow.getComputedTransitions()).hasSize(6);
+    }
+
+    @Test
+    void should_cancel_pending_stage_when_async_run_is_cancelled() {
+        // given
+        CompletableFuture<String> modelCall = new CompletableFuture<>();
+        AsyncNode<MyStatefulBean, String> asyncNode = AsyncNode.fromAsync("async", obj -> modelCall);
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(asyncNode, node2))
+                .build();
+        workflow.putEdge(asyncNode, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(asyncNode);
+        // when
+        MyStatefulBean state = new MyStatefulBean();
+        workflow.runAsync(state).cancel(true);
+        // then
+        assertThat(modelCall).isCancelled();
+        assertEquals(0, state.value); // node2 never ran
+    }
+
+    @Test
+    void should_notify_node_listener_of_started_completed_and_failed_nodes() {
+        // given
+        AsyncNode<MyStatefulBean, String> failing = AsyncNode.fromAsync("failing",
+                obj -> CompletableFuture.supplyAsync(() -> sleepAndReturn(50, "")).thenApply(v -> {
+                    throw new IllegalArgumentException("model call failed");
+                }));
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, failing, node2))
+                .build();
+        workflow.putEdge(node1, failing);
+        workflow.putEdge(failing, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node1);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        NodeListener<MyStatefulBean> listener = new NodeListener<>() {
+            @Override
+            public void onStarted(Node<MyStatefulBean, ?> node, MyStatefulBean state) {
+                events.add("started " + node.getName());
+            }
+
+            @Override
+            public void onCompleted(Node<MyStatefulBean, ?> node, MyStatefulBean state, Object output, Duration duration) {
+                events.add("completed " + node.getName() + " -> " + output);
+            }
+
+            @Override
+            public void onFailed(Node<MyStatefulBean, ?> node, MyStatefulBean state, Throwable error, Duration duration) {
+                assertThat(duration).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+                events.add("failed " + node.getName() + " -> " + error.getMessage());
+            }
+        };
+        // when
+        CompletableFuture<MyStatefulBean> run = workflow.runAsync(new MyStatefulBean(), listener);
+        // then
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(run::get);
+        assertThat(events).containsExactly(
+                "started node1",
+                "completed node1 -> Node1: processed function",
+                "started failing",
+                "failed failing -> model call failed");
+    }
+
+    @Test
+    void should_queue_runs_beyond_admission_limit_and_reject_when_queue_is_full() {
+        // given
+        CompletableFuture<Integer> modelCall = new CompletableFuture<>();
+        AsyncNode<MyStatefulBean, Integer> asyncNode = AsyncNode.fromAsync("async", obj -> modelCall.thenApply(v -> obj.value += v));
+        AdmissionController admission = AdmissionController.builder().maxInFlight(1).maxQueued(1).build();
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(asyncNode, node2))
+                .admissionController(admission)
+                .build();
+        workflow.putEdge(asyncNode, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(asyncNode);
+        // when
+        CompletableFuture<MyStatefulBean> first = workflow.runAsync(new MyStatefulBean());
+        CompletableFuture<MyStatefulBean> second = workflow.runAsync(new MyStatefulBean());
+        // then
+        assertThat(admission.metrics().queueDepth()).isEqualTo(1);
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()));
+        modelCall.complete(1);
+        assertEquals(3, first.join().value);
+        assertEquals(3, second.join().value);
+        assertThat(admission.metrics().inFlight()).isZero();
+        assertThat(admission.metrics().admitted()).isEqualTo(2);
+    }
+
+    @Test
+    void should_interrupt_node_exceeding_its_timeout() {
+        // given
+        Node<MyStatefulBean, String> stuck = Node.from("stuck", obj -> sleepAndReturn(5_000, "late"));
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, stuck))
+                .nodeTimeout(stuck, Duration.ofMillis(100))
+                .build();
+        workflow.putEdge(node1, stuck);
+        workflow.putEdge(stuck, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        long start = System.nanoTime();
+        assertThatExceptionOfType(WorkflowTimeoutException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()))
+                .withMessage("Node 'stuck' exceeded its time budget of PT0.1S");
+        // then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    void should_publish_remaining_budget_to_nodes_and_conditionals() {
+        // given
+        List<Duration> budgets = Collections.synchronizedList(new ArrayList<>());
+        Node<MyStatefulBean, Duration> budgeted = Node.from("budgeted", obj -> {
+            budgets.add(WorkflowContext.current().remaining());
+            return WorkflowContext.current().remaining();
+        });
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(budgeted, node2, node3))
+                .runTimeout(Duration.ofSeconds(10))
+                .nodeTimeout(budgeted, Duration.ofSeconds(2))
+                .build();
+        workflow.putEdge(budgeted, Conditional.eval(obj -> {
+            budgets.add(WorkflowContext.current().remaining());
+            return WorkflowContext.current().remaining().compareTo(Duration.ofSeconds(5)) > 0 ? node2 : node3; // pick the slow path while the budget allows it
+        }, node2, node3));
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(budgeted);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(2, result.value);
+        assertThat(budgets.get(0)).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(2));
+        assertThat(budgets.get(1)).isGreaterThan(Duration.ofSeconds(5)).isLessThanOrEqualTo(Duration.ofSeconds(10));
+        assertThat(WorkflowContext.current()).isSameAs(WorkflowContext.unbounded());
+        assertThat(WorkflowContext.current().deadline()).isEmpty();
+    }
+
+    @Test
+    void should_cancel_async_stage_exceeding_run_deadline() {
+        // given
+        CompletableFuture<String> modelCall = new CompletableFuture<>(); // never completes
+        AsyncNode<MyStatefulBean, String> asyncNode = AsyncNode.fromAsync("async", obj -> modelCall);
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, asyncNode, node2))
+                .runTimeout(Duration.ofMillis(200))
+                .build();
+        workflow.putEdge(node1, asyncNode);
+        workflow.putEdge(asyncNode, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        CompletableFuture<MyStatefulBean> run = workflow.runAsync(new MyStatefulBean());
+        // then
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> run.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(WorkflowTimeoutException.class);
+        assertThat(modelCall).isCancelled();
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_non_positive_timeouts() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> DefaultStateWorkflow.<MyStatefulBean>builder()
+                        .addNodes(asList(node1))
+                        .runTimeout(Duration.ZERO)
+                        .build())
+                .withMessage("runTimeout must be positive");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> DefaultStateWorkflow.<MyStatefulBean>builder()
+                        .addNodes(asList(node1))
+                        .nodeTimeout(node1, Duration.ofMillis(-1))
+                        .build())
+                .withMessage("Timeout of node 'node1' must be positive");
+    }
+
+    @Test
+    void should_retry_failed_node_with_backoff_until_it_succeeds() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        Node<MyStatefulBean, String> flaky = Node.from("flaky", obj -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("model unavailable");
+            }
+            obj.value += 10;
+            return "answer";
+        });
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, flaky))
+                .maxIterationsPerCycle(1) // retries are not iterations
+                .retryPolicy(flaky, RetryPolicy.builder().maxAttempts(3).initialBackoff(Duration.ofMillis(10)).build())
+                .build();
+        workflow.putEdge(node1, flaky);
+        workflow.putEdge(flaky, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(11, result.value);
+        assertThat(calls).hasValue(3);
+        assertEquals(3, workflow.getComputedTransitions().size()); // start -> node1 -> flaky -> end
+    }
+
+    @Test
+    void should_fail_when_retries_are_exhausted_and_no_fallback_edge_is_defined() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        Node<MyStatefulBean, String> failing = Node.from("failing", obj -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("model unavailable");
+        });
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(failing))
+                .retryPolicy(failing, RetryPolicy.builder().maxAttempts(2).initialBackoff(Duration.ofMillis(1)).build())
+                .build();
+        workflow.putEdge(failing, WorkflowStateName.END);
+        workflow.startNode(failing);
+        // when
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean()))
+                .withMessage("model unavailable");
+        // then
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void should_route_failed_node_to_fallback_edge_accepting_the_failure() {
+        // given
+        Node<MyStatefulBean, String> expensive = Node.from("expensive", obj -> {
+            throw new UnsupportedOperationException("context window exceeded");
+        });
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, expensive, node2, node3))
+                .build();
+        workflow.putEdge(node1, expensive);
+        workflow.putEdge(expensive, WorkflowStateName.END);
+        workflow.putEdge(expensive, OnError.to(node2, IllegalArgumentException.class)); // does not accept the failure
+        workflow.putEdge(expensive, OnError.to(node3));
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.putEdge(node3, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // when
+        MyStatefulBean result = workflow.run(new MyStatefulBean());
+        // then
+        assertEquals(4, result.value); // node1 + node3
+        assertThat(((DefaultStateWorkflow<MyStatefulBean>) workflow).prettyTransitions())
+                .isEqualTo("START -> node1 -> expensive -> node3 -> END");
+        assertThat(workflow.compile().isValid()).isTrue(); // the fallback node is reachable
+    }
+
+    @Test
+    void should_fail_fast_to_fallback_while_circuit_breaker_is_open() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        Node<MyStatefulBean, String> provider = Node.from("provider", obj -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("provider down");
+        });
+        CircuitBreaker breaker = CircuitBreaker.builder().failureThreshold(2).openDuration(Duration.ofMinutes(1)).build();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(provider, node2))
+                .circuitBreaker(provider, breaker)
+                .build();
+        workflow.putEdge(provider, WorkflowStateName.END);
+        workflow.putEdge(provider, OnError.to(node2));
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(provider);
+        NodeListener<MyStatefulBean> listener = new NodeListener<>() {
+            @Override
+            public void onFailed(Node<MyStatefulBean, ?> node, MyStatefulBean state, Throwable error, Duration duration) {
+                failures.add(error);
+            }
+        };
+        // when
+        for (int run = 0; run < 4; run++) {
+            assertEquals(2, workflow.runAsync(new MyStatefulBean(), listener).join().value);
+        }
+        // then
+        assertThat(calls).hasValue(2); // the breaker opened after two failures
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(failures).hasSize(4);
+        assertThat(failures.get(3)).isInstanceOf(CircuitBreakerOpenException.class)
+                .hasMessage("Circuit breaker of node 'provider' is open");
+    }
+
+    @Test
+    void should_release_circuit_breaker_trial_when_async_run_is_cancelled() throws InterruptedException {
+        // given
+        AtomicReference<CompletableFuture<String>> modelCall = new AtomicReference<>(new CompletableFuture<>());
+        AsyncNode<MyStatefulBean, String> asyncNode = AsyncNode.fromAsync("async", obj -> modelCall.get());
+        CircuitBreaker breaker = CircuitBreaker.builder().failureThreshold(1).openDuration(Duration.ofMillis(20)).build();
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(asyncNode, node2))
+                .circuitBreaker(asyncNode, breaker)
+                .build();
+        workflow.putEdge(asyncNode, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(asyncNode);
+        breaker.onFailure();
+        Thread.sleep(40);
+        // when
+        workflow.runAsync(new MyStatefulBean()).cancel(true); // cancels the half-open trial
+        modelCall.set(CompletableFuture.completedFuture("answer"));
+        // then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertEquals(2, workflow.runAsync(new MyStatefulBean()).orTimeout(5, TimeUnit.SECONDS).join().value);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void should_retry_async_node_whose_stage_fails() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        AsyncNode<MyStatefulBean, String> asyncNode = AsyncNode.fromAsync("async", obj -> calls.incrementAndGet() == 1
+                ? CompletableFuture.supplyAsync(() -> { throw new IllegalStateException("rate limited"); })
+                : CompletableFuture.supplyAsync(() -> "answer"));
+        StateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(asyncNode, node2))
+                .retryPolicy(asyncNode, RetryPolicy.builder().initialBackoff(Duration.ofMillis(5)).build())
+                .build();
+        workflow.putEdge(asyncNode, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(asyncNode);
+        // when
+        MyStatefulBean result = workflow.runAsync(new MyStatefulBean()).orTimeout(5, TimeUnit.SECONDS).join();
+        // then
+        assertEquals(2, result.value);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void should_speculate_on_dominant_branch_and_commit_or_discard_its_output() {
+        // given
+        AtomicReference<CountDownLatch> computeStarted = new AtomicReference<>(new CountDownLatch(1));
+        AtomicBoolean speculating = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicInteger computes = new AtomicInteger();
+        Node<MyStatefulBean, String> grade = Node.from("grade", obj -> {
+            if (speculating.get()) {
+                overlapped.set(await(computeStarted.get())); // generation starts while grading
+            }
+            obj.value += 1;
+            return "graded";
+        });
+        SpeculativeNode<MyStatefulBean, Integer> generate = SpeculativeNode.from("generate", obj -> {
+            computes.incrementAndGet();
+            computeStarted.get().countDown();
+            return 10;
+        }, (obj, output) -> obj.value += output);
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(grade, generate, node2))
+                .speculationPolicy(SpeculationPolicy.builder().minSamples(2).minBranchRatio(0.9).build())
+                .build();
+        workflow.putEdge(grade, Conditional.eval(obj -> obj.value > 100 ? node2 : generate, generate, node2));
+        workflow.putEdge(generate, WorkflowStateName.END);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(grade);
+        workflow.run(new MyStatefulBean());
+        workflow.run(new MyStatefulBean()); // generate dominates from now on
+        speculating.set(true);
+        // when
+        MyStatefulBean committed = workflow.run(new MyStatefulBean());
+        // then
+        assertThat(overlapped).isTrue();
+        assertEquals(11, committed.value);
+        assertThat(computes).hasValue(3); // the speculative output is committed, not computed again
+        assertThat(workflow.prettyTransitions()).isEqualTo("START -> grade -> generate -> END");
+
+        // when
+        computeStarted.set(new CountDownLatch(1));
+        MyStatefulBean initialState = new MyStatefulBean();
+        initialState.value = 200;
+        MyStatefulBean discarded = workflow.run(initialState);
+        // then
+        assertEquals(203, discarded.value); // grade + node2, the speculative output is not committed
+        assertThat(workflow.prettyTransitions()).isEqualTo("START -> grade -> node2 -> END");
+    }
+
+    @Test
+    void should_resume_failed_run_from_last_checkpoint_without_running_completed_nodes_again() {
+        // given
+        AtomicBoolean crashed = new AtomicBoolean();
+        Node<MyStatefulBean, String> crashing = Node.from("crashing", obj -> {
+            if (crashed.compareAndSet(false, true)) {
+                throw new IllegalStateException("JVM died");
+            }
+            obj.value += 10;
+            return "recovered";
+        });
+        InMemoryCheckpointStore store = new InMemoryCheckpointStore();
+        StateSerializer<MyStatefulBean> serializer = new StateSerializer<>() {
+            @Override
+            public byte[] serialize(MyStatefulBean state) {
+                return String.valueOf(state.value).getBytes();
+            }
+
+            @Override
+            public MyStatefulBean deserialize(byte[] bytes) {
+                MyStatefulBean state = new MyStatefulBean();
+                state.value = Integer.parseInt(new String(bytes));
+                return state;
+            }
+        };
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2, crashing, node4))
+                .checkpointStore(store)
+                .stateSerializer(serializer)
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, crashing);
+        workflow.putEdge(crashing, node4);
+        workflow.putEdge(node4, WorkflowStateName.END);
+        workflow.startNode(node1);
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean(), "run-1"))
+                .withMessage("JVM died");
+        assertThat(store.load("run-1")).hasValueSatisfying(checkpoint -> {
+            assertThat(checkpoint.nodeName()).isEqualTo("crashing");
+            assertThat(checkpoint.sequence()).isEqualTo(1); // after node1 and node2
+        });
+        // when
+        MyStatefulBean resumed = workflow.resume("run-1");
+        // then
+        assertEquals(17, resumed.value); // 3 restored from the checkpoint, crashing and node4 only
+        assertThat(workflow.prettyTransitions()).isEqualTo("crashing -> node4 -> END");
+        assertThat(store.size()).isZero(); // checkpoints of completed runs are deleted
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> workflow.resume("run-1"))
+                .withMessage("No checkpoint found for run 'run-1'");
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> ((DefaultStateWorkflow<MyStatefulBean>) myWorkflow).resume("run-1"))
+                .withMessage("No checkpoint store defined in the workflow");
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_when_checkpointed_state_is_not_serializable() {
+        // given
+        DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                .addNodes(asList(node1, node2))
+                .checkpointStore(new InMemoryCheckpointStore())
+                .build();
+        workflow.putEdge(node1, node2);
+        workflow.putEdge(node2, WorkflowStateName.END);
+        workflow.startNode(node1);
+        // then
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> workflow.run(new MyStatefulBean(), "run-1"))
+                .withMessageEndingWith("MyStatefulBean must be Serializable to be checkpointed with Java serialization, or a stateSerializer must be defined");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> DefaultStateWorkflow.<MyStatefulBean>builder()
+                        .statefulBean(new MyStatefulBean())
+                        .addNodes(asList(node1, node2))
+                        .checkpointStore(new InMemoryCheckpointStore())
+                        .build());
+    }
+
+    @Test
+    void should_journal_transitions_of_every_run(@TempDir Path directory) {
+        // given
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                    .addNodes(asList(node1, node2))
+                    .transitionJournal(journal)
+                    .build();
+            workflow.putEdge(node1, node2);
+            workflow.putEdge(node2, WorkflowStateName.END);
+            workflow.startNode(node1);
+            // when
+            workflow.run(new MyStatefulBean());
+            List<Transition> firstRun = workflow.getComputedTransitions();
+            workflow.run(new MyStatefulBean());
+            // then
+            assertThat(journal.lastRunId()).isEqualTo(2);
+            assertThat(workflow.getJournaledTransitions(1)).containsExactlyElementsOf(firstRun);
+            assertThat(workflow.getJournaledTransitions(2)).containsExactlyElementsOf(workflow.getComputedTransitions());
+        }
+    }
+
+    @Test
+    void should_return_journaled_run_ids_of_concurrent_and_failed_runs(@TempDir Path directory) {
+        // given
+        Node<MyStatefulBean, Integer> failing = Node.from("failing", obj -> {
+            if (obj.value > 1) {
+                throw new IllegalStateException("failing node");
+            }
+            return obj.value;
+        });
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            DefaultStateWorkflow<MyStatefulBean> workflow = DefaultStateWorkflow.<MyStatefulBean>builder()
+                    .addNodes(asList(node1, failing))
+                    .transitionJournal(journal)
+                    .build();
+            workflow.putEdge(node1, failing);
+            workflow.putEdge(failing, WorkflowStateName.END);
+            workflow.startNode(node1);
+            // when
+            List<CompletableFuture<JournaledRun<MyStatefulBean>>> runs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                MyStatefulBean state = new MyStatefulBean();
+                state.value = i % 2; // odd runs reach 2 in node1 and fail
+                runs.add(CompletableFuture.supplyAsync(() -> workflow.runJournaled(state)));
+            }
+            // then
+            Set<Long> runIds = new HashSet<>();
+            for (CompletableFuture<JournaledRun<MyStatefulBean>> future : runs) {
+                JournaledRun<MyStatefulBean> run = future.join();
+                runIds.add(run.runId());
+                if (run.outcome() == TransitionJournal.Outcome.SUCCEEDED) {
+                    assertThat(run.state().value).isEqualTo(1);
+                    assertThat(workflow.getJournaledTransitions(run.runId())).hasSize(3);
+                } else {
+                    assertThat(run.outcome()).isEqualTo(TransitionJournal.Outcome.FAILED);
+                    assertThat(run.error()).hasMessage("failing node");
+                    assertThat(workflow.getJournaledTransitions(run.runId())).hasSize(2); // START -> node1 -> failing
+                }
+            }
+            assertThat(runIds).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+            JournaledRun<MyStatefulBean> async = workflow.runJournaledAsync(new MyStatefulBean()).join();
+            assertThat(async.runId()).isEqualTo(9);
+            assertThatExceptionOfType(IllegalStateException.class)
+                    .isThrownBy(() -> ((DefaultStateWorkflow<MyStatefulBean>) myWorkflow).runJournaled(new MyStatefulBean()))
+                    .withMessage("No transition journal defined in the workflow");
+        }
+    }
+
+    @SneakyThrows
+    private static boolean await(CountDownLatch latch) {
+        return latch.await(2, TimeUnit.SECONDS);
+    }
+
+    @SneakyThrows
+    private static <R> R sleepAndReturn(long millis, R value) {
+        Thread.sleep(millis);
+        return value;
+    }
 }
@@ -0,0 +1,80 @@
+package com.github.czelabueno.jai.workflow.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ResultCacheTest {
+
+    @Test
+    void should_evict_least_recently_used_entry_beyond_max_entries() {
+        // given
+        ResultCache<String, String> cache = ResultCache.<String, String>builder().maxEntries(2L).build();
+        cache.put("a", "A");
+        cache.put("b", "B");
+        // when
+        cache.get("a"); // b is now the least recently used
+        cache.put("c", "C");
+        // then
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("C");
+        CacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(3);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.evictions()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.75);
+    }
+
+    @Test
+    void should_evict_entries_beyond_max_weight_and_skip_heavier_results() {
+        // given
+        ResultCache<String, String> cache = ResultCache.<String, String>builder()
+                .maxWeight(10L)
+                .weigher(String::length)
+                .build();
+        // when
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        cache.put("c", "123"); // 12 > 10, a is evicted
+        cache.put("d", "12345678901"); // heavier than the cache
+        // then
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("d")).isNull();
+        assertThat(cache.stats().size()).isEqualTo(2);
+        assertThat(cache.stats().weight()).isEqualTo(7);
+    }
+
+    @Test
+    void should_drop_expired_entries() throws InterruptedException {
+        // given
+        ResultCache<String, String> cache = ResultCache.<String, String>builder()
+                .maxEntries(10L)
+                .ttl(Duration.ofMillis(30))
+                .build();
+        cache.put("a", "A");
+        assertThat(cache.get("a")).isEqualTo("A");
+        // when
+        Thread.sleep(60);
+        // then
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.stats().expirations()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_invalid_bounds() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ResultCache.builder().build())
+                .withMessage("maxEntries or maxWeight must be defined");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ResultCache.builder().maxWeight(10L).build())
+                .withMessage("weigher must be defined with maxWeight");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ResultCache.builder().maxEntries(10L).ttl(Duration.ZERO).build())
+                .withMessage("ttl must be positive");
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.czelabueno.jai.workflow.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class FileCheckpointStoreTest {
+
+    @TempDir
+    Path directory;
+
+    record Answer(String question, String generation) implements Serializable {
+    }
+
+    @Test
+    void should_load_latest_checkpoint_of_run() {
+        // given
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        StateSerializer<Answer> serializer = StateSerializer.java();
+        // when
+        store.save(new Checkpoint("run-1", 0, 1, "grade", serializer.serialize(new Answer("why?", null)), Instant.now()));
+        store.save(new Checkpoint("run-1", 1, 2, "generate", serializer.serialize(new Answer("why?", "because")), Instant.now()));
+        store.save(new Checkpoint("run-2", 0, 1, "grade", new byte[0], Instant.now()));
+        // then
+        Checkpoint latest = new FileCheckpointStore(directory).load("run-1").orElseThrow(); // survives the store
+        assertThat(latest.sequence()).isEqualTo(1);
+        assertThat(latest.nodeIndex()).isEqualTo(2);
+        assertThat(latest.nodeName()).isEqualTo("generate");
+        assertThat(serializer.deserialize(latest.state())).isEqualTo(new Answer("why?", "because"));
+        assertThat(store.load("run-3")).isEmpty();
+    }
+
+    @Test
+    void should_ignore_record_torn_by_a_crash() throws IOException {
+        // given
+        FileCheckpointStore store = new FileCheckpointStore(directory, false);
+        store.save(new Checkpoint("run-1", 0, 1, "grade", new byte[]{1, 2, 3}, Instant.now()));
+        Path file = directory.resolve("run-1.ckpt");
+        byte[] valid = Files.readAllBytes(file);
+        store.save(new Checkpoint("run-1", 1, 2, "generate", new byte[]{4, 5, 6}, Instant.now()));
+        byte[] both = Files.readAllBytes(file);
+        // when
+        Files.write(file, Arrays.copyOf(both, both.length - 3)); // the second record is cut short
+        // then
+        assertThat(both.length).isGreaterThan(valid.length);
+        assertThat(store.load("run-1")).hasValueSatisfying(checkpoint -> {
+            assertThat(checkpoint.sequence()).isZero();
+            assertThat(checkpoint.state()).containsExactly(1, 2, 3);
+        });
+    }
+
+    @Test
+    void should_delete_checkpoints_of_run() {
+        // given
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        store.save(new Checkpoint("run-1", 0, 1, "grade", new byte[0], Instant.now()));
+        // when
+        store.delete("run-1");
+        // then
+        assertThat(store.load("run-1")).isEmpty();
+        assertThat(directory.resolve("run-1.ckpt")).doesNotExist();
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_run_id_that_is_not_a_file_name() {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> store.load("../run-1"))
+                .withMessage("Run id must only contain letters, digits, '.', '_' or '-': ../run-1");
+    }
+}
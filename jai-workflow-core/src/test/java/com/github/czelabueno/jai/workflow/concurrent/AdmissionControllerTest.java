@@ -0,0 +1,157 @@
+package com.github.czelabueno.jai.workflow.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AdmissionControllerTest {
+
+    @Test
+    void should_reject_when_max_in_flight_is_reached_without_queue() {
+        // given
+        AdmissionController admission = AdmissionController.builder().maxInFlight(1).build();
+        // when
+        AdmissionController.Permit permit = admission.acquire();
+        // then
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(admission::acquire)
+                .withMessageStartingWith("Workflow admission rejected");
+        permit.close();
+        permit.close(); // idempotent
+        assertThat(admission.acquire().waitTime()).isEqualTo(Duration.ZERO);
+        assertThat(admission.metrics().inFlight()).isEqualTo(1);
+        assertThat(admission.metrics().rejected()).isEqualTo(1);
+        assertThat(admission.metrics().admitted()).isEqualTo(2);
+    }
+
+    @Test
+    void should_admit_queued_requests_in_arrival_order_when_permits_are_released() throws Exception {
+        // given
+        AdmissionController admission = AdmissionController.builder().maxInFlight(1).maxQueued(2).build();
+        AdmissionController.Permit first = admission.acquire();
+        // when
+        CompletableFuture<AdmissionController.Permit> second = admission.acquireAsync();
+        CompletableFuture<AdmissionController.Permit> third = admission.acquireAsync();
+        // then
+        assertThat(second).isNotDone();
+        assertThat(admission.metrics().queueDepth()).isEqualTo(2);
+        Thread.sleep(20);
+        first.close();
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+        assertThat(second.get().waitTime()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        second.get().close();
+        third.get().close();
+        AdmissionController.Metrics metrics = admission.metrics();
+        assertThat(metrics.inFlight()).isZero();
+        assertThat(metrics.queueDepth()).isZero();
+        assertThat(metrics.admitted()).isEqualTo(3);
+        assertThat(metrics.maxWaitTime()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        assertThat(metrics.meanWaitTime()).isPositive();
+    }
+
+    @Test
+    void should_time_out_queued_request() {
+        // given
+        AdmissionController admission = AdmissionController.builder()
+                .maxInFlight(1)
+                .maxQueued(1)
+                .queueTimeout(Duration.ofMillis(50))
+                .build();
+        admission.acquire();
+        // then
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(admission::acquire)
+                .withMessageStartingWith("Timed out after PT0.05S");
+        assertThat(admission.metrics().timedOut()).isEqualTo(1);
+        assertThat(admission.metrics().queueDepth()).isZero();
+    }
+
+    @Test
+    void should_shed_oldest_queued_request_when_queue_is_full() {
+        // given
+        AdmissionController admission = AdmissionController.builder()
+                .maxInFlight(1)
+                .maxQueued(1)
+                .overflowPolicy(AdmissionController.OverflowPolicy.SHED_OLDEST)
+                .build();
+        AdmissionController.Permit permit = admission.acquire();
+        CompletableFuture<AdmissionController.Permit> oldest = admission.acquireAsync();
+        // when
+        CompletableFuture<AdmissionController.Permit> newest = admission.acquireAsync();
+        // then
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(oldest::get)
+                .withCauseInstanceOf(RejectedExecutionException.class);
+        permit.close();
+        assertThat(newest).isCompleted();
+        assertThat(admission.metrics().shed()).isEqualTo(1);
+    }
+
+    @Test
+    void should_withdraw_cancelled_request_from_queue() {
+        // given
+        AdmissionController admission = AdmissionController.builder().maxInFlight(1).maxQueued(1).build();
+        AdmissionController.Permit permit = admission.acquire();
+        CompletableFuture<AdmissionController.Permit> queued = admission.acquireAsync();
+        // when
+        queued.cancel(false);
+        // then
+        assertThat(admission.metrics().queueDepth()).isZero();
+        permit.close();
+        assertThat(admission.metrics().inFlight()).isZero();
+    }
+
+    @Test
+    void should_time_out_only_requests_still_waiting() throws InterruptedException {
+        // given
+        AdmissionController admission = AdmissionController.builder()
+                .maxInFlight(1)
+                .maxQueued(100)
+                .queueTimeout(Duration.ofMillis(200))
+                .build();
+        AdmissionController.Permit permit = admission.acquire();
+        List<CompletableFuture<AdmissionController.Permit>> queued = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            queued.add(admission.acquireAsync());
+        }
+        // when
+        for (int i = 0; i < 99; i += 2) {
+            queued.get(i).cancel(false);
+        }
+        permit.close();
+        for (int i = 1; i < 98; i += 2) {
+            queued.get(i).join().close();
+        }
+        AdmissionController.Permit last = queued.get(99).join(); // keeps the permit while the last request waits
+        CompletableFuture<AdmissionController.Permit> waiting = admission.acquireAsync();
+        Thread.sleep(400); // past the queue timeout of every request
+        last.close();
+        // then
+        assertThat(waiting).isCompletedExceptionally();
+        assertThat(admission.metrics().timedOut()).isEqualTo(1);
+        assertThat(admission.metrics().admitted()).isEqualTo(51);
+        assertThat(admission.metrics().inFlight()).isZero();
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_invalid_limits() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> AdmissionController.builder().maxInFlight(0).build())
+                .withMessage("maxInFlight must be greater than zero");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> AdmissionController.builder().maxInFlight(1).maxQueued(-1).build())
+                .withMessage("maxQueued cannot be negative");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> AdmissionController.builder().maxInFlight(1).queueTimeout(Duration.ZERO).build())
+                .withMessage("queueTimeout must be positive");
+    }
+}
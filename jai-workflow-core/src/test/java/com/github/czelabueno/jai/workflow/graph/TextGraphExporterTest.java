@@ -0,0 +1,84 @@
+package com.github.czelabueno.jai.workflow.graph;
+
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TextGraphExporterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private final Node<String, String> retrieve = Node.from("retrieve documents", s -> s);
+    private final Node<String, String> grade = Node.from("grade", s -> s);
+
+    private final List<Transition> transitions = List.of(
+            Transition.from(WorkflowStateName.START, retrieve),
+            Transition.from(retrieve, grade),
+            Transition.from(grade, retrieve), // loop taken twice
+            Transition.from(retrieve, grade),
+            Transition.from(grade, WorkflowStateName.END));
+
+    @Test
+    void should_export_distinct_edges_as_dot() {
+        assertThat(TextGraphExporter.dot().export(transitions)).isEqualTo(
+                "digraph workflow {" + NL +
+                " node [style=filled,fillcolor=lightgrey]" + NL +
+                " rankdir=LR;" + NL +
+                " beautify=true" + NL +
+                NL +
+                " start -> RetrieveDocuments;" + NL +
+                " RetrieveDocuments -> Grade;" + NL +
+                " Grade -> RetrieveDocuments;" + NL +
+                " Grade -> end;" + NL +
+                NL +
+                " start [shape=Mdiamond, fillcolor=\"orange\"];" + NL +
+                " end [shape=Msquare, fillcolor=\"lightgreen\"];" + NL +
+                "}");
+    }
+
+    @Test
+    void should_export_distinct_edges_as_mermaid() throws IOException {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // when
+        TextGraphExporter.mermaid().export(transitions, output);
+        // then
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "flowchart LR" + NL +
+                "    __start__([START]) --> RetrieveDocuments[\"retrieve documents\"]" + NL +
+                "    RetrieveDocuments --> Grade[\"grade\"]" + NL +
+                "    Grade --> RetrieveDocuments" + NL +
+                "    Grade --> __end__([END])" + NL);
+    }
+
+    @Test
+    void should_recompute_text_for_every_topology(@TempDir Path directory) throws IOException {
+        // given
+        GraphImageGenerator generator = TextGraphExporter.mermaid();
+        Path path = directory.resolve("workflow.mmd");
+        // when
+        generator.generateImage(transitions, path.toString());
+        generator.generateImage(List.of(Transition.from(WorkflowStateName.START, grade)), path.toString());
+        // then
+        assertThat(Files.readString(path)).isEqualTo("flowchart LR" + NL + "    __start__([START]) --> Grade[\"grade\"]" + NL);
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_empty_transitions() {
+        assertThatThrownBy(() -> TextGraphExporter.dot().export(List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transitions list can not be null or empty. Cannot export graph.");
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.czelabueno.jai.workflow.graph;
+
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class WorkflowImageRendererTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private final GraphImageGenerator generator = (transitions, outputPath) -> {
+        renders.incrementAndGet();
+        Files.writeString(Path.of(outputPath), "<svg>" + transitions.size() + "</svg>");
+    };
+
+    private final Node<String, String> retrieve = Node.from("retrieve", s -> s);
+    private final Node<String, String> generate = Node.from("generate", s -> s);
+
+    @Test
+    void should_render_each_topology_once() throws IOException {
+        // given
+        List<Transition> run = List.of(
+                Transition.from(WorkflowStateName.START, retrieve),
+                Transition.from(retrieve, generate),
+                Transition.from(generate, WorkflowStateName.END));
+        List<Transition> sameGraph = List.of( // other order and repeated edges
+                Transition.from(retrieve, generate),
+                Transition.from(WorkflowStateName.START, retrieve),
+                Transition.from(retrieve, generate),
+                Transition.from(generate, WorkflowStateName.END));
+        Path image = directory.resolve("workflow.svg");
+        Path copy = directory.resolve("copy.svg");
+        try (WorkflowImageRenderer renderer = WorkflowImageRenderer.builder().generator(generator).build()) {
+            // when
+            CompletableFuture<Path> first = renderer.render(run, image);
+            CompletableFuture<Path> concurrent = renderer.render(sameGraph, image);
+            first.join();
+            concurrent.join();
+            CompletableFuture<Path> unchanged = renderer.render(sameGraph, image);
+            renderer.render(run, copy).join();
+            // then
+            assertThat(unchanged).isCompletedWithValue(image.toAbsolutePath());
+            assertThat(renders).hasValue(1);
+            assertThat(renderer.cachedImages()).isEqualTo(1);
+            assertThat(Files.readString(copy)).isEqualTo(Files.readString(image)).isEqualTo("<svg>3</svg>");
+        }
+    }
+
+    @Test
+    void should_render_again_once_topology_changes() {
+        // given
+        Path image = directory.resolve("workflow.svg");
+        try (WorkflowImageRenderer renderer = WorkflowImageRenderer.builder().generator(generator).cacheSize(1).build()) {
+            // when
+            renderer.render(List.of(Transition.from(WorkflowStateName.START, retrieve)), image).join();
+            renderer.render(List.of(Transition.from(WorkflowStateName.START, generate)), image).join();
+            renderer.render(List.of(Transition.from(WorkflowStateName.START, retrieve)), image).join();
+            // then
+            assertThat(renders).hasValue(3); // the first image was evicted from the cache
+            assertThat(renderer.cachedImages()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void should_retry_failed_rendering_on_next_request() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        GraphImageGenerator failingOnce = (transitions, outputPath) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("engine not ready");
+            }
+            generator.generateImage(transitions, outputPath);
+        };
+        List<Transition> run = List.of(Transition.from(WorkflowStateName.START, retrieve));
+        Path image = directory.resolve("workflow.svg");
+        try (WorkflowImageRenderer renderer = WorkflowImageRenderer.builder().generator(failingOnce).build()) {
+            // when
+            CompletableFuture<Path> failed = renderer.render(run, image);
+            // then
+            assertThatExceptionOfType(CompletionException.class)
+                    .isThrownBy(failed::join)
+                    .withRootCauseInstanceOf(IOException.class);
+            assertThat(renderer.render(run, image).join()).exists();
+            assertThat(attempts).hasValue(2);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void should_report_percentiles_within_histogram_precision() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        // when
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        // then
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.max()).isEqualTo(Duration.ofMillis(1));
+        assertThat(histogram.total()).isEqualTo(Duration.ofNanos(500_500_000));
+        assertThat((double) histogram.percentile(50).toNanos()).isCloseTo(500_000, within(500_000 * 0.016));
+        assertThat((double) histogram.percentile(99).toNanos()).isCloseTo(990_000, within(990_000 * 0.016));
+        assertThat(histogram.percentile(100)).isEqualTo(Duration.ofMillis(1)); // capped by the largest latency
+    }
+
+    @Test
+    void should_count_small_latencies_exactly_and_clamp_huge_ones() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        // when
+        histogram.record(-5);
+        histogram.record(42);
+        histogram.record(Long.MAX_VALUE);
+        // then
+        assertThat(histogram.percentile(0)).isEqualTo(Duration.ZERO);
+        assertThat(histogram.percentile(50)).isEqualTo(Duration.ofNanos(42));
+        assertThat(histogram.percentile(100)).isGreaterThan(Duration.ofHours(1));
+        assertThat(histogram.max()).isEqualTo(Duration.ofNanos(Long.MAX_VALUE));
+    }
+
+    @Test
+    void should_return_zero_percentile_when_empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(99)).isEqualTo(Duration.ZERO);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> histogram.percentile(101))
+                .withMessage("percentile must be between 0 and 100");
+    }
+
+    @Test
+    void should_record_latencies_concurrently() throws InterruptedException {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        // when
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(1_000);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        // then
+        assertThat(histogram.count()).isEqualTo(40_000);
+        assertThat(histogram.percentile(50)).isEqualTo(Duration.ofNanos(1_000));
+    }
+}
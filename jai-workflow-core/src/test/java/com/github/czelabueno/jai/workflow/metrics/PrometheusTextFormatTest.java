@@ -0,0 +1,51 @@
+package com.github.czelabueno.jai.workflow.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrometheusTextFormatTest {
+
+    @Test
+    void should_export_run_and_node_metrics_in_prometheus_text_format() {
+        // given
+        InMemoryWorkflowMetrics metrics = new InMemoryWorkflowMetrics();
+        metrics.onRunStarted();
+        metrics.onNodeStarted("retrieve");
+        metrics.onNodeCompleted("retrieve", 2_000_000);
+        metrics.onConditionalEvaluated("retrieve", 1_000);
+        metrics.onNodeStarted("retrieve");
+        metrics.onLoopIteration("retrieve");
+        metrics.onNodeFailed("retrieve", 3_000_000, new IllegalStateException("failed"));
+        metrics.onRunCompleted(5_000_000, new IllegalStateException("failed"));
+        metrics.onRunStarted();
+        // when
+        String text = PrometheusTextFormat.scrape(metrics);
+        // then
+        assertThat(text)
+                .contains("# TYPE jai_workflow_run_duration_seconds summary\n")
+                .contains("jai_workflow_run_duration_seconds{quantile=\"0.99\"} 0.005\n")
+                .contains("jai_workflow_run_duration_seconds_count 1\n")
+                .contains("jai_workflow_run_errors_total 1\n")
+                .contains("jai_workflow_runs_in_flight 1\n")
+                .contains("jai_workflow_node_duration_seconds{node=\"retrieve\",quantile=\"0.5\"} 0.002")
+                .contains("jai_workflow_node_duration_seconds_sum{node=\"retrieve\"} 0.005\n")
+                .contains("jai_workflow_node_duration_seconds_count{node=\"retrieve\"} 2\n")
+                .contains("jai_workflow_node_errors_total{node=\"retrieve\"} 1\n")
+                .contains("jai_workflow_node_loop_iterations_total{node=\"retrieve\"} 1\n")
+                .contains("jai_workflow_node_in_flight{node=\"retrieve\"} 0\n")
+                .contains("jai_workflow_conditional_duration_seconds_count{node=\"retrieve\"} 1\n");
+    }
+
+    @Test
+    void should_escape_node_names_in_labels() {
+        // given
+        InMemoryWorkflowMetrics metrics = new InMemoryWorkflowMetrics();
+        metrics.onNodeStarted("say \"hi\"\\");
+        metrics.onNodeCompleted("say \"hi\"\\", 1_000);
+        // then
+        assertThat(PrometheusTextFormat.scrape(metrics))
+                .contains("jai_workflow_node_errors_total{node=\"say \\\"hi\\\"\\\\\"} 0\n")
+                .doesNotContain("jai_workflow_conditional_duration_seconds{");
+    }
+}
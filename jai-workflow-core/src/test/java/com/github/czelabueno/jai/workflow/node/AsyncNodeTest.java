@@ -0,0 +1,31 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AsyncNodeTest {
+
+    @Test
+    void test_execute_returns_stage_without_waiting() {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        AsyncNode<StringBuilder, String> node = AsyncNode.fromAsync("async", sb -> response.thenApply(sb::append).thenApply(StringBuilder::toString));
+        StringBuilder state = new StringBuilder("hello ");
+        CompletionStage<String> stage = node.execute(state);
+        assertThat(stage.toCompletableFuture()).isNotDone();
+        response.complete("world");
+        assertThat(stage.toCompletableFuture().join()).isEqualTo("hello world");
+        assertThat(node.getName()).isEqualTo("async");
+    }
+
+    @Test
+    void test_empty_name() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> AsyncNode.fromAsync("", sb -> CompletableFuture.completedFuture("")))
+                .withMessage("Node name cannot be empty");
+    }
+}
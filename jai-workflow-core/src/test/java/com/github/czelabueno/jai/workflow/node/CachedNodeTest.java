@@ -0,0 +1,75 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import com.github.czelabueno.jai.workflow.cache.ResultCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class CachedNodeTest {
+
+    static class Question {
+        String text;
+        String answer;
+
+        Question(String text) {
+            this.text = text;
+        }
+    }
+
+    @Test
+    void test_skip_node_and_write_back_cached_output_on_hit() {
+        AtomicInteger calls = new AtomicInteger();
+        Node<Question, String> answer = Node.from("answer", question -> {
+            calls.incrementAndGet();
+            question.answer = "answer to " + question.text;
+            return question.answer;
+        });
+        CachedNode<Question, String> cached = CachedNode.<Question, String>builder()
+                .node(answer)
+                .keyExtractor(question -> question.text)
+                .writeBack((question, output) -> question.answer = output)
+                .cache(ResultCache.<Object, String>builder().maxEntries(10L).build())
+                .build();
+
+        cached.execute(new Question("why?"));
+        Question repeated = new Question("why?");
+        String output = cached.execute(repeated);
+
+        assertThat(output).isEqualTo("answer to why?");
+        assertThat(repeated.answer).isEqualTo("answer to why?");
+        assertThat(calls).hasValue(1);
+        assertThat(cached.getName()).isEqualTo("answer");
+        assertThat(cached.stats().hits()).isEqualTo(1);
+        assertThat(cached.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void test_bypass_cache_without_key() {
+        AtomicInteger calls = new AtomicInteger();
+        CachedNode<Question, String> cached = CachedNode.<Question, String>builder()
+                .node(Node.from("answer", question -> "answer " + calls.incrementAndGet()))
+                .keyExtractor(question -> question.text)
+                .cache(ResultCache.<Object, String>builder().maxEntries(10L).build())
+                .build();
+
+        cached.execute(new Question(null));
+        cached.execute(new Question(null));
+
+        assertThat(calls).hasValue(2);
+        assertThat(cached.stats().misses()).isZero();
+    }
+
+    @Test
+    void test_reject_async_node() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new CachedNode(AsyncNode.fromAsync("async", question -> CompletableFuture.completedFuture("")),
+                        question -> question,
+                        null,
+                        ResultCache.builder().maxEntries(10L).build()))
+                .withMessage("Node 'async' cannot be cached: only synchronous nodes can");
+    }
+}
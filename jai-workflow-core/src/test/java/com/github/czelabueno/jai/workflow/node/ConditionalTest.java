@@ -55,6 +55,15 @@ class ConditionalTest {
         assertThat(conditional).isNotNull();
     }
 
+    @Test
+    void test_eval_with_declared_targets() {
+        Node<String, String> node1 = Node.from("node1", (String s1) -> s1 + "1");
+        Node<String, String> node2 = Node.from("node2", (String s1) -> s1 + "2");
+        Conditional<String> conditional = Conditional.eval(s -> s.isEmpty() ? node1 : node2, node1, node2);
+        assertThat(conditional.getTargets()).containsExactly(node1, node2);
+        assertThat(Conditional.eval((String s) -> node1).getTargets()).isEmpty();
+    }
+
     @Test
     void test_equals_and_hash() {
         Function<String, Node> condition1 = s -> Node.from(s, (String s1) -> s1 + "1");
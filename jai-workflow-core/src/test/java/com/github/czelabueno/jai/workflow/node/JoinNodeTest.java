@@ -0,0 +1,47 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class JoinNodeTest {
+
+    @Test
+    void test_join_merges_branch_outputs() {
+        JoinNode<StringBuilder, String> join = JoinNode.from("join", (sb, outputs) -> sb.append(outputs).toString());
+        assertThat(join.getRequiredBranches()).isEqualTo(JoinNode.ALL_BRANCHES);
+        assertThat(join.join(new StringBuilder("merged"), List.of("a", "b"))).isEqualTo("merged[a, b]");
+    }
+
+    @Test
+    void test_execute_merges_empty_branch_outputs() {
+        JoinNode<StringBuilder, String> join = JoinNode.from("join", 2, (sb, outputs) -> sb.append(outputs).toString());
+        assertThat(join.getRequiredBranches()).isEqualTo(2);
+        assertThat(join.execute(new StringBuilder())).isEqualTo("[]");
+    }
+
+    @Test
+    void test_barrier_returns_state() {
+        JoinNode<StringBuilder, StringBuilder> barrier = JoinNode.barrier("barrier");
+        StringBuilder state = new StringBuilder();
+        assertThat(barrier.join(state, List.of("ignored"))).isSameAs(state);
+    }
+
+    @Test
+    void test_negative_required_branches() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> JoinNode.from("join", -1, (sb, outputs) -> sb))
+                .withMessage("Required branches cannot be negative");
+    }
+
+    @Test
+    void test_null_join_input() {
+        JoinNode<StringBuilder, StringBuilder> barrier = JoinNode.barrier("barrier");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> barrier.join(null, List.of()))
+                .withMessage("Function input cannot be null");
+    }
+}
@@ -38,7 +38,6 @@ class NodeTest {
         Node node = Node.from("node1", (String s) -> s + "1");
         assertThat(node.getName()).isEqualTo("node1");
         assertThat(node.execute("test")).isEqualTo("test1");
-        assertThat(node.getFunctionInput()).isEqualTo("test");
     }
 
     @Test
@@ -49,8 +48,6 @@ class NodeTest {
         };
         Node node = Node.from("node1", sumToString);
         assertThat(node.execute(1)).isEqualTo("2");
-        assertThat(node.getFunctionInput()).isEqualTo(1);
-        assertThat(node.getFunctionOutput()).isEqualTo("2");
     }
 
     @Test
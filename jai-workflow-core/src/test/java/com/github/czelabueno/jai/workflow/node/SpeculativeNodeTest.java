@@ -0,0 +1,26 @@
+package com.github.czelabueno.jai.workflow.node;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpeculativeNodeTest {
+
+    @Test
+    void test_execute_computes_and_commits_output() {
+        SpeculativeNode<StringBuilder, String> node = SpeculativeNode.from("retrieve", sb -> sb + " world", (sb, output) -> sb.append(" world"));
+        StringBuilder state = new StringBuilder("hello");
+        assertThat(node.execute(state)).isEqualTo("hello world");
+        assertThat(state.toString()).isEqualTo("hello world");
+    }
+
+    @Test
+    void test_compute_does_not_write_state_until_committed() {
+        SpeculativeNode<StringBuilder, String> node = SpeculativeNode.from("retrieve", sb -> "documents", (sb, output) -> sb.append(output));
+        StringBuilder state = new StringBuilder();
+        String output = node.compute(state);
+        assertThat(state.toString()).isEmpty();
+        assertThat(node.commit(state, output)).isEqualTo("documents");
+        assertThat(state.toString()).isEqualTo("documents");
+    }
+}
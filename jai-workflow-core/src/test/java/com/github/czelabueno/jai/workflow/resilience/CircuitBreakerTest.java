@@ -0,0 +1,72 @@
+package com.github.czelabueno.jai.workflow.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class CircuitBreakerTest {
+
+    @Test
+    void should_open_after_consecutive_failures() {
+        // given
+        CircuitBreaker breaker = CircuitBreaker.builder().failureThreshold(2).build();
+        // when
+        breaker.onFailure();
+        breaker.onSuccess(); // resets the consecutive failures
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+        // then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void should_let_a_single_trial_through_once_open_duration_has_elapsed() throws InterruptedException {
+        // given
+        CircuitBreaker breaker = CircuitBreaker.builder().failureThreshold(1).openDuration(Duration.ofMillis(20)).build();
+        breaker.onFailure();
+        // when
+        Thread.sleep(40);
+        // then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse(); // the trial is in flight
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        Thread.sleep(40);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void should_release_cancelled_trial_without_recording_a_failure() throws InterruptedException {
+        // given
+        CircuitBreaker breaker = CircuitBreaker.builder().failureThreshold(1).openDuration(Duration.ofMillis(20)).build();
+        breaker.onFailure();
+        Thread.sleep(40);
+        assertThat(breaker.tryAcquire()).isTrue();
+        // when
+        breaker.release(); // the trial was cancelled
+        // then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue(); // the next trial is let through
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_invalid_parameters() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> CircuitBreaker.builder().failureThreshold(0).build())
+                .withMessage("failureThreshold must be greater than zero");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> CircuitBreaker.builder().openDuration(Duration.ZERO).build())
+                .withMessage("openDuration must be positive");
+    }
+}
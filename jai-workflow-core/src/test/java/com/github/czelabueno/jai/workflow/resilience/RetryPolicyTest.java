@@ -0,0 +1,67 @@
+package com.github.czelabueno.jai.workflow.resilience;
+
+import com.github.czelabueno.jai.workflow.WorkflowTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class RetryPolicyTest {
+
+    @Test
+    void should_grow_backoff_exponentially_up_to_max_backoff_without_jitter() {
+        // given
+        RetryPolicy policy = RetryPolicy.builder()
+                .maxAttempts(10)
+                .initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(500))
+                .jitter(0.0)
+                .build();
+        // then
+        assertThat(policy.backoffNanos(1)).isEqualTo(Duration.ofMillis(100).toNanos());
+        assertThat(policy.backoffNanos(2)).isEqualTo(Duration.ofMillis(200).toNanos());
+        assertThat(policy.backoffNanos(3)).isEqualTo(Duration.ofMillis(400).toNanos());
+        assertThat(policy.backoffNanos(4)).isEqualTo(Duration.ofMillis(500).toNanos());
+    }
+
+    @Test
+    void should_reduce_backoff_by_at_most_the_jitter() {
+        // given
+        RetryPolicy policy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(100)).jitter(0.5).build();
+        // then
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.backoffNanos(1)).isBetween(Duration.ofMillis(50).toNanos(), Duration.ofMillis(100).toNanos());
+        }
+    }
+
+    @Test
+    void should_retry_until_max_attempts_only_failures_accepted_by_the_predicate() {
+        // given
+        RetryPolicy policy = RetryPolicy.builder()
+                .maxAttempts(3)
+                .retryOn(error -> error instanceof IllegalStateException)
+                .build();
+        // then
+        assertThat(policy.shouldRetry(1, new IllegalStateException())).isTrue();
+        assertThat(policy.shouldRetry(2, new IllegalStateException())).isTrue();
+        assertThat(policy.shouldRetry(3, new IllegalStateException())).isFalse();
+        assertThat(policy.shouldRetry(1, new IllegalArgumentException())).isFalse();
+        assertThat(policy.shouldRetry(1, new CircuitBreakerOpenException("open"))).isFalse();
+        assertThat(RetryPolicy.attempts(2).shouldRetry(1, new WorkflowTimeoutException("late"))).isFalse();
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_invalid_parameters() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> RetryPolicy.attempts(0))
+                .withMessage("maxAttempts must be greater than zero");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> RetryPolicy.builder().jitter(1.5).build())
+                .withMessage("jitter must be between 0 and 1");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> RetryPolicy.builder().multiplier(0.5).build())
+                .withMessage("multiplier cannot be lower than 1");
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.ExecutionPlan;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TransitionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final Node<StringBuilder, StringBuilder> retrieve = Node.from("retrieve", s -> s.append("r"));
+    private final Node<StringBuilder, StringBuilder> generate = Node.from("generate", s -> s.append("g"));
+
+    private ExecutionPlan<StringBuilder> plan() {
+        DefaultStateWorkflow<StringBuilder> workflow = DefaultStateWorkflow.<StringBuilder>builder()
+                .addNodes(List.of(retrieve, generate))
+                .build();
+        workflow.startNode(retrieve);
+        workflow.putEdge(retrieve, generate);
+        workflow.putEdge(generate, WorkflowStateName.END);
+        return workflow.compile();
+    }
+
+    private List<Transition> run() {
+        return List.of(
+                Transition.from(WorkflowStateName.START, retrieve),
+                Transition.from(retrieve, generate),
+                Transition.from(generate, WorkflowStateName.END));
+    }
+
+    @Test
+    void should_rebuild_transitions_of_journaled_run() {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        Instant startedAt = Instant.parse("2024-05-01T10:15:30.123456Z");
+        Instant endedAt = startedAt.plusMillis(250);
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            // when
+            long first = journal.append(plan, run(), startedAt, endedAt, TransitionJournal.Outcome.SUCCEEDED);
+            long second = journal.append(plan, List.of(Transition.from(WorkflowStateName.START, retrieve)),
+                    startedAt, endedAt, TransitionJournal.Outcome.FAILED);
+            // then
+            assertThat(second).isEqualTo(first + 1);
+            assertThat(journal.transitions(first, plan)).containsExactlyElementsOf(run());
+            List<JournalRecord> records = new ArrayList<>();
+            journal.forEach(records::add);
+            assertThat(records).hasSize(4);
+            assertThat(records.get(0)).isEqualTo(new JournalRecord(
+                    first, TransitionJournal.START, 0, startedAt, endedAt, TransitionJournal.Outcome.SUCCEEDED));
+            assertThat(records.get(3).outcome()).isEqualTo(TransitionJournal.Outcome.FAILED);
+        }
+    }
+
+    @Test
+    void should_continue_journal_after_reopening() {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        long first;
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            first = journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+        }
+        // when
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            long second = journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            // then
+            assertThat(journal.lastRunId()).isEqualTo(second).isEqualTo(first + 1);
+            assertThat(journal.transitions(first, plan)).containsExactlyElementsOf(run());
+            assertThat(journal.transitions(second, plan)).containsExactlyElementsOf(run());
+        }
+    }
+
+    @Test
+    void should_roll_over_and_delete_oldest_segments() throws IOException {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        try (TransitionJournal journal = TransitionJournal.builder()
+                .directory(directory)
+                .segmentSize(16L + 36 * 3) // one run of three transitions per segment
+                .maxSegments(2)
+                .build()) {
+            // when
+            for (int i = 0; i < 5; i++) {
+                journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            }
+            // then
+            try (Stream<Path> segments = Files.list(directory)) {
+                assertThat(segments).hasSize(2);
+            }
+            assertThat(journal.transitions(1, plan)).isEmpty();
+            assertThat(journal.transitions(5, plan)).containsExactlyElementsOf(run());
+        }
+    }
+
+    @Test
+    void should_continue_run_ids_after_reopening_with_empty_newest_segment() throws IOException {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        try (TransitionJournal journal = TransitionJournal.builder()
+                .directory(directory)
+                .segmentSize(16L + 36 * 3)
+                .build()) {
+            journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+        }
+        Files.createFile(directory.resolve("transitions-0000000002.journal")); // rolled over before any record
+        // when
+        try (TransitionJournal journal = TransitionJournal.builder()
+                .directory(directory)
+                .segmentSize(16L + 36 * 3)
+                .build()) {
+            // then
+            assertThat(journal.lastRunId()).isEqualTo(2);
+            long third = journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            assertThat(third).isEqualTo(3);
+            assertThat(journal.transitions(2, plan)).containsExactlyElementsOf(run());
+            assertThat(journal.transitions(3, plan)).containsExactlyElementsOf(run());
+        }
+    }
+
+    @Test
+    void should_rebuild_transitions_of_runs_spanning_segments() {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        try (TransitionJournal journal = TransitionJournal.builder()
+                .directory(directory)
+                .segmentSize(16L + 36 * 2) // runs of three transitions span two segments
+                .build()) {
+            // when
+            for (int i = 0; i < 4; i++) {
+                journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            }
+            // then
+            for (long runId = 1; runId <= 4; runId++) {
+                assertThat(journal.transitions(runId, plan)).containsExactlyElementsOf(run());
+            }
+            assertThat(journal.transitions(5, plan)).isEmpty();
+        }
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_for_node_outside_of_plan() {
+        ExecutionPlan<StringBuilder> plan = plan();
+        Node<StringBuilder, StringBuilder> other = Node.from("other", s -> s);
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> journal.append(plan, List.of(Transition.from(retrieve, other)),
+                            Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED))
+                    .withMessage("Node 'other' is not part of the workflow");
+        }
+    }
+
+    @Test
+    void should_not_write_records_of_rejected_run() {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        Node<StringBuilder, StringBuilder> other = Node.from("other", s -> s);
+        List<Transition> rejected = List.of(
+                Transition.from(WorkflowStateName.START, retrieve),
+                Transition.from(retrieve, other));
+        try (TransitionJournal journal = TransitionJournal.builder().directory(directory).build()) {
+            // when
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> journal.append(plan, rejected, Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED));
+            // then
+            List<JournalRecord> records = new ArrayList<>();
+            journal.forEach(records::add);
+            assertThat(records).isEmpty();
+            assertThat(journal.lastRunId()).isZero();
+            long runId = journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            assertThat(runId).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void should_read_sealed_segments_larger_than_a_read_chunk() {
+        // given
+        ExecutionPlan<StringBuilder> plan = plan();
+        try (TransitionJournal journal = TransitionJournal.builder()
+                .directory(directory)
+                .segmentSize(16L + 36 * 3000)
+                .build()) {
+            for (int i = 0; i < 1500; i++) { // 4500 records, the first 3000 in a sealed segment
+                journal.append(plan, run(), Instant.now(), Instant.now(), TransitionJournal.Outcome.SUCCEEDED);
+            }
+            // when
+            List<JournalRecord> records = new ArrayList<>();
+            journal.forEach(records::add);
+            // then
+            assertThat(records).hasSize(4500);
+            assertThat(records).extracting(JournalRecord::runId).isSorted();
+            assertThat(records.get(3 * 342 + 2).runId()).isEqualTo(343); // crosses the first read chunk
+            assertThat(journal.transitions(342, plan)).containsExactlyElementsOf(run());
+            assertThat(journal.transitions(1000, plan)).containsExactlyElementsOf(run());
+            assertThat(journal.transitions(1500, plan)).containsExactlyElementsOf(run());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.czelabueno.jai.workflow.transition;
+
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TransitionRecordingTest {
+
+    private final Node<String, String> node1 = Node.from("node1", s -> s + "1");
+    private final Node<String, String> node2 = Node.from("node2", s -> s + "2");
+
+    @Test
+    void should_record_every_transition_by_default() {
+        // given
+        TransitionRecorder recorder = TransitionRecording.all().startRun();
+        TransitionRecorder branch = recorder.branch();
+        // when
+        recorder.record(WorkflowStateName.START, node1);
+        branch.record(node1, node2);
+        recorder.recordAll(branch);
+        recorder.record(node2, WorkflowStateName.END);
+        // then
+        assertThat(recorder.isRecording()).isTrue();
+        assertThat(recorder.transitions()).containsExactly(
+                Transition.from(WorkflowStateName.START, node1),
+                Transition.from(node1, node2),
+                Transition.from(node2, WorkflowStateName.END));
+    }
+
+    @Test
+    void should_discard_transitions_when_recording_is_off() {
+        // given
+        TransitionRecorder recorder = TransitionRecording.none().startRun();
+        // when
+        recorder.record(WorkflowStateName.START, node1);
+        // then
+        assertThat(recorder.isRecording()).isFalse();
+        assertThat(recorder.transitions()).isEmpty();
+    }
+
+    @Test
+    void should_record_one_run_out_of_n() {
+        // given
+        TransitionRecording recording = TransitionRecording.sampled(3);
+        // when
+        boolean[] recorded = new boolean[6];
+        for (int run = 0; run < recorded.length; run++) {
+            recorded[run] = recording.startRun().isRecording();
+        }
+        // then
+        assertThat(recorded).containsExactly(true, false, false, true, false, false);
+    }
+
+    @Test
+    void should_keep_last_transitions_in_ring_buffer() {
+        // given
+        TransitionRecorder recorder = TransitionRecording.ringBuffer(2).startRun();
+        // when
+        recorder.record(WorkflowStateName.START, node1);
+        recorder.record(node1, node2);
+        recorder.record(node2, WorkflowStateName.END);
+        // then
+        assertThat(recorder.transitions()).containsExactly(
+                Transition.from(node1, node2),
+                Transition.from(node2, WorkflowStateName.END));
+    }
+
+    @Test
+    void should_throw_illegalArgumentException_when_limits_are_not_positive() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> TransitionRecording.sampled(0))
+                .withMessage("everyRuns must be greater than zero");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> TransitionRecording.ringBuffer(-1))
+                .withMessage("capacity must be greater than zero");
+    }
+}
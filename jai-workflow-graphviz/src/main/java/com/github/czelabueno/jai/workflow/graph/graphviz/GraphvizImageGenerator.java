@@ -0,0 +1,149 @@
+package com.github.czelabueno.jai.workflow.graph.graphviz;
+
+import com.github.czelabueno.jai.workflow.transition.Transition;
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerator;
+import com.github.czelabueno.jai.workflow.graph.TextGraphExporter;
+import guru.nidi.graphviz.engine.Format;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Implementation of {@link GraphImageGenerator} that uses <a href="https://graphviz.org/">Graphviz</a> java library and DOT language to generate workflow images.
+ * <p>
+ * Generators share a single Graphviz engine per process, initialized by the first image or by {@link #warmUp()} and
+ * released once every generator using it is closed. Images are rendered one at a time.
+ */
+public class GraphvizImageGenerator implements GraphImageGenerator, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphvizImageGenerator.class);
+
+    private final String dotFormat;
+    private static final Format DEFAULT_IMAGE_FORMAT = Format.SVG;
+
+    private boolean engineAcquired;
+    private boolean closed;
+
+    private GraphvizImageGenerator(GraphvizImageGeneratorBuilder builder) {
+        this.dotFormat = builder.dotFormat;
+        if (builder.preWarm) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Returns a new builder instance for creating a {@link GraphvizImageGenerator}.
+     *
+     * @return a new {@link GraphvizImageGeneratorBuilder} instance
+     */
+    public static GraphvizImageGeneratorBuilder builder() {
+        return new GraphvizImageGeneratorBuilder();
+    }
+
+    /**
+     * Generates a graph image from the given list of transitions and saves it to the specified output path.
+     *
+     * @param transitions the list of transitions to generate the graph image from
+     * @param outputPath  the path to save the generated graph image
+     * @throws IOException if an I/O error occurs during image generation
+     * @throws IllegalArgumentException if the output path is null or empty
+     */
+    @Override
+    public void generateImage(List<Transition> transitions, String outputPath) throws IOException {
+        if (outputPath == null || outputPath.isEmpty()) {
+            throw new IllegalArgumentException("Output path can not be null or empty. Cannot generate image.");
+        }
+        // Generate image using Graphviz from dot format
+        log.debug("Generating workflow image..");
+        acquireEngine();
+        log.debug("Using default image format: " + DEFAULT_IMAGE_FORMAT);
+        String dot = dotFormat;
+        if (dot == null) {
+            if (transitions == null || transitions.isEmpty()) {
+                throw new IllegalArgumentException("Transitions list can not be null or empty when dotFormat is null. Cannot generate image.");
+            }
+            dot = TextGraphExporter.dot().export(transitions); // computed from the current transitions on every call
+        }
+        log.debug("Using Dot format: " + System.lineSeparator() + dot);
+        log.debug("Saving workflow image..");
+        SharedGraphvizEngine.render(dot, DEFAULT_IMAGE_FORMAT, new File(outputPath));
+        log.debug("Workflow image saved to: " + outputPath);
+    }
+
+    /**
+     * Initializes the shared Graphviz engine and renders a trivial graph, so the first image of the workflow is not
+     * slowed down by the startup of the engine.
+     *
+     * @throws IllegalStateException if the generator is closed
+     */
+    public void warmUp() {
+        acquireEngine();
+        SharedGraphvizEngine.warmUp();
+    }
+
+    /**
+     * Releases the shared Graphviz engine. The engine is closed once every generator using it is closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            if (engineAcquired) {
+                SharedGraphvizEngine.release();
+            }
+        }
+    }
+
+    private synchronized void acquireEngine() {
+        if (closed) {
+            throw new IllegalStateException("Graphviz image generator is closed");
+        }
+        if (!engineAcquired) {
+            SharedGraphvizEngine.acquire();
+            engineAcquired = true;
+        }
+    }
+
+    /**
+     * Builder class for {@link GraphvizImageGenerator}.
+     */
+    public static class GraphvizImageGeneratorBuilder {
+        private String dotFormat;
+        private boolean preWarm;
+
+        /**
+         * Sets the dot format for the graph image.
+         *
+         * @param dotFormat the dot format string
+         * @return the current {@link GraphvizImageGeneratorBuilder} instance
+         */
+        public GraphvizImageGeneratorBuilder dotFormat(String dotFormat) {
+            this.dotFormat = dotFormat;
+            return this;
+        }
+
+        /**
+         * Sets whether the Graphviz engine is warmed up when the generator is built, false by default.
+         *
+         * @param preWarm true to warm up the engine at build time
+         * @return the current {@link GraphvizImageGeneratorBuilder} instance
+         * @see GraphvizImageGenerator#warmUp()
+         */
+        public GraphvizImageGeneratorBuilder preWarm(boolean preWarm) {
+            this.preWarm = preWarm;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new {@link GraphvizImageGenerator} instance.
+         *
+         * @return a new {@link GraphvizImageGenerator} instance
+         */
+        public GraphvizImageGenerator build() {
+            return new GraphvizImageGenerator(this);
+        }
+    }
+}
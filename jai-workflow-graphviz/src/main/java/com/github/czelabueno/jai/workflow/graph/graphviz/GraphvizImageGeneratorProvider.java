@@ -0,0 +1,16 @@
+package com.github.czelabueno.jai.workflow.graph.graphviz;
+
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerator;
+import com.github.czelabueno.jai.workflow.graph.GraphImageGeneratorProvider;
+
+/**
+ * Provides {@link GraphvizImageGenerator} as the default {@link GraphImageGenerator} when this module is on the
+ * classpath. The Graphviz engine is only initialized when the first image is generated.
+ */
+public class GraphvizImageGeneratorProvider implements GraphImageGeneratorProvider {
+
+    @Override
+    public GraphImageGenerator create() {
+        return GraphvizImageGenerator.builder().build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.czelabueno.jai.workflow.graph.graphviz;
+
+import guru.nidi.graphviz.engine.Format;
+import guru.nidi.graphviz.engine.Graphviz;
+import guru.nidi.graphviz.engine.GraphvizJdkEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The Graphviz engine shared by every {@link GraphvizImageGenerator} of the process.
+ * <p>
+ * Graphviz-java holds its engine in a static field, and initializing the GraalJS-backed engine takes seconds, so
+ * the engine is initialized once when the first generator acquires it and released when the last generator is
+ * closed. The JavaScript context of the engine is single-threaded, so renderings are serialized.
+ */
+final class SharedGraphvizEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedGraphvizEngine.class);
+    private static final Object LOCK = new Object();
+    private static int users;
+    private static boolean warm;
+
+    private SharedGraphvizEngine() {
+    }
+
+    static void acquire() {
+        synchronized (LOCK) {
+            if (users++ == 0) {
+                log.debug("Initializing Graphviz engine..");
+                Graphviz.useEngine(new GraphvizJdkEngine()); // Use GraalJS as the default engine
+            }
+        }
+    }
+
+    static void release() {
+        synchronized (LOCK) {
+            if (--users == 0) {
+                log.debug("Releasing Graphviz engine..");
+                Graphviz.releaseEngine();
+                warm = false;
+            }
+        }
+    }
+
+    /**
+     * Renders a trivial graph so the JavaScript code of the engine is loaded and compiled before the first image.
+     */
+    static void warmUp() {
+        synchronized (LOCK) {
+            if (!warm) {
+                log.debug("Warming up Graphviz engine..");
+                Graphviz.fromString("digraph { a -> b; }").render(Format.SVG).toString();
+                warm = true;
+            }
+        }
+    }
+
+    static void render(String dotFormat, Format format, File output) throws IOException {
+        synchronized (LOCK) {
+            Graphviz.fromString(dotFormat).render(format).toFile(output);
+            warm = true;
+        }
+    }
+}
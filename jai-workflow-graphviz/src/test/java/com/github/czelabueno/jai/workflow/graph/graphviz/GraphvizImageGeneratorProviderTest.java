@@ -0,0 +1,41 @@
+package com.github.czelabueno.jai.workflow.graph.graphviz;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerators;
+import com.github.czelabueno.jai.workflow.node.Node;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphvizImageGeneratorProviderTest {
+
+    @Test
+    void should_provide_graphviz_as_default_image_generator() {
+        assertThat(GraphImageGenerators.defaultGenerator()).isInstanceOf(GraphvizImageGenerator.class);
+    }
+
+    @SneakyThrows
+    @Test
+    void should_generate_workflow_image_with_discovered_generator(@TempDir Path directory) {
+        // given
+        Node<StringBuilder, StringBuilder> greet = Node.from("greet", sb -> sb.append("hello"));
+        DefaultStateWorkflow<StringBuilder> workflow = DefaultStateWorkflow.<StringBuilder>builder()
+                .addNodes(singletonList(greet))
+                .build();
+        workflow.putEdge(greet, WorkflowStateName.END);
+        workflow.startNode(greet);
+        workflow.run(new StringBuilder());
+        Path image = directory.resolve("workflow.svg");
+        // when
+        workflow.generateWorkflowImage(image.toString());
+        // then
+        assertThat(Files.readString(image)).contains("<svg");
+    }
+}
@@ -5,6 +5,7 @@ import com.github.czelabueno.jai.workflow.transition.Transition;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -12,6 +13,9 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -134,4 +138,41 @@ class GraphvizImageGeneratorTest {
         String content = String.join("\n", Files.readAllLines(path));
         assertThat(content.trim()).startsWith("<svg");
     }
+
+    @SneakyThrows
+    @Test
+    void test_generate_Image_reflects_current_transitions(@TempDir Path directory) {
+        // given
+        GraphvizImageGenerator generator = builder.build();
+        Path path = directory.resolve("workflow.svg");
+        generator.generateImage(List.of(Transition.from(Node.from("a", s -> s), Node.from("b", s -> s))), path.toString());
+        // when
+        generator.generateImage(List.of(Transition.from(Node.from("c", s -> s), Node.from("d", s -> s))), path.toString());
+        // then
+        assertThat(Files.readString(path)).contains("<title>C</title>").doesNotContain("<title>A</title>");
+    }
+
+    @SneakyThrows
+    @Test
+    void test_prewarmed_generators_share_engine_and_render_concurrently(@TempDir Path directory) {
+        // given
+        GraphvizImageGenerator first = builder.dotFormat(dotFormat).preWarm(true).build();
+        GraphvizImageGenerator second = GraphvizImageGenerator.builder().dotFormat("digraph { c -> d; }").build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // when
+        Future<?> firstImage = executor.submit(() -> { first.generateImage(null, directory.resolve("first.svg").toString()); return null; });
+        Future<?> secondImage = executor.submit(() -> { second.generateImage(null, directory.resolve("second.svg").toString()); return null; });
+        firstImage.get();
+        secondImage.get();
+        executor.shutdown();
+        first.close();
+        // then
+        assertThat(Files.readString(directory.resolve("first.svg"))).contains("<svg");
+        assertThat(Files.readString(directory.resolve("second.svg"))).contains("<svg");
+        second.generateImage(null, directory.resolve("after-close.svg").toString()); // engine still held by second
+        second.close();
+        assertThatThrownBy(() -> first.generateImage(null, directory.resolve("closed.svg").toString()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Graphviz image generator is closed");
+    }
 }
@@ -0,0 +1,119 @@
+package com.github.czelabueno.jai.workflow.langchain4j.cache;
+
+import com.github.czelabueno.jai.workflow.cache.CacheStats;
+import com.github.czelabueno.jai.workflow.cache.ResultCache;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import lombok.Builder;
+import lombok.NonNull;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+
+/**
+ * An exact cache of model generations keyed by the prompt sent to the model.
+ * <p>
+ * The key is the SHA-256 hash of the JSON serialization of the final list of {@link ChatMessage}s, so only
+ * byte-identical prompts hit. A hit returns the tokens streamed by the original call and the complete
+ * {@link AiMessage}, and {@link CachedGeneration#replay()} streams the tokens again, optionally at the configured
+ * pace to mimic a live model. Share a cache only between nodes calling the same model with the same settings.
+ */
+public final class PromptCache {
+
+    private final ResultCache<String, CachedGeneration> cache;
+    private final Duration replayPace;
+
+    /**
+     * Constructs a new PromptCache.
+     *
+     * @param maxEntries the maximum number of cached generations, 1000 by default
+     * @param ttl        the time a generation is kept after being stored. If null, generations never expire
+     * @param replayPace the delay between two replayed tokens. If null, tokens are replayed at once
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    @Builder
+    public PromptCache(Long maxEntries, Duration ttl, Duration replayPace) {
+        if (replayPace != null && replayPace.isNegative()) {
+            throw new IllegalArgumentException("replayPace cannot be negative");
+        }
+        this.cache = ResultCache.<String, CachedGeneration>builder()
+                .maxEntries(getOrDefault(maxEntries, 1_000L))
+                .ttl(ttl)
+                .build();
+        this.replayPace = replayPace;
+    }
+
+    /**
+     * Returns the generation cached for the given prompt.
+     *
+     * @param messages the final messages sent to the model
+     * @return the cached generation, or null if the prompt was not seen or its generation expired
+     */
+    public CachedGeneration get(@NonNull List<ChatMessage> messages) {
+        return cache.get(key(messages));
+    }
+
+    /**
+     * Stores the generation of the given prompt.
+     *
+     * @param messages  the final messages sent to the model
+     * @param tokens    the tokens streamed by the model, in order
+     * @param aiMessage the complete response of the model
+     */
+    public void put(@NonNull List<ChatMessage> messages, @NonNull List<String> tokens, @NonNull AiMessage aiMessage) {
+        cache.put(key(messages), new CachedGeneration(List.copyOf(tokens), aiMessage, replayPace));
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Computes the cache key of a prompt: the hexadecimal SHA-256 hash of its JSON serialization.
+     *
+     * @param messages the final messages sent to the model
+     * @return the cache key
+     */
+    public static String key(@NonNull List<ChatMessage> messages) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(ChatMessageSerializer.messagesToJson(messages).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // required on every Java platform
+        }
+    }
+
+    /**
+     * A generation stored in a {@link PromptCache}.
+     *
+     * @param tokens     the tokens streamed by the model, in order
+     * @param aiMessage  the complete response of the model
+     * @param replayPace the delay between two replayed tokens, or null to replay them at once
+     */
+    public record CachedGeneration(List<String> tokens, AiMessage aiMessage, Duration replayPace) {
+
+        /**
+         * Streams the cached tokens again.
+         *
+         * @return a Flux of the cached tokens
+         */
+        public Flux<String> replay() {
+            Flux<String> replayed = Flux.fromIterable(tokens);
+            return replayPace == null || replayPace.isZero() ? replayed : replayed.delayElements(replayPace);
+        }
+    }
+}
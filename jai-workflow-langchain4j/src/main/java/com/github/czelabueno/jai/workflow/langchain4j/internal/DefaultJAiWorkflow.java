@@ -2,20 +2,30 @@ package com.github.czelabueno.jai.workflow.langchain4j.internal;
 
 import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
 import com.github.czelabueno.jai.workflow.StateWorkflow;
+import com.github.czelabueno.jai.workflow.concurrent.AdmissionController;
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerators;
+import com.github.czelabueno.jai.workflow.graph.WorkflowImageRenderer;
 import com.github.czelabueno.jai.workflow.langchain4j.AbstractStatefulBean;
 import com.github.czelabueno.jai.workflow.langchain4j.JAiWorkflow;
 import com.github.czelabueno.jai.workflow.langchain4j.node.StreamingNode;
+import com.github.czelabueno.jai.workflow.langchain4j.reactive.NodeEvent;
+import com.github.czelabueno.jai.workflow.langchain4j.reactive.ReactiveWorkflow;
 import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.transition.Transition;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.UserMessage;
 import lombok.Builder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
@@ -33,31 +43,55 @@ public class DefaultJAiWorkflow<T extends AbstractStatefulBean> implements JAiWo
     private final Boolean runStream;
     private final Boolean generateWorkflowImage;
     private final Path workflowImageOutputPath;
+    private final WorkflowImageRenderer workflowImageRenderer;
     private final T statefulBean;
+    private final Supplier<T> statefulBeanSupplier;
+    private final Semaphore statefulBeanTurn;
+    private final AdmissionController admissionController;
     private DefaultStateWorkflow<T> workflow;
 
     /**
      * Constructs a new DefaultJAiWorkflow with the specified parameters.
      *
-     * @param statefulBean the stateful bean holding the state of the workflow
+     * @param statefulBean the stateful bean holding the state of the workflow. Every answer runs against this bean,
+     *                     so answers are run one at a time. Ignored if a statefulBeanSupplier is given
+     * @param statefulBeanSupplier the supplier of a new state for every answer, optional. Answers run against their
+     *                             own state, so they run concurrently
      * @param nodes the list of nodes to be processed in the workflow
      * @param runStream flag indicating whether to run the workflow in stream mode
      * @param generateWorkflowImage flag indicating whether to generate a workflow image
      * @param workflowImageOutputPath the output path for the workflow image
+     * @param admissionController the admission controller bounding the number of concurrent answers, optional.
+     *                            Requests that are not admitted fail with a RejectedExecutionException
+     * @param workflowImageRenderer the renderer generating the workflow image in the background. By default, the
+     *                              image generator provided on the classpath, such as the jai-workflow-graphviz
+     *                              module, renders on its own daemon thread
      */
     @Builder
     public DefaultJAiWorkflow(T statefulBean,
+                              Supplier<T> statefulBeanSupplier,
                               List<Node<T,?>> nodes,
                               Boolean runStream,
                               Boolean generateWorkflowImage,
-                              Path workflowImageOutputPath) {
-        this.statefulBean = ensureNotNull(statefulBean, "%s cannot be null. jAI workflow cannot created without stateful bean definition", "statefulBean");
+                              Path workflowImageOutputPath,
+                              AdmissionController admissionController,
+                              WorkflowImageRenderer workflowImageRenderer) {
+        if (statefulBeanSupplier == null) {
+            ensureNotNull(statefulBean, "%s cannot be null. jAI workflow cannot created without stateful bean definition", "statefulBean");
+        }
+        this.statefulBean = statefulBeanSupplier == null ? statefulBean : null;
+        this.statefulBeanSupplier = statefulBeanSupplier;
+        this.statefulBeanTurn = statefulBeanSupplier == null ? new Semaphore(1, true) : null;
         ensureNotNull(nodes, "%s cannot be null. jAI workflow cannot created without nodes definition", "nodes");
         this.workflow = createWorkflow(statefulBean, nodes);
         this.runStream = getOrDefault(runStream, false);
         // check if workflowOutputPath is valid
         this.generateWorkflowImage = workflowImageOutputPath != null || getOrDefault(generateWorkflowImage, false);
-        this.workflowImageOutputPath = workflowImageOutputPath;
+        this.workflowImageOutputPath = workflowImageOutputPath != null ? workflowImageOutputPath : Paths.get("workflow-image.svg");
+        this.admissionController = admissionController;
+        this.workflowImageRenderer = workflowImageRenderer != null || !this.generateWorkflowImage
+                ? workflowImageRenderer
+                : WorkflowImageRenderer.builder().generator(GraphImageGenerators.defaultGenerator()).build();
     }
 
     /**
@@ -80,16 +114,23 @@ public class DefaultJAiWorkflow<T extends AbstractStatefulBean> implements JAiWo
 
     @Override
     public AiMessage answer(UserMessage question) {
-        // Define a stateful bean
-        this.statefulBean.setQuestion(question.singleText());
-        // Run workflow in stream mode or not
-        if (this.runStream) {
-            workflow().runStream(node -> log.debug("Node processed: " + node.getName()));
-        } else {
-            workflow().run();
+        try (AdmissionController.Permit permit = admit()) {
+            awaitTurn();
+            try {
+                // Define the state of this answer
+                T state = newState(question);
+                // Run workflow in stream mode or not
+                if (this.runStream) {
+                    workflow().runStream(state, node -> log.debug("Node processed: " + node.getName()));
+                } else {
+                    workflow().run(state);
+                }
+                generateWorkflowImageIfNeeded();
+                return AiMessage.from(state.getGeneration());
+            } finally {
+                endTurn();
+            }
         }
-        generateWorkflowImageIfNeeded();
-        return AiMessage.from(this.statefulBean.getGeneration());
     }
 
     @Override
@@ -97,19 +138,94 @@ public class DefaultJAiWorkflow<T extends AbstractStatefulBean> implements JAiWo
         if (!runStream || !isLastNodeAStreamingNode(workflow())) {
             throw new IllegalStateException("The last node of the workflow must be a StreamingNode to run in stream mode");
         }
-        // Define a stateful bean
-        this.statefulBean.setQuestion(question.singleText());
-        // Run workflow in stream mode or not
-        if (this.runStream) {
-            workflow().runStream(node -> {
-                if (node instanceof StreamingNode) {
-                    log.debug("StreamingNode processed: " + node.getName());
+        try (AdmissionController.Permit permit = admit()) {
+            awaitTurn();
+            try {
+                // Define the state of this answer
+                T state = newState(question);
+                // Run workflow in stream mode or not
+                if (this.runStream) {
+                    workflow().runStream(state, node -> {
+                        if (node instanceof StreamingNode) {
+                            log.debug("StreamingNode processed: " + node.getName());
+                        }
+                        log.debug("Node processed: " + node.getName());
+                    });
                 }
-                log.debug("Node processed: " + node.getName());
-            });
+                generateWorkflowImageIfNeeded();
+                return state.getGenerationStream();
+            } finally {
+                endTurn();
+            }
+        }
+    }
+
+    /**
+     * Runs the workflow for the given user message and streams the lifecycle events of the executed nodes.
+     * The workflow is run once per subscription. Without a statefulBeanSupplier, a subscription waits on a
+     * bounded elastic thread until the runs against the stateful bean ahead of it have completed.
+     *
+     * @param question the UserMessage containing the question
+     * @return a Flux of node events, completed when the workflow run completes
+     * @see ReactiveWorkflow
+     */
+    public Flux<NodeEvent<T>> execute(UserMessage question) {
+        ensureNotNull(question, "question");
+        Flux<NodeEvent<T>> events = statefulBeanTurn == null
+                ? Flux.defer(() -> ReactiveWorkflow.from(workflow()).execute(newState(question)))
+                : Flux.defer(() -> {
+                    awaitTurn(); // the turn is released however the run ends, even if cancelled meanwhile
+                    return ReactiveWorkflow.from(workflow()).execute(newState(question)).doFinally(signal -> endTurn());
+                }).subscribeOn(Schedulers.boundedElastic());
+        if (admissionController == null) {
+            return events;
+        }
+        return Flux.usingWhen(
+                Mono.fromFuture(admissionController::acquireAsync),
+                permit -> events,
+                permit -> Mono.fromRunnable(permit::close));
+    }
+
+    /**
+     * Returns the admission controller bounding the number of concurrent answers, if any.
+     *
+     * @return the admission controller, or null if answers are not limited
+     */
+    public AdmissionController admissionController() {
+        return this.admissionController;
+    }
+
+    private AdmissionController.Permit admit() {
+        return admissionController != null ? admissionController.acquire() : null;
+    }
+
+    private T newState(UserMessage question) {
+        T state = statefulBeanSupplier == null
+                ? statefulBean
+                : ensureNotNull(statefulBeanSupplier.get(), "%s cannot supply a null state", "statefulBeanSupplier");
+        state.setQuestion(question.singleText());
+        return state;
+    }
+
+    /**
+     * Waits until no other answer runs against the stateful bean. Answers against supplied states do not wait.
+     */
+    private void awaitTurn() {
+        if (statefulBeanTurn == null) {
+            return;
+        }
+        try {
+            statefulBeanTurn.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stateful bean", e);
+        }
+    }
+
+    private void endTurn() {
+        if (statefulBeanTurn != null) {
+            statefulBeanTurn.release();
         }
-        generateWorkflowImageIfNeeded();
-        return this.statefulBean.getGenerationStream();
     }
 
     private DefaultStateWorkflow<T> createWorkflow(
@@ -126,17 +242,17 @@ public class DefaultJAiWorkflow<T extends AbstractStatefulBean> implements JAiWo
     }
 
     private void generateWorkflowImageIfNeeded() {
-        // Generate workflow image if required
-        if (generateWorkflowImage) {
-            try {
-                if (workflowImageOutputPath != null) {
-                    workflow().generateWorkflowImage(workflowImageOutputPath.toAbsolutePath().toString());
-                } else {
-                    workflow().generateWorkflowImage();
+        if (!generateWorkflowImage) {
+            return; // answers do not copy the transitions unless images are generated
+        }
+        // Render the workflow image in the background, unchanged graphs are not rendered again
+        List<Transition> transitions = workflow().getComputedTransitions();
+        if (!transitions.isEmpty()) {
+            workflowImageRenderer.render(transitions, workflowImageOutputPath).whenComplete((path, error) -> {
+                if (error != null) { // Generate image is not blocking the workflow execution
+                    log.error("Error generating workflow image", error);
                 }
-            } catch (IOException e) { // Generate image is not blocking the workflow execution
-                log.error("Error generating workflow image", e);
-            }
+            });
         }
     }
 }
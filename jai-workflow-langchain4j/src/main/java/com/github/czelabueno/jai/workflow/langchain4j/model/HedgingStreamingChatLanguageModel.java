@@ -0,0 +1,278 @@
+package com.github.czelabueno.jai.workflow.langchain4j.model;
+
+import com.github.czelabueno.jai.workflow.concurrent.WorkflowTimer;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import lombok.Builder;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+
+/**
+ * A {@link StreamingChatLanguageModel} that hedges slow calls to cut tail latency.
+ * <p>
+ * Every request is sent to the primary model. If it has not produced a token after the hedge delay, the same
+ * request is sent to the hedge model, the primary model itself by default. The first call to produce a token (or
+ * to complete) wins and is forwarded to the handler; the events of the other call are dropped. The hedge delay is
+ * the configured percentile of the recent times to first token, so only the slowest calls are hedged. Until enough
+ * latencies are tracked, the initial hedge delay applies, and requests are not hedged if there is none.
+ * <p>
+ * Give every {@link com.github.czelabueno.jai.workflow.langchain4j.node.StreamingNode} its own instance, so the
+ * latencies of a node, and the prompts it sends, drive its own hedging:
+ * <pre>{@code
+ * StreamingNode<MyStatefulBean> generate = StreamingNode.from("generate", doUserMessage,
+ *         HedgingStreamingChatLanguageModel.builder()
+ *                 .primary(model)
+ *                 .hedgePercentile(0.95)
+ *                 .build());
+ * }</pre>
+ */
+public class HedgingStreamingChatLanguageModel implements StreamingChatLanguageModel {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingStreamingChatLanguageModel.class);
+
+    private final StreamingChatLanguageModel primary;
+    private final StreamingChatLanguageModel hedge;
+    private final double hedgePercentile;
+    private final Duration initialHedgeDelay;
+    private final LatencyTracker latencyTracker;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgedRequests = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /**
+     * Constructs a new HedgingStreamingChatLanguageModel.
+     *
+     * @param primary           the model every request is sent to first
+     * @param hedge             the model slow requests are sent to, the primary model by default
+     * @param hedgePercentile   the percentile of the recent times to first token after which a request is hedged,
+     *                          0.95 by default
+     * @param initialHedgeDelay the hedge delay used until enough latencies are tracked. If null, requests are not
+     *                          hedged until then
+     * @param windowSize        the number of most recent latencies tracked, 200 by default
+     * @param minSamples        the number of latencies required before the percentile is used, 20 by default
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    @Builder
+    public HedgingStreamingChatLanguageModel(@NonNull StreamingChatLanguageModel primary,
+                                             StreamingChatLanguageModel hedge,
+                                             Double hedgePercentile,
+                                             Duration initialHedgeDelay,
+                                             Integer windowSize,
+                                             Integer minSamples) {
+        this.primary = primary;
+        this.hedge = getOrDefault(hedge, primary);
+        this.hedgePercentile = getOrDefault(hedgePercentile, 0.95);
+        if (this.hedgePercentile <= 0.0 || this.hedgePercentile > 1.0) {
+            throw new IllegalArgumentException("hedgePercentile must be greater than 0 and not greater than 1");
+        }
+        if (initialHedgeDelay != null && initialHedgeDelay.isNegative()) {
+            throw new IllegalArgumentException("initialHedgeDelay cannot be negative");
+        }
+        this.initialHedgeDelay = initialHedgeDelay;
+        this.latencyTracker = new LatencyTracker(getOrDefault(windowSize, 200), getOrDefault(minSamples, 20));
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        requests.increment();
+        Race race = new Race(messages, handler);
+        race.launch(0, primary);
+        Duration delay = hedgeDelay();
+        if (delay != null) {
+            race.scheduleHedge(delay);
+        }
+    }
+
+    /**
+     * Returns the delay after which the next request is hedged.
+     *
+     * @return the hedge delay, or null if requests are not hedged yet
+     */
+    public Duration hedgeDelay() {
+        Duration percentile = latencyTracker.percentile(hedgePercentile);
+        return percentile != null ? percentile : initialHedgeDelay;
+    }
+
+    /**
+     * Returns the tracker of the times to first token of the calls sent by this model.
+     *
+     * @return the latency tracker
+     */
+    public LatencyTracker latencyTracker() {
+        return latencyTracker;
+    }
+
+    /**
+     * Returns the number of requests received.
+     *
+     * @return the number of requests
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of requests sent to the hedge model.
+     *
+     * @return the number of hedged requests
+     */
+    public long hedgedRequests() {
+        return hedgedRequests.sum();
+    }
+
+    /**
+     * Returns the number of hedged requests answered first by the hedge model.
+     *
+     * @return the number of hedge wins
+     */
+    public long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * The calls sent for one request. Call 0 is the primary call, call 1 the hedge call.
+     */
+    private final class Race {
+
+        private static final int NONE = -1;
+
+        private final List<ChatMessage> messages;
+        private final StreamingResponseHandler<AiMessage> handler;
+        private int winner = NONE;
+        private int launched = 1; // the primary call
+        private int failed;
+        private boolean finished;
+        private ScheduledFuture<?> hedgeTask;
+
+        private Race(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+            this.messages = messages;
+            this.handler = handler;
+        }
+
+        private void launch(int call, StreamingChatLanguageModel model) {
+            try {
+                model.generate(messages, new CallHandler(call, System.nanoTime()));
+            } catch (RuntimeException e) {
+                failed(call, e);
+            }
+        }
+
+        private synchronized void scheduleHedge(Duration delay) {
+            if (winner == NONE && !finished) { // the primary call may have answered synchronously
+                // the hedge call is sent from the common pool, as models may block while sending a request
+                hedgeTask = WorkflowTimer.schedule(() -> CompletableFuture.runAsync(this::hedge), delay.toNanos());
+            }
+        }
+
+        /**
+         * Cancels the hedge call not sent yet, once a call answered or every call failed.
+         */
+        private void cancelHedge() {
+            if (hedgeTask != null) {
+                hedgeTask.cancel(false);
+            }
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (winner != NONE || finished) {
+                    return; // a call already answered, or every call failed
+                }
+                launched++;
+            }
+            log.debug("Hedging model request without token from the primary model");
+            hedgedRequests.increment();
+            launch(1, hedge);
+        }
+
+        /**
+         * Returns whether the events of the given call are forwarded, making it the winner if none answered yet.
+         */
+        private synchronized boolean claim(int call) {
+            if (finished) {
+                return false;
+            }
+            if (winner == NONE) {
+                winner = call;
+                cancelHedge();
+                if (call == 1) {
+                    hedgeWins.increment();
+                }
+            }
+            return winner == call;
+        }
+
+        private void completed(int call, Response<AiMessage> response) {
+            if (claim(call)) {
+                synchronized (this) {
+                    finished = true;
+                }
+                handler.onComplete(response);
+            }
+        }
+
+        private void failed(int call, Throwable error) {
+            synchronized (this) {
+                if (finished || (winner != NONE && winner != call)) {
+                    return;
+                }
+                // a failed call without winner only fails the request once no other call is pending
+                if (winner == NONE && ++failed < launched) {
+                    return;
+                }
+                finished = true;
+                cancelHedge();
+            }
+            handler.onError(error);
+        }
+
+        private final class CallHandler implements StreamingResponseHandler<AiMessage> {
+
+            private final int call;
+            private final long startedAt;
+            private boolean firstToken = true;
+
+            private CallHandler(int call, long startedAt) {
+                this.call = call;
+                this.startedAt = startedAt;
+            }
+
+            @Override
+            public void onNext(String token) {
+                if (firstToken) {
+                    firstToken = false;
+                    latencyTracker.record(System.nanoTime() - startedAt);
+                }
+                if (claim(call)) {
+                    handler.onNext(token);
+                }
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                if (firstToken) {
+                    firstToken = false;
+                    latencyTracker.record(System.nanoTime() - startedAt); // answered without streaming tokens
+                }
+                completed(call, response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                failed(call, error);
+            }
+        }
+    }
+}
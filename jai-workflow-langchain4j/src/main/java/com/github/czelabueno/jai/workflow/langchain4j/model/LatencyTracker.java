@@ -0,0 +1,79 @@
+package com.github.czelabueno.jai.workflow.langchain4j.model;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latencies of a model call in a fixed-size window and computes their percentiles.
+ * <p>
+ * Percentiles are only reported once the window holds {@code minSamples} latencies, so decisions are not taken on
+ * a handful of cold calls. The tracker is thread-safe.
+ */
+public final class LatencyTracker {
+
+    private final long[] window;
+    private final int minSamples;
+    private int next;
+    private int size;
+
+    /**
+     * Constructs a new LatencyTracker.
+     *
+     * @param windowSize the number of most recent latencies kept, must be greater than zero
+     * @param minSamples the number of latencies required before percentiles are reported, must be greater than zero
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public LatencyTracker(int windowSize, int minSamples) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be greater than zero");
+        }
+        if (minSamples <= 0 || minSamples > windowSize) {
+            throw new IllegalArgumentException("minSamples must be greater than zero and not greater than windowSize");
+        }
+        this.window = new long[windowSize];
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Records a latency, evicting the oldest one once the window is full.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        window[next] = nanos;
+        next = (next + 1) % window.length;
+        size = Math.min(size + 1, window.length);
+    }
+
+    /**
+     * Returns the number of latencies currently in the window.
+     *
+     * @return the number of samples
+     */
+    public synchronized int samples() {
+        return size;
+    }
+
+    /**
+     * Returns the given percentile of the latencies in the window.
+     *
+     * @param percentile the percentile, between 0 (exclusive) and 1 (inclusive), e.g. 0.95
+     * @return the percentile, or null if the window holds fewer than {@code minSamples} latencies
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public Duration percentile(double percentile) {
+        if (percentile <= 0.0 || percentile > 1.0) {
+            throw new IllegalArgumentException("percentile must be greater than 0 and not greater than 1");
+        }
+        long[] sorted;
+        synchronized (this) {
+            if (size < minSamples) {
+                return null;
+            }
+            sorted = Arrays.copyOf(window, size);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * sorted.length) - 1; // nearest-rank method
+        return Duration.ofNanos(sorted[Math.max(rank, 0)]);
+    }
+}
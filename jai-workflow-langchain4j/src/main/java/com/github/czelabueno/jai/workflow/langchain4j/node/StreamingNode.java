@@ -1,6 +1,7 @@
 package com.github.czelabueno.jai.workflow.langchain4j.node;
 
 import com.github.czelabueno.jai.workflow.langchain4j.AbstractStatefulBean;
+import com.github.czelabueno.jai.workflow.langchain4j.cache.PromptCache;
 import com.github.czelabueno.jai.workflow.node.Node;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
@@ -12,9 +13,12 @@ import lombok.NonNull;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 import static dev.langchain4j.internal.Utils.getOrDefault;
@@ -23,6 +27,10 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 /**
  * StreamingNode is a specialized type of {@link Node} that handles streaming responses from a {@link StreamingChatLanguageModel}.
  * It extends the generic Node class with specific types for stateful beans and reactive streams.
+ * To cut the tail latency of the node, give it a
+ * {@link com.github.czelabueno.jai.workflow.langchain4j.model.HedgingStreamingChatLanguageModel} of its own.
+ * With a {@link PromptCache}, a prompt identical to a cached one is answered by replaying the cached generation
+ * instead of calling the model.
  *
  * @param <T> the type of the stateful bean, which extends AbstractStatefulBean
  */
@@ -40,7 +48,24 @@ public class StreamingNode<T extends AbstractStatefulBean> extends Node<T, Flux<
                          List<ChatMessage> messages,
                          Function<T, ChatMessage> doUserMessage,
                          @NonNull StreamingChatLanguageModel streamingChatLanguageModel) {
-        super(ensureNotBlank(name, "name"), (T statefulBean) -> streamingFunction(statefulBean, messages, doUserMessage, streamingChatLanguageModel));
+        this(name, messages, doUserMessage, streamingChatLanguageModel, null);
+    }
+
+    /**
+     * Constructs a new StreamingNode with the specified name, messages, StreamingChatLanguageModel and prompt cache.
+     *
+     * @param name the name of the node
+     * @param messages the list of ChatMessage to be processed by the streamingChatLanguageModel
+     * @param doUserMessage a function to generate a user message from the stateful bean
+     * @param streamingChatLanguageModel the streaming chat language model to generate responses
+     * @param promptCache the cache of the generations of previous prompts, optional
+     */
+    public StreamingNode(String name,
+                         List<ChatMessage> messages,
+                         Function<T, ChatMessage> doUserMessage,
+                         @NonNull StreamingChatLanguageModel streamingChatLanguageModel,
+                         PromptCache promptCache) {
+        super(ensureNotBlank(name, "name"), (T statefulBean) -> streamingFunction(statefulBean, messages, doUserMessage, streamingChatLanguageModel, promptCache));
     }
 
     /**
@@ -60,6 +85,25 @@ public class StreamingNode<T extends AbstractStatefulBean> extends Node<T, Flux<
         return new StreamingNode(name, messages, doUserMessage, streamingChatLanguageModel);
     }
 
+    /**
+     * Creates a new StreamingNode from the specified parameters.
+     *
+     * @param name the name of the node
+     * @param messages the list of ChatMessage to be processed by the streamingChatLanguageModel
+     * @param doUserMessage a function to generate a user message from the stateful bean
+     * @param streamingChatLanguageModel the streaming chat language model to generate responses
+     * @param promptCache the cache of the generations of previous prompts
+     * @param <T> the type of the stateful bean, which extends AbstractStatefulBean
+     * @return a new StreamingNode instance
+     */
+    public static <T extends AbstractStatefulBean> StreamingNode<T> from(String name,
+                                                                         List<ChatMessage> messages,
+                                                                         Function<T, ChatMessage> doUserMessage,
+                                                                         @NonNull StreamingChatLanguageModel streamingChatLanguageModel,
+                                                                         PromptCache promptCache) {
+        return new StreamingNode<>(name, messages, doUserMessage, streamingChatLanguageModel, promptCache);
+    }
+
     /**
      * Creates a new StreamingNode from the specified parameters.
      *
@@ -106,11 +150,13 @@ public class StreamingNode<T extends AbstractStatefulBean> extends Node<T, Flux<
     /**
      * A static function that handles the token of responses from the StreamingChatLanguageModel.
      * It sets up a sink to collect the streamed tokens and completes the stateful bean with the final response.
+     * On a prompt cache hit, the cached tokens are replayed instead and the stateful bean is completed the same way.
      *
      * @param statefulBean the stateful bean holding the state of the workflow
      * @param messages the list of ChatMessage to be processed by the streamingChatLanguageModel
      * @param doUserMessage a function to generate a user message from the stateful bean
      * @param streamingChatLanguageModel the streaming chat language model to generate responses
+     * @param promptCache the cache of the generations of previous prompts, may be null
      * @param <T> the type of the stateful bean, which extends AbstractStatefulBean
      * @return a Flux stream of the generated tokens
      */
@@ -118,7 +164,8 @@ public class StreamingNode<T extends AbstractStatefulBean> extends Node<T, Flux<
             T statefulBean,
             List<ChatMessage> messages,
             Function<T, ChatMessage> doUserMessage,
-            StreamingChatLanguageModel streamingChatLanguageModel) {
+            StreamingChatLanguageModel streamingChatLanguageModel,
+            PromptCache promptCache) {
         Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
         CompletableFuture<AiMessage> futureResponse = new CompletableFuture<>();
         if (messages == null || messages.isEmpty()) {
@@ -126,17 +173,31 @@ public class StreamingNode<T extends AbstractStatefulBean> extends Node<T, Flux<
                     List.of(doUserMessage.apply(statefulBean)) :
                     List.of(UserMessage.from(getOrDefault(statefulBean.getQuestion(),"No question provided.")));
         }
+        PromptCache.CachedGeneration cached = promptCache != null ? promptCache.get(messages) : null;
+        if (cached != null) {
+            statefulBean.setGenerationStream(cached.replay().cache());
+            statefulBean.setGeneration(cached.aiMessage().text());
+            return statefulBean.getGenerationStream();
+        }
 
+        List<ChatMessage> prompt = messages;
+        List<String> tokens = promptCache != null ? Collections.synchronizedList(new ArrayList<>()) : null;
         streamingChatLanguageModel.generate(
                 messages,
                 new StreamingResponseHandler<AiMessage>() {
                     @Override
                     public void onNext(String token) {
+                        if (tokens != null) {
+                            tokens.add(token);
+                        }
                         sink.tryEmitNext(token);
                     }
 
                     @Override
                     public void onComplete(Response<AiMessage> response) {
+                        if (tokens != null) {
+                            promptCache.put(prompt, tokens, response.content());
+                        }
                         futureResponse.complete(response.content());
                         sink.tryEmitComplete();
                     }
@@ -144,11 +205,35 @@ public class StreamingNode<T extends AbstractStatefulBean> extends Node<T, Flux<
                     @Override
                     public void onError(Throwable throwable) {
                         sink.tryEmitError(throwable);
+                        futureResponse.completeExceptionally(throwable);
                     }
                 }
         );
         statefulBean.setGenerationStream(sink.asFlux().cache());
-        statefulBean.setGeneration(futureResponse.join().text());
+        statefulBean.setGeneration(awaitResponse(futureResponse).text());
         return statefulBean.getGenerationStream();
     }
+
+    /**
+     * Waits for the complete model response. The wait is interruptible, so a node timeout or workflow deadline
+     * stops a stuck model call instead of holding the run forever.
+     *
+     * @param futureResponse the future completed with the model response
+     * @return the model response
+     * @throws IllegalStateException if the wait is interrupted
+     */
+    private static AiMessage awaitResponse(CompletableFuture<AiMessage> futureResponse) {
+        try {
+            return futureResponse.get();
+        } catch (InterruptedException e) {
+            futureResponse.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the model response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("Model response failed", cause);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.github.czelabueno.jai.workflow.langchain4j.reactive;
+
+import com.github.czelabueno.jai.workflow.node.Node;
+import lombok.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Represents a lifecycle event of a node executed by a {@link ReactiveWorkflow}.
+ *
+ * @param type     the type of the event
+ * @param node     the node the event refers to
+ * @param state    the state the node is executed against
+ * @param output   the output of the node for {@link Type#COMPLETED} events, otherwise null
+ * @param error    the failure of the node for {@link Type#FAILED} events, otherwise null
+ * @param duration the time elapsed since the node was started, {@link Duration#ZERO} for {@link Type#STARTED} events
+ * @param <T>      the type of the stateful bean used in the workflow
+ */
+public record NodeEvent<T>(@NonNull Type type,
+                           @NonNull Node<T, ?> node,
+                           T state,
+                           Object output,
+                           Throwable error,
+                           @NonNull Duration duration) {
+
+    /**
+     * The type of a node event.
+     */
+    public enum Type {
+        /**
+         * The node is about to be executed.
+         */
+        STARTED,
+        /**
+         * The node was executed successfully.
+         */
+        COMPLETED,
+        /**
+         * The node failed.
+         */
+        FAILED
+    }
+
+    /**
+     * Creates a {@link Type#STARTED} event.
+     *
+     * @param node  the started node
+     * @param state the state the node is executed against
+     * @param <T>   the type of the stateful bean used in the workflow
+     * @return a new node event
+     */
+    public static <T> NodeEvent<T> started(Node<T, ?> node, T state) {
+        return new NodeEvent<>(Type.STARTED, node, state, null, null, Duration.ZERO);
+    }
+
+    /**
+     * Creates a {@link Type#COMPLETED} event.
+     *
+     * @param node     the completed node
+     * @param state    the state the node was executed against
+     * @param output   the output of the node
+     * @param duration the time elapsed since the node was started
+     * @param <T>      the type of the stateful bean used in the workflow
+     * @return a new node event
+     */
+    public static <T> NodeEvent<T> completed(Node<T, ?> node, T state, Object output, Duration duration) {
+        return new NodeEvent<>(Type.COMPLETED, node, state, output, null, duration);
+    }
+
+    /**
+     * Creates a {@link Type#FAILED} event.
+     *
+     * @param node     the failed node
+     * @param state    the state the node was executed against
+     * @param error    the failure of the node
+     * @param duration the time elapsed since the node was started
+     * @param <T>      the type of the stateful bean used in the workflow
+     * @return a new node event
+     */
+    public static <T> NodeEvent<T> failed(Node<T, ?> node, T state, Throwable error, Duration duration) {
+        return new NodeEvent<>(Type.FAILED, node, state, null, error, duration);
+    }
+}
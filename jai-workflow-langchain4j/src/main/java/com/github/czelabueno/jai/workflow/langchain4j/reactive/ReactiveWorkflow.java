@@ -0,0 +1,159 @@
+package com.github.czelabueno.jai.workflow.langchain4j.reactive;
+
+import com.github.czelabueno.jai.workflow.StateWorkflow;
+import com.github.czelabueno.jai.workflow.node.Node;
+import com.github.czelabueno.jai.workflow.node.NodeListener;
+import lombok.NonNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+
+/**
+ * ReactiveWorkflow exposes a {@link StateWorkflow} as a reactive stream of {@link NodeEvent}s.
+ * <p>
+ * Every subscription starts a new run of the workflow against the given state on the configured {@link Scheduler}
+ * ({@link Schedulers#boundedElastic()} by default, since nodes usually block on model calls) and emits a
+ * {@link NodeEvent.Type#STARTED} event before every node and a {@link NodeEvent.Type#COMPLETED} or
+ * {@link NodeEvent.Type#FAILED} event after it. The stream completes when the run completes and errors with the
+ * failure that stopped the run. Cancelling the subscription cancels the run: no further node is started.
+ * <p>
+ * Events are emitted in the order the nodes are executed and follow subscriber demand: a node is only started once
+ * its {@link NodeEvent.Type#STARTED} event is requested, so a slow subscriber holds the run back instead of letting
+ * events pile up. Only the completion events of the nodes already running may be buffered beyond the demand.
+ *
+ * @param <T> the type of the stateful bean used in the workflow
+ */
+public class ReactiveWorkflow<T> {
+
+    private final StateWorkflow<T> workflow;
+    private final Scheduler scheduler;
+
+    /**
+     * Constructs a new ReactiveWorkflow with the specified workflow and scheduler.
+     *
+     * @param workflow  the workflow to run
+     * @param scheduler the scheduler starting the runs, {@link Schedulers#boundedElastic()} if null
+     */
+    public ReactiveWorkflow(@NonNull StateWorkflow<T> workflow, Scheduler scheduler) {
+        this.workflow = workflow;
+        this.scheduler = getOrDefault(scheduler, Schedulers.boundedElastic());
+    }
+
+    /**
+     * Creates a new ReactiveWorkflow running on {@link Schedulers#boundedElastic()}.
+     *
+     * @param workflow the workflow to run
+     * @param <T>      the type of the stateful bean used in the workflow
+     * @return a new ReactiveWorkflow instance
+     */
+    public static <T> ReactiveWorkflow<T> from(StateWorkflow<T> workflow) {
+        return new ReactiveWorkflow<>(workflow, null);
+    }
+
+    /**
+     * Creates a new ReactiveWorkflow running on the given scheduler.
+     *
+     * @param workflow  the workflow to run
+     * @param scheduler the scheduler starting the runs
+     * @param <T>       the type of the stateful bean used in the workflow
+     * @return a new ReactiveWorkflow instance
+     */
+    public static <T> ReactiveWorkflow<T> from(StateWorkflow<T> workflow, Scheduler scheduler) {
+        return new ReactiveWorkflow<>(workflow, scheduler);
+    }
+
+    /**
+     * Runs the workflow against the given state for every subscription.
+     * <p>
+     * Before starting a node, the run waits until the subscriber requests its {@link NodeEvent.Type#STARTED} event,
+     * blocking the thread running the workflow: the scheduler thread, or the thread that completed the stage of the
+     * previous {@link com.github.czelabueno.jai.workflow.node.AsyncNode}. Cancelling the subscription releases the
+     * run, which stops without starting a further node.
+     *
+     * @param initialState the state to execute the workflow against
+     * @return a Flux of the lifecycle events of the executed nodes
+     */
+    public Flux<NodeEvent<T>> execute(@NonNull T initialState) {
+        return Flux.<NodeEvent<T>>create(sink -> {
+            SinkListener<T> listener = new SinkListener<>(sink);
+            CompletableFuture<T> run = workflow.runAsync(initialState, listener);
+            sink.onCancel(() -> {
+                listener.cancel();
+                run.cancel(true);
+            });
+            run.whenComplete((state, error) -> {
+                if (error != null) {
+                    sink.error(error);
+                } else {
+                    sink.complete();
+                }
+            });
+        }, FluxSink.OverflowStrategy.BUFFER)
+                .subscribeOn(scheduler, false); // requests must not queue up behind the run waiting for them
+    }
+
+    private static final class SinkListener<T> implements NodeListener<T> {
+
+        private final FluxSink<NodeEvent<T>> sink;
+        private long requested;
+        private long emitted;
+        private boolean cancelled;
+
+        private SinkListener(FluxSink<NodeEvent<T>> sink) {
+            this.sink = sink;
+            sink.onRequest(this::request);
+        }
+
+        private synchronized void request(long n) {
+            requested = requested + n < 0 ? Long.MAX_VALUE : requested + n; // Long.MAX_VALUE means unbounded
+            notifyAll();
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        @Override
+        public void onStarted(Node<T, ?> node, T state) {
+            synchronized (this) {
+                try {
+                    while (emitted >= requested && !cancelled && !sink.isCancelled()) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted before node '" + node.getName() + "'");
+                }
+                if (cancelled || sink.isCancelled()) {
+                    throw new CancellationException("Subscription cancelled before node '" + node.getName() + "'");
+                }
+            }
+            emit(NodeEvent.started(node, state));
+        }
+
+        @Override
+        public void onCompleted(Node<T, ?> node, T state, Object output, Duration duration) {
+            emit(NodeEvent.completed(node, state, output, duration));
+        }
+
+        @Override
+        public void onFailed(Node<T, ?> node, T state, Throwable error, Duration duration) {
+            emit(NodeEvent.failed(node, state, error, duration));
+        }
+
+        private void emit(NodeEvent<T> event) {
+            synchronized (this) {
+                emitted++;
+            }
+            sink.next(event);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.czelabueno.jai.workflow.langchain4j.internal;
+
+import com.github.czelabueno.jai.workflow.StateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.concurrent.AdmissionController;
+import com.github.czelabueno.jai.workflow.langchain4j.workflow.StatefulBeanMock;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultJAiWorkflowTest {
+
+    @Test
+    void should_answer_concurrent_questions_with_their_own_generation() throws Exception {
+        // given
+        Node<StatefulBeanMock, String> generate = generateWhenBothRunning();
+        DefaultJAiWorkflow<StatefulBeanMock> jAiWorkflow = DefaultJAiWorkflow.<StatefulBeanMock>builder()
+                .statefulBeanSupplier(StatefulBeanMock::new)
+                .nodes(singletonList(generate))
+                .build();
+        StateWorkflow<StatefulBeanMock> workflow = jAiWorkflow.workflow();
+        workflow.putEdge(generate, WorkflowStateName.END);
+        workflow.startNode(generate);
+        // when
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> jAiWorkflow.answer("first"));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> jAiWorkflow.answer("second"));
+        // then
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("Answer to first");
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("Answer to second");
+    }
+
+    @Test
+    void should_answer_one_question_at_a_time_against_stateful_bean() throws Exception {
+        // given
+        StatefulBeanMock statefulBean = new StatefulBeanMock();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Node<StatefulBeanMock, String> generate = Node.from("generate", state -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            state.setGeneration("Answer to " + state.getQuestion());
+            running.decrementAndGet();
+            return state.getGeneration();
+        });
+        DefaultJAiWorkflow<StatefulBeanMock> jAiWorkflow = DefaultJAiWorkflow.<StatefulBeanMock>builder()
+                .statefulBean(statefulBean)
+                .nodes(singletonList(generate))
+                .build();
+        jAiWorkflow.workflow().putEdge(generate, WorkflowStateName.END);
+        jAiWorkflow.workflow().startNode(generate);
+        // when
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> jAiWorkflow.answer("first"));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> jAiWorkflow.answer("second"));
+        // then
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("Answer to first");
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("Answer to second");
+        assertThat(maxRunning).hasValue(1);
+        assertThat(statefulBean.getGeneration()).isIn("Answer to first", "Answer to second"); // the last answer
+    }
+
+    @Test
+    void should_answer_admitted_concurrent_questions_with_their_own_generation() throws Exception {
+        // given
+        Node<StatefulBeanMock, String> generate = generateWhenBothRunning();
+        DefaultJAiWorkflow<StatefulBeanMock> jAiWorkflow = DefaultJAiWorkflow.<StatefulBeanMock>builder()
+                .statefulBeanSupplier(StatefulBeanMock::new)
+                .nodes(singletonList(generate))
+                .admissionController(AdmissionController.builder().maxInFlight(2).build())
+                .build();
+        jAiWorkflow.workflow().putEdge(generate, WorkflowStateName.END);
+        jAiWorkflow.workflow().startNode(generate);
+        // when
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> jAiWorkflow.answer("first"));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> jAiWorkflow.answer("second"));
+        // then
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("Answer to first");
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("Answer to second");
+        assertThat(jAiWorkflow.admissionController().metrics().admitted()).isEqualTo(2);
+    }
+
+    @Test
+    void should_answer_against_supplied_states() {
+        // given
+        Node<StatefulBeanMock, String> generate = Node.from("generate", state -> {
+            state.setGeneration(state.getWebSearch() + " " + state.getQuestion());
+            return state.getGeneration();
+        });
+        DefaultJAiWorkflow<StatefulBeanMock> jAiWorkflow = DefaultJAiWorkflow.<StatefulBeanMock>builder()
+                .statefulBeanSupplier(() -> {
+                    StatefulBeanMock state = new StatefulBeanMock();
+                    state.setWebSearch("Supplied");
+                    return state;
+                })
+                .nodes(singletonList(generate))
+                .build();
+        jAiWorkflow.workflow().putEdge(generate, WorkflowStateName.END);
+        jAiWorkflow.workflow().startNode(generate);
+        // when
+        String answer = jAiWorkflow.answer("state");
+        // then
+        assertThat(answer).isEqualTo("Supplied state");
+    }
+
+    private static Node<StatefulBeanMock, String> generateWhenBothRunning() {
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        return Node.from("generate", state -> {
+            try {
+                bothRunning.await(5, TimeUnit.SECONDS); // both answers are inside the node at the same time
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            state.setGeneration("Answer to " + state.getQuestion());
+            return state.getGeneration();
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.czelabueno.jai.workflow.langchain4j.model;
+
+import com.github.czelabueno.jai.workflow.langchain4j.AbstractStatefulBean;
+import com.github.czelabueno.jai.workflow.langchain4j.node.StreamingNode;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HedgingStreamingChatLanguageModelTest {
+
+    class MyStatefulBean extends AbstractStatefulBean {
+    }
+
+    private final List<ChatMessage> messages = List.of(new UserMessage("What is the weather today?"));
+
+    @Test
+    void should_hedge_request_to_alternate_model_when_primary_produces_no_token_in_time() {
+        // given
+        StreamingChatLanguageModel primary = mock(StreamingChatLanguageModel.class); // never answers
+        StreamingChatLanguageModel alternate = answering("Sunny", "today.");
+        HedgingStreamingChatLanguageModel model = HedgingStreamingChatLanguageModel.builder()
+                .primary(primary)
+                .hedge(alternate)
+                .initialHedgeDelay(Duration.ofMillis(50))
+                .build();
+        MyStatefulBean statefulBean = new MyStatefulBean();
+        // when
+        StreamingNode.<MyStatefulBean>from("generate", messages, model).execute(statefulBean);
+        // then
+        StepVerifier.create(statefulBean.getGenerationStream())
+                .expectNext("Sunny", "today.")
+                .verifyComplete();
+        assertThat(statefulBean.getGeneration()).isEqualTo("Sunny today.");
+        assertThat(model.hedgedRequests()).isEqualTo(1);
+        assertThat(model.hedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_hedge_request_when_primary_answers_before_hedge_delay() {
+        // given
+        StreamingChatLanguageModel primary = answering("Sunny", "today.");
+        StreamingChatLanguageModel alternate = mock(StreamingChatLanguageModel.class);
+        HedgingStreamingChatLanguageModel model = HedgingStreamingChatLanguageModel.builder()
+                .primary(primary)
+                .hedge(alternate)
+                .initialHedgeDelay(Duration.ofMillis(50))
+                .minSamples(1)
+                .build();
+        MyStatefulBean statefulBean = new MyStatefulBean();
+        // when
+        StreamingNode.<MyStatefulBean>from("generate", messages, model).execute(statefulBean);
+        // then
+        assertThat(statefulBean.getGeneration()).isEqualTo("Sunny today.");
+        assertThat(model.hedgedRequests()).isZero();
+        assertThat(model.latencyTracker().samples()).isEqualTo(1);
+        assertThat(model.hedgeDelay()).isLessThan(Duration.ofMillis(50)); // the tracked latency replaces the initial delay
+        verify(alternate, never()).generate(anyList(), any(StreamingResponseHandler.class));
+    }
+
+    @Test
+    void should_not_send_hedge_when_primary_answers_before_hedge_delay() throws InterruptedException {
+        // given
+        StreamingChatLanguageModel primary = mock(StreamingChatLanguageModel.class);
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            CompletableFuture.runAsync(() -> { // answers after the hedge is scheduled
+                handler.onNext("Sunny");
+                handler.onComplete(new Response<>(new AiMessage("Sunny")));
+            }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+            return null;
+        }).when(primary).generate(anyList(), any(StreamingResponseHandler.class));
+        StreamingChatLanguageModel alternate = mock(StreamingChatLanguageModel.class);
+        HedgingStreamingChatLanguageModel model = HedgingStreamingChatLanguageModel.builder()
+                .primary(primary)
+                .hedge(alternate)
+                .initialHedgeDelay(Duration.ofMillis(200))
+                .build();
+        MyStatefulBean statefulBean = new MyStatefulBean();
+        // when
+        StreamingNode.<MyStatefulBean>from("generate", messages, model).execute(statefulBean);
+        Thread.sleep(400); // past the hedge delay
+        // then
+        assertThat(statefulBean.getGeneration()).isEqualTo("Sunny");
+        assertThat(model.hedgedRequests()).isZero();
+        verify(alternate, never()).generate(anyList(), any(StreamingResponseHandler.class));
+    }
+
+    @Test
+    void should_forward_only_the_winner_and_fail_once_every_call_failed() {
+        // given
+        AtomicReference<StreamingResponseHandler<AiMessage>> primaryHandler = new AtomicReference<>();
+        StreamingChatLanguageModel primary = mock(StreamingChatLanguageModel.class);
+        doAnswer(invocation -> {
+            primaryHandler.set(invocation.getArgument(1));
+            return null;
+        }).when(primary).generate(anyList(), any(StreamingResponseHandler.class));
+        StreamingChatLanguageModel alternate = mock(StreamingChatLanguageModel.class);
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            primaryHandler.get().onError(new IllegalStateException("primary down")); // the hedge is still pending
+            handler.onError(new IllegalStateException("hedge down"));
+            return null;
+        }).when(alternate).generate(anyList(), any(StreamingResponseHandler.class));
+        HedgingStreamingChatLanguageModel model = HedgingStreamingChatLanguageModel.builder()
+                .primary(primary)
+                .hedge(alternate)
+                .initialHedgeDelay(Duration.ZERO)
+                .build();
+        // when
+        StreamingNode<MyStatefulBean> node = StreamingNode.from("generate", messages, model);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> node.execute(new MyStatefulBean()))
+                .withMessage("hedge down");
+    }
+
+    @Test
+    void should_compute_percentiles_of_the_most_recent_latencies() {
+        // given
+        LatencyTracker tracker = new LatencyTracker(10, 5);
+        // when
+        for (int i = 1; i <= 4; i++) {
+            tracker.record(Duration.ofMillis(i).toNanos());
+        }
+        assertThat(tracker.percentile(0.5)).isNull(); // not enough samples
+        for (int i = 5; i <= 20; i++) {
+            tracker.record(Duration.ofMillis(i).toNanos());
+        }
+        // then
+        assertThat(tracker.samples()).isEqualTo(10); // 11..20 are kept
+        assertThat(tracker.percentile(0.5)).isEqualTo(Duration.ofMillis(15));
+        assertThat(tracker.percentile(0.95)).isEqualTo(Duration.ofMillis(20));
+        assertThat(tracker.percentile(0.1)).isEqualTo(Duration.ofMillis(11));
+    }
+
+    private static StreamingChatLanguageModel answering(String... tokens) {
+        StreamingChatLanguageModel model = mock(StreamingChatLanguageModel.class);
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            for (String token : tokens) {
+                handler.onNext(token);
+            }
+            handler.onComplete(new Response<>(new AiMessage(String.join(" ", tokens))));
+            return null;
+        }).when(model).generate(anyList(), any(StreamingResponseHandler.class));
+        return model;
+    }
+}
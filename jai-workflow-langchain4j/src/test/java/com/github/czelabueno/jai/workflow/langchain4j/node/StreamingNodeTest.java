@@ -1,6 +1,7 @@
 package com.github.czelabueno.jai.workflow.langchain4j.node;
 
 import com.github.czelabueno.jai.workflow.langchain4j.AbstractStatefulBean;
+import com.github.czelabueno.jai.workflow.langchain4j.cache.PromptCache;
 import com.github.czelabueno.jai.workflow.langchain4j.node.StreamingNode;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -77,6 +79,63 @@ class StreamingNodeTest {
         assertThat(statefulBean.getGeneration()).isEqualTo("The weather is sunny today.");
     }
 
+    @Test
+    void should_propagate_model_error_instead_of_waiting_forever() {
+        // given
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            handler.onNext("The");
+            handler.onError(new IllegalStateException("provider unavailable"));
+            return null;
+        }).when(model).generate(anyList(), any(StreamingResponseHandler.class));
+        StreamingNode<MyStatefulBean> node = StreamingNode.from("streamingNode1", messages, model);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> node.execute(statefulBean))
+                .withMessage("provider unavailable");
+    }
+
+    @Test
+    void should_stop_waiting_for_model_response_when_interrupted() {
+        // given
+        StreamingNode<MyStatefulBean> node = StreamingNode.from("streamingNode1", messages, model); // never responds
+        // when
+        Thread.currentThread().interrupt();
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> node.execute(statefulBean))
+                .withMessage("Interrupted while waiting for the model response");
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    @Test
+    void should_replay_cached_generation_for_identical_prompt_without_calling_model() {
+        // given
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            handler.onNext("Sunny");
+            handler.onNext("today.");
+            handler.onComplete(new Response<>(new AiMessage("Sunny today.")));
+            return null;
+        }).when(model).generate(anyList(), any(StreamingResponseHandler.class));
+        PromptCache promptCache = PromptCache.builder().replayPace(Duration.ofMillis(1)).build();
+        StreamingNode<MyStatefulBean> node = StreamingNode.from("streamingNode1", messages, null, model, promptCache);
+        node.execute(statefulBean);
+        MyStatefulBean repeated = new MyStatefulBean(List.of());
+        // when
+        node.execute(repeated);
+        // then
+        verify(model, times(1)).generate(anyList(), any(StreamingResponseHandler.class));
+        assertThat(repeated.getGeneration()).isEqualTo("Sunny today.");
+        StepVerifier.create(repeated.getGenerationStream())
+                .expectNext("Sunny", "today.")
+                .verifyComplete();
+        assertThat(promptCache.stats().hits()).isEqualTo(1);
+        assertThat(promptCache.stats().misses()).isEqualTo(1);
+        assertThat(PromptCache.key(messages)).isEqualTo(PromptCache.key(List.of(new UserMessage("What is the weather today?"))))
+                .isNotEqualTo(PromptCache.key(List.of(new UserMessage("What is the weather tomorrow?"))));
+    }
+
     @Test
     void should_throw_null_pointer_exception_if_streamingChatLanguageModel_is_null() {
         // then
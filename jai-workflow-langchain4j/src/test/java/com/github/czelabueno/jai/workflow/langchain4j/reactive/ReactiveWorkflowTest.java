@@ -0,0 +1,175 @@
+package com.github.czelabueno.jai.workflow.langchain4j.reactive;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.StateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.langchain4j.workflow.StatefulBeanMock;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveWorkflowTest {
+
+    private Node<StatefulBeanMock, String> retrieve;
+    private Node<StatefulBeanMock, String> generate;
+
+    @BeforeEach
+    void setUp() {
+        retrieve = Node.from("retrieve", bean -> {
+            bean.setWebSearch("web results");
+            return "retrieved";
+        });
+        generate = Node.from("generate", bean -> {
+            bean.setGeneration("answer from " + bean.getWebSearch());
+            return bean.getGeneration();
+        });
+    }
+
+    @Test
+    void should_emit_started_and_completed_events_in_execution_order() {
+        // given
+        StateWorkflow<StatefulBeanMock> workflow = workflow(retrieve, generate);
+        StatefulBeanMock state = new StatefulBeanMock();
+        // when
+        ReactiveWorkflow<StatefulBeanMock> reactiveWorkflow = ReactiveWorkflow.from(workflow);
+        // then
+        StepVerifier.create(reactiveWorkflow.execute(state))
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.STARTED, "retrieve"))
+                .assertNext(event -> {
+                    assertEvent(event, NodeEvent.Type.COMPLETED, "retrieve");
+                    assertThat(event.output()).isEqualTo("retrieved");
+                    assertThat(event.duration()).isGreaterThanOrEqualTo(Duration.ZERO);
+                })
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.STARTED, "generate"))
+                .assertNext(event -> {
+                    assertEvent(event, NodeEvent.Type.COMPLETED, "generate");
+                    assertThat(event.output()).isEqualTo("answer from web results");
+                    assertThat(event.state()).isSameAs(state);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void should_emit_failed_event_and_error_when_node_fails() {
+        // given
+        Node<StatefulBeanMock, String> failing = Node.from("failing", bean -> {
+            throw new IllegalStateException("model unavailable");
+        });
+        StateWorkflow<StatefulBeanMock> workflow = workflow(retrieve, failing);
+        // then
+        StepVerifier.create(ReactiveWorkflow.from(workflow, Schedulers.parallel()).execute(new StatefulBeanMock()))
+                .expectNextCount(3)
+                .assertNext(event -> {
+                    assertEvent(event, NodeEvent.Type.FAILED, "failing");
+                    assertThat(event.error()).hasMessage("model unavailable");
+                })
+                .verifyErrorMessage("model unavailable");
+    }
+
+    @Test
+    void should_deliver_events_according_to_demand() {
+        // given
+        StateWorkflow<StatefulBeanMock> workflow = workflow(retrieve, generate);
+        // then
+        StepVerifier.create(ReactiveWorkflow.from(workflow).execute(new StatefulBeanMock()), 1)
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.STARTED, "retrieve"))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void should_not_start_next_node_before_its_event_is_requested() {
+        // given
+        AtomicBoolean generateStarted = new AtomicBoolean();
+        Node<StatefulBeanMock, String> tracked = Node.from("generate", bean -> {
+            generateStarted.set(true);
+            return "answer";
+        });
+        StateWorkflow<StatefulBeanMock> workflow = workflow(retrieve, tracked);
+        // then
+        StepVerifier.create(ReactiveWorkflow.from(workflow).execute(new StatefulBeanMock()), 2)
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.STARTED, "retrieve"))
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.COMPLETED, "retrieve"))
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> assertThat(generateStarted).isFalse())
+                .thenRequest(2)
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.STARTED, "generate"))
+                .assertNext(event -> assertEvent(event, NodeEvent.Type.COMPLETED, "generate"))
+                .verifyComplete();
+        assertThat(generateStarted).isTrue();
+    }
+
+    @Test
+    void should_release_run_waiting_for_demand_when_subscription_is_cancelled() throws InterruptedException {
+        // given
+        AtomicBoolean generateStarted = new AtomicBoolean();
+        Node<StatefulBeanMock, String> tracked = Node.from("generate", bean -> {
+            generateStarted.set(true);
+            return "answer";
+        });
+        StateWorkflow<StatefulBeanMock> workflow = workflow(retrieve, tracked);
+        // when
+        StepVerifier.create(ReactiveWorkflow.from(workflow).execute(new StatefulBeanMock()), 2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        // then
+        Thread.sleep(200);
+        assertThat(generateStarted).isFalse();
+    }
+
+    @Test
+    void should_cancel_run_when_subscription_is_cancelled() throws InterruptedException {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean generated = new AtomicBoolean();
+        Node<StatefulBeanMock, String> slow = Node.from("slow", bean -> {
+            started.countDown();
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        });
+        Node<StatefulBeanMock, String> last = Node.from("last", bean -> {
+            generated.set(true);
+            return "last";
+        });
+        StateWorkflow<StatefulBeanMock> workflow = workflow(slow, last);
+        // when
+        var subscription = ReactiveWorkflow.from(workflow).execute(new StatefulBeanMock()).subscribe();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        subscription.dispose();
+        // then
+        Thread.sleep(200);
+        assertThat(generated).isFalse();
+    }
+
+    private static StateWorkflow<StatefulBeanMock> workflow(Node<StatefulBeanMock, String> first, Node<StatefulBeanMock, String> second) {
+        StateWorkflow<StatefulBeanMock> workflow = DefaultStateWorkflow.<StatefulBeanMock>builder()
+                .addNodes(asList(first, second))
+                .build();
+        workflow.putEdge(first, second);
+        workflow.putEdge(second, WorkflowStateName.END);
+        workflow.startNode(first);
+        return workflow;
+    }
+
+    private static void assertEvent(NodeEvent<StatefulBeanMock> event, NodeEvent.Type type, String nodeName) {
+        assertThat(event.type()).isEqualTo(type);
+        assertThat(event.node().getName()).isEqualTo(nodeName);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.czelabueno.jai.workflow.maven;
+
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerator;
+import com.github.czelabueno.jai.workflow.graph.TextGraphExporter;
+import com.github.czelabueno.jai.workflow.graph.graphviz.GraphvizImageGenerator;
+
+/**
+ * The formats of the workflow diagrams rendered at build time.
+ */
+public enum DiagramFormat {
+
+    /**
+     * An SVG image rendered with Graphviz.
+     */
+    SVG("svg"),
+    /**
+     * A Graphviz DOT text file.
+     */
+    DOT("dot"),
+    /**
+     * A Mermaid flowchart text file.
+     */
+    MERMAID("mmd");
+
+    private final String extension;
+
+    DiagramFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the file extension of the diagrams in this format, without the leading dot.
+     *
+     * @return the file extension
+     */
+    public String extension() {
+        return extension;
+    }
+
+    GraphImageGenerator generator() {
+        switch (this) {
+            case DOT:
+                return TextGraphExporter.dot();
+            case MERMAID:
+                return TextGraphExporter.mermaid();
+            default:
+                return GraphvizImageGenerator.builder().build();
+        }
+    }
+}
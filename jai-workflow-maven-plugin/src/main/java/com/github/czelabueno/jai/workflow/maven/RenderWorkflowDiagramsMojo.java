@@ -0,0 +1,119 @@
+package com.github.czelabueno.jai.workflow.maven;
+
+import com.github.czelabueno.jai.workflow.WorkflowDefinition;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+
+/**
+ * Renders the diagrams of the workflow definitions of the project into the build directory, and fails the build
+ * if a workflow graph is invalid.
+ * <p>
+ * Workflow definitions are the {@link WorkflowDefinition} implementations listed in the {@code definitions}
+ * parameter, or discovered with {@link java.util.ServiceLoader} when none is listed.
+ */
+@Mojo(name = "render",
+        defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.RUNTIME,
+        threadSafe = true)
+public class RenderWorkflowDiagramsMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * The class names of the workflow definitions to render. All the definitions registered as services are
+     * rendered when empty.
+     */
+    @Parameter
+    private List<String> definitions = new ArrayList<>();
+
+    /**
+     * The directory the diagrams are written to.
+     */
+    @Parameter(property = "jai-workflow.outputDirectory", defaultValue = "${project.build.directory}/jai-workflow")
+    private File outputDirectory;
+
+    /**
+     * The format of the diagrams: SVG, DOT or MERMAID.
+     */
+    @Parameter(property = "jai-workflow.format", defaultValue = "SVG")
+    private DiagramFormat format;
+
+    /**
+     * Skips the rendering of the diagrams.
+     */
+    @Parameter(property = "jai-workflow.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Rendering of workflow diagrams is skipped");
+            return;
+        }
+        WorkflowDiagramRenderer renderer = new WorkflowDiagramRenderer(outputDirectory.toPath(), format);
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = projectClassLoader()) {
+            thread.setContextClassLoader(classLoader);
+            List<WorkflowDefinition> loaded;
+            try {
+                loaded = WorkflowDiagramRenderer.load(classLoader, definitions);
+            } catch (IllegalArgumentException | ServiceConfigurationError e) {
+                throw new MojoExecutionException(e.getMessage(), e);
+            }
+            if (loaded.isEmpty()) {
+                getLog().warn("No workflow definition found");
+                return;
+            }
+            List<String> invalid = new ArrayList<>();
+            for (WorkflowDefinition definition : loaded) {
+                try {
+                    Path diagram = renderer.render(definition);
+                    getLog().info("Rendered workflow '" + definition.name() + "' to " + diagram);
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    getLog().error(e.getMessage());
+                    invalid.add(definition.name());
+                }
+            }
+            if (!invalid.isEmpty()) {
+                throw new MojoFailureException("Invalid workflows: " + String.join(", ", invalid));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot render workflow diagrams", e);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private URLClassLoader projectClassLoader() throws MojoExecutionException {
+        try {
+            List<String> elements = project.getRuntimeClasspathElements();
+            URL[] urls = new URL[elements.size()];
+            for (int i = 0; i < urls.length; i++) {
+                urls[i] = new File(elements.get(i)).toURI().toURL();
+            }
+            // Parent first, so the project shares the workflow classes of the plugin
+            return new URLClassLoader(urls, getClass().getClassLoader());
+        } catch (DependencyResolutionRequiredException | MalformedURLException e) {
+            throw new MojoExecutionException("Cannot resolve the runtime classpath of the project", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.czelabueno.jai.workflow.maven;
+
+import com.github.czelabueno.jai.workflow.ExecutionPlan;
+import com.github.czelabueno.jai.workflow.WorkflowDefinition;
+import com.github.czelabueno.jai.workflow.graph.GraphImageGenerator;
+import com.github.czelabueno.jai.workflow.graph.graphviz.GraphvizImageGenerator;
+import com.github.czelabueno.jai.workflow.transition.Transition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Renders the diagrams of workflow definitions without running them. The diagram of a workflow is drawn from
+ * its compiled graph, so every declared edge is shown and not only the ones taken by a run.
+ */
+final class WorkflowDiagramRenderer {
+
+    private final Path outputDirectory;
+    private final DiagramFormat format;
+
+    WorkflowDiagramRenderer(Path outputDirectory, DiagramFormat format) {
+        if (outputDirectory == null) {
+            throw new IllegalArgumentException("Output directory cannot be null");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Diagram format cannot be null");
+        }
+        this.outputDirectory = outputDirectory;
+        this.format = format;
+    }
+
+    /**
+     * Loads the workflow definitions visible to the given class loader.
+     *
+     * @param classLoader the class loader of the project classes
+     * @param classNames  the class names of the definitions, or an empty list to discover them with {@link ServiceLoader}
+     * @return the workflow definitions
+     * @throws IllegalArgumentException if a named class cannot be loaded or is not a workflow definition
+     */
+    static List<WorkflowDefinition> load(ClassLoader classLoader, List<String> classNames) {
+        List<WorkflowDefinition> definitions = new ArrayList<>();
+        if (classNames == null || classNames.isEmpty()) {
+            ServiceLoader.load(WorkflowDefinition.class, classLoader).forEach(definitions::add);
+            return definitions;
+        }
+        for (String className : classNames) {
+            try {
+                Class<?> type = Class.forName(className, true, classLoader);
+                if (!WorkflowDefinition.class.isAssignableFrom(type)) {
+                    throw new IllegalArgumentException(className + " does not implement " + WorkflowDefinition.class.getName());
+                }
+                definitions.add((WorkflowDefinition) type.getConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot instantiate workflow definition " + className, e);
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Renders the diagram of the given workflow definition into the output directory.
+     *
+     * @param definition the workflow definition
+     * @return the path of the rendered diagram
+     * @throws IllegalStateException if the graph of the workflow is invalid
+     * @throws IOException           if the diagram cannot be written
+     */
+    Path render(WorkflowDefinition definition) throws IOException {
+        String name = definition.name();
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Workflow definition " + definition.getClass().getName() + " has no name");
+        }
+        ExecutionPlan<?> plan;
+        try {
+            plan = definition.workflow().compile();
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Workflow '" + name + "' is invalid: " + e.getMessage(), e);
+        }
+        List<Transition> transitions = plan.graphTransitions();
+        Files.createDirectories(outputDirectory);
+        Path output = outputDirectory.resolve(name + "." + format.extension());
+        GraphImageGenerator generator = format.generator();
+        try {
+            generator.generateImage(transitions, output.toString());
+        } finally {
+            if (generator instanceof GraphvizImageGenerator) {
+                ((GraphvizImageGenerator) generator).close(); // releases the shared Graphviz engine
+            }
+        }
+        return output;
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.czelabueno.jai.workflow.maven;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.StateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowDefinition;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Node;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class WorkflowDiagramRendererTest {
+
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    void should_discover_workflow_definitions_registered_as_services() {
+        // when
+        List<WorkflowDefinition> definitions = WorkflowDiagramRenderer.load(getClass().getClassLoader(), emptyList());
+        // then
+        assertThat(definitions).extracting(WorkflowDefinition::name).containsExactly("greeting");
+    }
+
+    @Test
+    void should_load_workflow_definitions_by_class_name() {
+        // when
+        List<WorkflowDefinition> definitions = WorkflowDiagramRenderer.load(getClass().getClassLoader(),
+                singletonList(InvalidWorkflow.class.getName()));
+        // then
+        assertThat(definitions).singleElement().isInstanceOf(InvalidWorkflow.class);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> WorkflowDiagramRenderer.load(getClass().getClassLoader(), singletonList(String.class.getName())))
+                .withMessageContaining("does not implement");
+    }
+
+    @Test
+    void should_render_every_declared_edge_without_running_the_workflow() throws IOException {
+        // given
+        WorkflowDiagramRenderer renderer = new WorkflowDiagramRenderer(outputDirectory, DiagramFormat.DOT);
+        // when
+        Path diagram = renderer.render(new GreetingWorkflow());
+        // then
+        assertThat(diagram).isEqualTo(outputDirectory.resolve("greeting.dot"));
+        assertThat(Files.readString(diagram))
+                .contains("start -> Greet;")
+                .contains("Greet -> Polish;")
+                .contains("Polish -> end;");
+        assertThat(GreetingWorkflow.runs).isZero();
+    }
+
+    @Test
+    void should_render_mermaid_diagram() throws IOException {
+        // given
+        WorkflowDiagramRenderer renderer = new WorkflowDiagramRenderer(outputDirectory.resolve("nested"), DiagramFormat.MERMAID);
+        // when
+        Path diagram = renderer.render(new GreetingWorkflow());
+        // then
+        assertThat(diagram).hasFileName("greeting.mmd");
+        assertThat(Files.readString(diagram)).startsWith("flowchart");
+    }
+
+    @Test
+    void should_fail_on_invalid_workflow_graph() {
+        // given
+        WorkflowDiagramRenderer renderer = new WorkflowDiagramRenderer(outputDirectory, DiagramFormat.DOT);
+        // then
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> renderer.render(new InvalidWorkflow()))
+                .withMessageStartingWith("Workflow 'invalid' is invalid")
+                .withMessageContaining("Node 'orphan' is unreachable");
+        assertThat(outputDirectory.resolve("invalid.dot")).doesNotExist();
+    }
+
+    public static class GreetingWorkflow implements WorkflowDefinition {
+
+        static int runs;
+
+        @Override
+        public String name() {
+            return "greeting";
+        }
+
+        @Override
+        public StateWorkflow<?> workflow() {
+            Node<StringBuilder, StringBuilder> greet = Node.from("greet", sb -> { runs++; return sb.append("hello"); });
+            Node<StringBuilder, StringBuilder> polish = Node.from("polish", sb -> { runs++; return sb.append("!"); });
+            StateWorkflow<StringBuilder> workflow = DefaultStateWorkflow.<StringBuilder>builder()
+                    .addNodes(asList(greet, polish))
+                    .build();
+            workflow.putEdge(greet, polish);
+            workflow.putEdge(polish, WorkflowStateName.END);
+            workflow.startNode(greet);
+            return workflow;
+        }
+    }
+
+    public static class InvalidWorkflow implements WorkflowDefinition {
+
+        @Override
+        public String name() {
+            return "invalid";
+        }
+
+        @Override
+        public StateWorkflow<?> workflow() {
+            Node<StringBuilder, StringBuilder> start = Node.from("start", sb -> sb.append("start"));
+            Node<StringBuilder, StringBuilder> orphan = Node.from("orphan", sb -> sb.append("orphan"));
+            StateWorkflow<StringBuilder> workflow = DefaultStateWorkflow.<StringBuilder>builder()
+                    .addNodes(asList(start, orphan))
+                    .build();
+            workflow.putEdge(start, WorkflowStateName.END);
+            workflow.startNode(start);
+            return workflow;
+        }
+    }
+}
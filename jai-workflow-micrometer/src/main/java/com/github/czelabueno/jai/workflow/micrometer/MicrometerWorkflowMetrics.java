@@ -0,0 +1,141 @@
+package com.github.czelabueno.jai.workflow.micrometer;
+
+import com.github.czelabueno.jai.workflow.metrics.WorkflowMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the metrics of workflow runs in a Micrometer {@link MeterRegistry}.
+ * <p>
+ * The meters are:
+ * <ul>
+ *     <li>{@code jai.workflow.run}: timer of the runs, tagged with their {@code outcome}, success or error</li>
+ *     <li>{@code jai.workflow.runs.in.flight}: gauge of the runs in progress</li>
+ *     <li>{@code jai.workflow.node}: timer of the node executions, tagged with the {@code node} name and the
+ *     {@code outcome}</li>
+ *     <li>{@code jai.workflow.node.loop.iterations}: counter of the node executions repeated in the same run</li>
+ *     <li>{@code jai.workflow.node.in.flight}: gauge of the node executions in progress</li>
+ *     <li>{@code jai.workflow.conditional}: timer of the evaluations of the conditional edge following a node</li>
+ * </ul>
+ * Timers publish their 50th and 99th percentiles. The meters of a node are registered once, on its first execution.
+ */
+public class MicrometerWorkflowMetrics implements WorkflowMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer runSuccesses;
+    private final Timer runErrors;
+    private final AtomicInteger runsInFlight = new AtomicInteger();
+    private final Map<String, NodeMeters> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs metrics recorded in the given registry.
+     *
+     * @param registry the registry of the meters
+     */
+    public MicrometerWorkflowMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * Constructs metrics recorded in the given registry, with tags common to every meter, such as the name of the
+     * workflow.
+     *
+     * @param registry the registry of the meters
+     * @param tags     the tags of every meter
+     */
+    public MicrometerWorkflowMetrics(MeterRegistry registry, Tags tags) {
+        this.registry = Objects.requireNonNull(registry, "registry cannot be null");
+        this.tags = Objects.requireNonNull(tags, "tags cannot be null");
+        this.runSuccesses = timer("jai.workflow.run", "Duration of the workflow runs", this.tags.and("outcome", "success"));
+        this.runErrors = timer("jai.workflow.run", "Duration of the workflow runs", this.tags.and("outcome", "error"));
+        registry.gauge("jai.workflow.runs.in.flight", this.tags, runsInFlight);
+    }
+
+    @Override
+    public void onRunStarted() {
+        runsInFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onRunCompleted(long nanos, Throwable error) {
+        runsInFlight.decrementAndGet();
+        (error == null ? runSuccesses : runErrors).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onNodeStarted(String node) {
+        meters(node).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onNodeCompleted(String node, long nanos) {
+        NodeMeters meters = meters(node);
+        meters.inFlight.decrementAndGet();
+        meters.successes.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onNodeFailed(String node, long nanos, Throwable error) {
+        NodeMeters meters = meters(node);
+        meters.inFlight.decrementAndGet();
+        meters.errors.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onConditionalEvaluated(String node, long nanos) {
+        meters(node).conditional.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onLoopIteration(String node) {
+        meters(node).loopIterations.increment();
+    }
+
+    private NodeMeters meters(String node) {
+        NodeMeters meters = nodes.get(node);
+        return meters != null ? meters : nodes.computeIfAbsent(node, NodeMeters::new);
+    }
+
+    private Timer timer(String name, String description, Tags timerTags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(timerTags)
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    /**
+     * The meters of a node, registered on its first execution.
+     */
+    private final class NodeMeters {
+
+        private final Timer successes;
+        private final Timer errors;
+        private final Timer conditional;
+        private final Counter loopIterations;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private NodeMeters(String node) {
+            Tags nodeTags = tags.and("node", node);
+            this.successes = timer("jai.workflow.node", "Duration of the node executions", nodeTags.and("outcome", "success"));
+            this.errors = timer("jai.workflow.node", "Duration of the node executions", nodeTags.and("outcome", "error"));
+            this.conditional = timer("jai.workflow.conditional", "Duration of the evaluations of the conditional edge following a node", nodeTags);
+            this.loopIterations = Counter.builder("jai.workflow.node.loop.iterations")
+                    .description("Number of node executions repeated in the same run")
+                    .tags(nodeTags)
+                    .register(registry);
+            registry.gauge("jai.workflow.node.in.flight", nodeTags, inFlight);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.czelabueno.jai.workflow.micrometer;
+
+import com.github.czelabueno.jai.workflow.DefaultStateWorkflow;
+import com.github.czelabueno.jai.workflow.WorkflowStateName;
+import com.github.czelabueno.jai.workflow.node.Conditional;
+import com.github.czelabueno.jai.workflow.node.Node;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class MicrometerWorkflowMetricsTest {
+
+    @Test
+    void should_record_workflow_runs_in_meter_registry() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Node<int[], Integer> increment = Node.from("increment", counter -> ++counter[0]);
+        Node<int[], int[]> done = Node.from("done", counter -> counter);
+        DefaultStateWorkflow<int[]> workflow = DefaultStateWorkflow.<int[]>builder()
+                .addNodes(asList(increment, done))
+                .metrics(new MicrometerWorkflowMetrics(registry, Tags.of("workflow", "counter")))
+                .build();
+        workflow.putEdge(increment, Conditional.eval(counter -> counter[0] < 3 ? increment : done));
+        workflow.putEdge(done, WorkflowStateName.END);
+        workflow.startNode(increment);
+        // when
+        workflow.run(new int[1]);
+        // then
+        Timer run = registry.get("jai.workflow.run").tags("workflow", "counter", "outcome", "success").timer();
+        assertThat(run.count()).isEqualTo(1);
+        assertThat(registry.get("jai.workflow.runs.in.flight").gauge().value()).isZero();
+        assertThat(registry.get("jai.workflow.node").tags("node", "increment", "outcome", "success").timer().count()).isEqualTo(3);
+        assertThat(registry.get("jai.workflow.node.loop.iterations").tags("node", "increment").counter().count()).isEqualTo(2);
+        assertThat(registry.get("jai.workflow.conditional").tags("node", "increment").timer().count()).isEqualTo(3);
+        assertThat(registry.get("jai.workflow.node.in.flight").tags("node", "done").gauge().value()).isZero();
+        assertThat(registry.get("jai.workflow.node").tags("node", "increment").timer().takeSnapshot().percentileValues()).hasSize(2);
+    }
+
+    @Test
+    void should_record_failed_runs_and_nodes_as_errors() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Node<int[], Integer> failing = Node.from("failing", counter -> {
+            throw new IllegalStateException("failing node");
+        });
+        DefaultStateWorkflow<int[]> workflow = DefaultStateWorkflow.<int[]>builder()
+                .addNodes(asList(failing))
+                .metrics(new MicrometerWorkflowMetrics(registry))
+                .build();
+        workflow.putEdge(failing, WorkflowStateName.END);
+        workflow.startNode(failing);
+        // when
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> workflow.run(new int[1]));
+        // then
+        assertThat(registry.get("jai.workflow.run").tags("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jai.workflow.node").tags("node", "failing", "outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jai.workflow.node").tags("node", "failing", "outcome", "success").timer().count()).isZero();
+    }
+}